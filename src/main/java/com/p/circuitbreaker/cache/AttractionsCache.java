@@ -0,0 +1,154 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.deadline.Deadline;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of attraction descriptions per destination. Concurrent misses for the same destination are
+ * coalesced onto a single load, so each destination costs at most one upstream fetch (and one rate limiter
+ * permit) per time-to-live no matter how many requests ask for it.
+ */
+@Component
+public class AttractionsCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final Map<DestinationKey, CachedAttractions> entries;
+    private final Map<DestinationKey, CompletableFuture<String>> loading = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public AttractionsCache(@Value("${travel.attractions.cache.enabled:true}") boolean enabled,
+                            @Value("${travel.attractions.cache.ttl:10m}") Duration ttl,
+                            @Value("${travel.attractions.cache.max-entries:10000}") int maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DestinationKey, CachedAttractions> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("travel.attractions.cache.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("travel.attractions.cache.lookups").tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("travel.attractions.cache.lookups").tag("result", "coalesced").register(meterRegistry);
+        Gauge.builder("travel.attractions.cache.entries", this, AttractionsCache::size)
+                .description("Destinations with cached attractions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached attractions for the destination, or load them. A caller that finds another load for the
+     * same destination in progress waits for its result instead of starting a second one, but no longer than its
+     * own request deadline allows; if that load fails only because its caller's deadline passed, a waiter with time
+     * left starts a load of its own. Failed loads are not cached.
+     *
+     * @throws DeadlineExceededException when the caller's deadline passes while it waits for another load
+     */
+    public String get(String destinationName, String country, Supplier<String> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        DestinationKey key = DestinationKey.of(destinationName, country);
+        while (true) {
+            String cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+
+            CompletableFuture<String> load = new CompletableFuture<>();
+            CompletableFuture<String> inProgress = loading.putIfAbsent(key, load);
+            if (inProgress != null) {
+                coalesced.increment();
+                try {
+                    return await(inProgress, destinationName, country);
+                } catch (DeadlineExceededException e) {
+                    if (Deadline.isCurrentExpired()) {
+                        throw e;
+                    }
+                    continue;
+                }
+            }
+            misses.increment();
+            try {
+                String attractions = loader.get();
+                if (attractions != null) {
+                    put(key, attractions);
+                }
+                load.complete(attractions);
+                return attractions;
+            } catch (RuntimeException | Error e) {
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(key, load);
+            }
+        }
+    }
+
+    private synchronized String lookup(DestinationKey key) {
+        CachedAttractions entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.cachedAt() > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.attractions();
+    }
+
+    private synchronized void put(DestinationKey key, String attractions) {
+        entries.put(key, new CachedAttractions(attractions, System.currentTimeMillis()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String await(CompletableFuture<String> load, String destinationName, String country) {
+        Deadline deadline = Deadline.current();
+        try {
+            return deadline != null
+                    ? load.get(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS)
+                    : load.get();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(
+                    "Deadline passed while waiting for attractions of " + destinationName + " in " + country);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for attractions of "
+                    + destinationName + " in " + country, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record CachedAttractions(String attractions, long cachedAt) {
+    }
+}
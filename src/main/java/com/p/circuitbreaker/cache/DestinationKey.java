@@ -0,0 +1,22 @@
+package com.p.circuitbreaker.cache;
+
+import java.util.Locale;
+
+/**
+ * Normalized (destination name, country) lookup key shared by the destination caches.
+ */
+public record DestinationKey(String name, String country) {
+
+    public static DestinationKey of(String name, String country) {
+        return new DestinationKey(normalize(name), normalize(country));
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return name + "|" + country;
+    }
+}
@@ -0,0 +1,194 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Keeps destination records fetched from the upstream and periodically persists them to a memory-mapped
+ * snapshot file, so that a restarted instance can answer known lookups before the upstream is touched.
+ * <p>
+ * Records fetched since the last write are held in an {@link OffHeapDestinationStore} rather than as
+ * {@link TravelDestination} objects, and written records are read back from the mapped file, so cached
+ * destinations stay out of the Java heap. Two stores alternate: one takes new records while the other is
+ * being written out.
+ */
+@Component
+public class DestinationSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DestinationSnapshotStore.class);
+
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+    private volatile OffHeapDestinationStore pending;
+    private volatile OffHeapDestinationStore draining;
+    private OffHeapDestinationStore spare;
+    private volatile MappedDestinationSnapshot mapped;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejected;
+
+    public DestinationSnapshotStore(@Value("${travel.snapshot.enabled:true}") boolean enabled,
+                                    @Value("${travel.snapshot.path:${java.io.tmpdir}/travel-destinations.snapshot}") Path path,
+                                    @Value("${travel.snapshot.max-age:1h}") Duration maxAge,
+                                    @Value("${travel.snapshot.pending.max-size:64MB}") DataSize maxPendingSize,
+                                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.path = path;
+        this.maxAge = maxAge;
+        // each of the two alternating stores gets half of the budget
+        long storeBytes = Math.max(OffHeapDestinationStore.SEGMENT_SIZE, maxPendingSize.toBytes() / 2);
+        StringDictionary dictionary = new StringDictionary(4096);
+        this.pending = new OffHeapDestinationStore(storeBytes, dictionary);
+        this.spare = new OffHeapDestinationStore(storeBytes, dictionary);
+        this.hits = Counter.builder("travel.snapshot.lookups").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("travel.snapshot.lookups").tag("result", "miss").register(meterRegistry);
+        this.rejected = Counter.builder("travel.snapshot.pending.rejected")
+                .description("Fetched records not cached because the off-heap pending store was full")
+                .register(meterRegistry);
+        Gauge.builder("travel.snapshot.entries", this, DestinationSnapshotStore::mappedSize)
+                .description("Records in the currently mapped snapshot file")
+                .register(meterRegistry);
+        Gauge.builder("travel.snapshot.pending.bytes", this, store -> store.pending.usedBytes())
+                .description("Off-heap bytes used by records fetched since the last snapshot write")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+        try {
+            mapped = MappedDestinationSnapshot.open(path);
+            log.info("Mapped destination snapshot {} with {} records", path, mapped.size());
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable destination snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Find a record that was fetched within the configured maximum age.
+     *
+     * @return the record, or {@code null} when it is unknown or too old
+     */
+    public TravelDestination find(String destinationName, String country) {
+        if (!enabled) {
+            return null;
+        }
+        DestinationKey key = DestinationKey.of(destinationName, country);
+        SnapshotEntry entry = pending.find(key);
+        OffHeapDestinationStore writing = draining;
+        if (entry == null && writing != null) {
+            entry = writing.find(key);
+        }
+        MappedDestinationSnapshot snapshot = mapped;
+        if (entry == null && snapshot != null) {
+            entry = snapshot.find(key);
+        }
+        if (entry == null || isExpired(entry.fetchedAt(), System.currentTimeMillis())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.destination();
+    }
+
+    /**
+     * Remember a record freshly fetched from the upstream; it is persisted with the next snapshot write.
+     */
+    public void record(String destinationName, String country, TravelDestination destination) {
+        if (!enabled || !MappedDestinationSnapshot.isEncodable(destination)) {
+            return;
+        }
+        DestinationKey key = DestinationKey.of(destinationName, country);
+        long now = System.currentTimeMillis();
+        OffHeapDestinationStore store = pending;
+        boolean stored = store.put(key, destination, now);
+        if (!stored && store.isSealed()) {
+            // a write swapped the stores in the meantime
+            stored = pending.put(key, destination, now);
+        }
+        if (!stored) {
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Merge the records fetched since the last write into a new snapshot file and map it in place of the old one.
+     * Records of the old snapshot are copied over as raw bytes; expired ones are dropped.
+     */
+    @Scheduled(initialDelayString = "${travel.snapshot.write-interval:PT1M}",
+            fixedDelayString = "${travel.snapshot.write-interval:PT1M}")
+    public synchronized void write() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        OffHeapDestinationStore written = pending;
+        draining = written;
+        // swap before sealing, so that a record refused by the sealed store finds the new one when it retries
+        pending = spare;
+        written.seal();
+        MappedDestinationSnapshot snapshot = mapped;
+        int maxEntries = written.size() + (snapshot == null ? 0 : snapshot.size());
+
+        try {
+            MappedDestinationSnapshot.write(path, maxEntries, now, writer -> {
+                if (snapshot != null) {
+                    snapshot.forEachRecord((key, fetchedAt, offset) -> {
+                        if (!isExpired(fetchedAt, now) && !written.contains(key)) {
+                            writer.copy(snapshot, key, offset);
+                        }
+                    });
+                }
+                written.forEach(writer::add);
+            });
+            mapped = MappedDestinationSnapshot.open(path);
+            log.debug("Wrote destination snapshot {} with {} records", path, mapped.size());
+        } catch (IOException e) {
+            log.warn("Failed to write destination snapshot {}: {}", path, e.getMessage());
+            // keep the unwritten records for the next attempt, unless they were fetched again since
+            OffHeapDestinationStore current = pending;
+            written.forEach((key, entry) -> {
+                if (!current.contains(key)) {
+                    current.put(key, entry.destination(), entry.fetchedAt());
+                }
+            });
+        }
+        draining = null;
+        written.clear();
+        spare = written;
+    }
+
+    @PreDestroy
+    public void close() {
+        write();
+    }
+
+    private boolean isExpired(long fetchedAt, long now) {
+        return now - fetchedAt > maxAge.toMillis();
+    }
+
+    private double mappedSize() {
+        MappedDestinationSnapshot snapshot = mapped;
+        return snapshot == null ? 0 : snapshot.size();
+    }
+}
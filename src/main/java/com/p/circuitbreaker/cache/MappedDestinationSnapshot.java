@@ -0,0 +1,359 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped snapshot of destination records.
+ * <p>
+ * Layout (version 2, big endian):
+ * <pre>
+ * header   magic:int version:short reserved:short entryCount:int slotCount:int createdAt:long reserved:long
+ * slots    slotCount x (keyHash:int recordOffset:long), open addressing with linear probing, offset 0 = empty
+ * records  fetchedAt:long name country destinationId recordCountry recordName city description category
+ *          bestSeasonToVisit attractions, every string encoded as length:unsigned short (0xFFFF = null) + UTF-8
+ * </pre>
+ * Opening a snapshot only validates the header; a record is decoded when it is looked up. A single mapping cannot
+ * exceed 2 GiB, so the file is mapped in chunks that overlap by the longest possible record: every read starting in
+ * a chunk ends inside it.
+ */
+final class MappedDestinationSnapshot {
+
+    static final int MAGIC = 0x54445331;
+    static final short VERSION = 2;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int STRING_FIELDS = 10;
+    private static final int MAX_RECORD_SIZE = Long.BYTES + STRING_FIELDS * (Short.BYTES + NULL_LENGTH - 1);
+    private static final int CHUNK_SHIFT = 30;
+    private static final int WRITE_BUFFER_SIZE = 128 * 1024;
+
+    private final ByteBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final int entryCount;
+    private final int slotCount;
+    private final long createdAt;
+
+    private MappedDestinationSnapshot(ByteBuffer[] chunks, int chunkShift, int entryCount, int slotCount,
+                                      long createdAt) {
+        this.chunks = chunks;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.entryCount = entryCount;
+        this.slotCount = slotCount;
+        this.createdAt = createdAt;
+    }
+
+    static MappedDestinationSnapshot open(Path path) throws IOException {
+        return open(path, CHUNK_SHIFT);
+    }
+
+    static MappedDestinationSnapshot open(Path path, int chunkShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot " + path + " has invalid size " + size);
+            }
+            long chunkSize = 1L << chunkShift;
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkSize - 1) >>> chunkShift)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << chunkShift;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, chunkSize + MAX_RECORD_SIZE));
+            }
+            ByteBuffer header = chunks[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Snapshot " + path + " is not a destination snapshot");
+            }
+            short version = header.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Snapshot " + path + " has unsupported version " + version);
+            }
+            int entryCount = header.getInt(8);
+            int slotCount = header.getInt(12);
+            if (Integer.bitCount(slotCount) != 1 || HEADER_SIZE + (long) slotCount * SLOT_SIZE > size) {
+                throw new IOException("Snapshot " + path + " has a corrupt slot table");
+            }
+            return new MappedDestinationSnapshot(chunks, chunkShift, entryCount, slotCount, header.getLong(16));
+        }
+    }
+
+    int size() {
+        return entryCount;
+    }
+
+    long createdAt() {
+        return createdAt;
+    }
+
+    SnapshotEntry find(DestinationKey key) {
+        int hash = hash(key);
+        int mask = slotCount - 1;
+        for (int i = 0, slot = hash & mask; i < slotCount; i++, slot = (slot + 1) & mask) {
+            long slotPosition = HEADER_SIZE + (long) slot * SLOT_SIZE;
+            long offset = getLong(slotPosition + Integer.BYTES);
+            if (offset == 0) {
+                return null;
+            }
+            if (getInt(slotPosition) == hash && keyMatches(offset + Long.BYTES, key)) {
+                return decode(offset);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visit every record with its key and fetch time, without decoding the destination.
+     */
+    void forEachRecord(RecordVisitor visitor) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            long offset = getLong(HEADER_SIZE + (long) slot * SLOT_SIZE + Integer.BYTES);
+            if (offset != 0) {
+                long[] position = {offset + Long.BYTES};
+                DestinationKey key = new DestinationKey(readString(position), readString(position));
+                visitor.visit(key, getLong(offset), offset);
+            }
+        }
+    }
+
+    /**
+     * A record of a snapshot; its offset can be handed to {@link Writer#copy} to carry it over unchanged.
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(DestinationKey key, long fetchedAt, long offset);
+    }
+
+    /**
+     * Write the records {@code source} passes to the {@link Writer} to {@code path}, replacing any existing snapshot
+     * atomically. Records are streamed to the file as they come; {@code maxEntries} must be at least the number of
+     * records the source produces and sizes the slot table.
+     */
+    static void write(Path path, int maxEntries, long createdAt, Consumer<Writer> source) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel, maxEntries);
+            source.accept(writer);
+            writer.finish(createdAt);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temp);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Streams records into a new snapshot file through a small buffer. Records start right after the space kept
+     * for the header and slot table, which are only known once every record is written and so are written last.
+     */
+    static final class Writer {
+
+        private final FileChannel channel;
+        private final int maxEntries;
+        private final int slotCount;
+        private final int[] slotHashes;
+        private final long[] slotOffsets;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private long bufferStart;
+        private int entryCount;
+
+        private Writer(FileChannel channel, int maxEntries) {
+            this.channel = channel;
+            this.maxEntries = maxEntries;
+            this.slotCount = Integer.highestOneBit(Math.max(2, maxEntries * 2 - 1)) << 1;
+            this.slotHashes = new int[slotCount];
+            this.slotOffsets = new long[slotCount];
+            this.bufferStart = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        }
+
+        /**
+         * Encode and append a record.
+         */
+        void add(DestinationKey key, SnapshotEntry entry) {
+            startRecord(key);
+            TravelDestination destination = entry.destination();
+            ensure(Long.BYTES);
+            buffer.putLong(entry.fetchedAt());
+            writeString(key.name());
+            writeString(key.country());
+            writeString(destination.getDestinationId());
+            writeString(destination.getCountry());
+            writeString(destination.getName());
+            writeString(destination.getCity());
+            writeString(destination.getDescription());
+            writeString(destination.getCategory());
+            writeString(destination.getBestSeasonToVisit());
+            writeString(destination.getAttractions());
+        }
+
+        /**
+         * Append a record of another snapshot as it is, without decoding it.
+         */
+        void copy(MappedDestinationSnapshot source, DestinationKey key, long offset) {
+            startRecord(key);
+            ByteBuffer record = source.chunk(offset).slice(source.local(offset), source.recordLength(offset));
+            while (record.hasRemaining()) {
+                ensure(1);
+                int length = Math.min(record.remaining(), buffer.remaining());
+                buffer.put(buffer.position(), record, record.position(), length);
+                buffer.position(buffer.position() + length);
+                record.position(record.position() + length);
+            }
+        }
+
+        private void startRecord(DestinationKey key) {
+            if (entryCount == maxEntries) {
+                throw new IllegalStateException("Snapshot source produced more than " + maxEntries + " entries");
+            }
+            entryCount++;
+            int hash = hash(key);
+            int slot = hash & (slotCount - 1);
+            while (slotOffsets[slot] != 0) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+            slotHashes[slot] = hash;
+            slotOffsets[slot] = bufferStart + buffer.position();
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                ensure(Short.BYTES);
+                buffer.putShort((short) NULL_LENGTH);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(Short.BYTES + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void finish(long createdAt) {
+            flush();
+            bufferStart = 0;
+            buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putInt(entryCount).putInt(slotCount).putLong(createdAt).putLong(0L);
+            for (int slot = 0; slot < slotCount; slot++) {
+                ensure(SLOT_SIZE);
+                buffer.putInt(slotHashes[slot]).putLong(slotOffsets[slot]);
+            }
+            flush();
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    bufferStart += channel.write(buffer, bufferStart);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+        }
+    }
+
+    static boolean isEncodable(TravelDestination destination) {
+        return fits(destination.getDestinationId()) && fits(destination.getCountry()) && fits(destination.getName())
+                && fits(destination.getCity()) && fits(destination.getDescription()) && fits(destination.getCategory())
+                && fits(destination.getBestSeasonToVisit()) && fits(destination.getAttractions());
+    }
+
+    private SnapshotEntry decode(long offset) {
+        long fetchedAt = getLong(offset);
+        long[] position = {offset + Long.BYTES};
+        skipString(position);
+        skipString(position);
+        TravelDestination destination = TravelDestination.builder()
+                .destinationId(readString(position))
+                .country(readString(position))
+                .name(readString(position))
+                .city(readString(position))
+                .description(readString(position))
+                .category(readString(position))
+                .bestSeasonToVisit(readString(position))
+                .attractions(readString(position))
+                .build();
+        return new SnapshotEntry(destination, fetchedAt);
+    }
+
+    private int recordLength(long offset) {
+        long[] position = {offset + Long.BYTES};
+        for (int i = 0; i < STRING_FIELDS; i++) {
+            skipString(position);
+        }
+        return (int) (position[0] - offset);
+    }
+
+    private boolean keyMatches(long position, DestinationKey key) {
+        long[] cursor = {position};
+        return key.name().equals(readString(cursor)) && key.country().equals(readString(cursor));
+    }
+
+    private String readString(long[] position) {
+        int length = Short.toUnsignedInt(chunk(position[0]).getShort(local(position[0])));
+        position[0] += Short.BYTES;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        chunk(position[0]).get(local(position[0]), bytes);
+        position[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void skipString(long[] position) {
+        int length = Short.toUnsignedInt(chunk(position[0]).getShort(local(position[0])));
+        position[0] += Short.BYTES + (length == NULL_LENGTH ? 0 : length);
+    }
+
+    private int getInt(long position) {
+        return chunk(position).getInt(local(position));
+    }
+
+    private long getLong(long position) {
+        return chunk(position).getLong(local(position));
+    }
+
+    private ByteBuffer chunk(long position) {
+        return chunks[(int) (position >>> chunkShift)];
+    }
+
+    private int local(long position) {
+        return (int) (position & chunkMask);
+    }
+
+    private static boolean fits(String value) {
+        return value == null || value.length() * 3 < NULL_LENGTH
+                || value.getBytes(StandardCharsets.UTF_8).length < NULL_LENGTH;
+    }
+
+    static int hash(DestinationKey key) {
+        int hash = 31 * key.name().hashCode() + key.country().hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
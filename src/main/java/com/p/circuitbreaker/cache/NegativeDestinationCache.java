@@ -0,0 +1,94 @@
+package com.p.circuitbreaker.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived record of destinations the upstream answered 404 for. Repeated lookups for a destination that
+ * does not exist (typos, crawlers probing names) are answered locally until the entry expires, instead of
+ * costing an upstream round trip each time. Kept separate from the positive caches so that a burst of unknown
+ * names can only evict other unknown names. Entries are kept per operation: an attractions 404 says nothing
+ * about whether the destination's details exist, so it must not short-circuit the details lookup.
+ */
+@Component
+public class NegativeDestinationCache {
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final Map<Entry, Long> entries;
+
+    private final Counter hits;
+    private final Counter recorded;
+
+    public NegativeDestinationCache(@Value("${travel.negative-cache.enabled:true}") boolean enabled,
+                                    @Value("${travel.negative-cache.ttl:60s}") Duration ttl,
+                                    @Value("${travel.negative-cache.max-entries:10000}") int maxEntries,
+                                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Entry, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("travel.negative-cache.hits")
+                .description("Lookups answered as not found without calling the upstream")
+                .register(meterRegistry);
+        this.recorded = Counter.builder("travel.negative-cache.recorded")
+                .description("Destinations recorded as not found by the upstream")
+                .register(meterRegistry);
+        Gauge.builder("travel.negative-cache.entries", this, NegativeDestinationCache::size)
+                .description("Destinations currently known not to exist")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether the upstream reported the destination as not found for the operation within the time-to-live
+     */
+    public boolean isKnownMissing(String operation, String destinationName, String country) {
+        if (!enabled) {
+            return false;
+        }
+        Entry key = new Entry(operation, DestinationKey.of(destinationName, country));
+        boolean missing;
+        synchronized (this) {
+            Long recordedAt = entries.get(key);
+            missing = recordedAt != null && System.currentTimeMillis() - recordedAt <= ttlMillis;
+            if (recordedAt != null && !missing) {
+                entries.remove(key);
+            }
+        }
+        if (missing) {
+            hits.increment();
+        }
+        return missing;
+    }
+
+    /**
+     * Remember that the upstream answered 404 for the destination when asked for the operation.
+     */
+    public void recordMissing(String operation, String destinationName, String country) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(new Entry(operation, DestinationKey.of(destinationName, country)), System.currentTimeMillis());
+        }
+        recorded.increment();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(String operation, DestinationKey destination) {
+    }
+}
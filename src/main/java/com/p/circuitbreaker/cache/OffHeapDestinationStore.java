@@ -0,0 +1,401 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Destination records encoded into direct (off-heap) buffers. The heap only holds the handful of buffer objects,
+ * so the number of cached records has no effect on garbage collection; a record is decoded into a
+ * {@link TravelDestination} only when it is looked up.
+ * <p>
+ * Records are appended to fixed-size segments and indexed by an open-addressing slot table that is itself a
+ * direct buffer. Recording a key again appends a new record and repoints its slot; the space of replaced records
+ * is reclaimed by {@link #clear()}. Once {@code maxBytes} worth of segments are in use, further records are refused.
+ * <p>
+ * Record layout (big endian):
+ * <pre>
+ * length:int fetchedAt:long name country destinationId recordName city description attractions
+ *          recordCountry category bestSeasonToVisit
+ * </pre>
+ * Text fields are length:unsigned short (0xFFFF = null) + UTF-8. The last three, low-cardinality fields are
+ * a {@link StringDictionary} code:unsigned short, with 0xFFFF for null and 0xFFFE followed by inline text for
+ * values the dictionary could not take.
+ */
+final class OffHeapDestinationStore {
+
+    static final int SEGMENT_SIZE = 1 << 20;
+
+    private static final int SLOT_SIZE = 12;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int NULL_LENGTH = 0xFFFF;
+    private static final int NULL_CODE = 0xFFFF;
+    private static final int INLINE_CODE = 0xFFFE;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final int maxSegments;
+    private final StringDictionary dictionary;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer slots;
+    private int slotCount;
+    private int size;
+    private int segment = -1;
+    private int position = SEGMENT_SIZE;
+    private long usedBytes;
+    private boolean sealed;
+
+    OffHeapDestinationStore(long maxBytes, StringDictionary dictionary) {
+        if (maxBytes < SEGMENT_SIZE) {
+            throw new IllegalArgumentException("An off-heap store needs at least " + SEGMENT_SIZE + " bytes");
+        }
+        this.maxSegments = (int) Math.min(Integer.MAX_VALUE, maxBytes / SEGMENT_SIZE);
+        this.dictionary = dictionary;
+        this.slotCount = INITIAL_SLOTS;
+        this.slots = ByteBuffer.allocateDirect(slotCount * SLOT_SIZE);
+    }
+
+    /**
+     * Store the record, replacing any earlier one for the key.
+     *
+     * @return {@code false} when the record was refused because the store is full or sealed
+     */
+    boolean put(DestinationKey key, TravelDestination destination, long fetchedAt) {
+        byte[] name = utf8(key.name());
+        byte[] country = utf8(key.country());
+        if (name.length >= NULL_LENGTH || country.length >= NULL_LENGTH) {
+            return false;
+        }
+        ByteBuffer record = encode(name, country, destination, fetchedAt);
+        if (record.remaining() > SEGMENT_SIZE) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (sealed || !reserve(record.remaining())) {
+                return false;
+            }
+            long address = address(segment, position);
+            segments.get(segment).put(position, record, 0, record.remaining());
+            position += record.remaining();
+            usedBytes += record.remaining();
+
+            if ((size + 1) * 2 > slotCount) {
+                resize(slotCount * 2);
+            }
+            int hash = MappedDestinationSnapshot.hash(key);
+            int slot = findSlot(hash, name, country);
+            if (slots.getLong(slot * SLOT_SIZE + Integer.BYTES) == 0) {
+                size++;
+            }
+            slots.putInt(slot * SLOT_SIZE, hash);
+            slots.putLong(slot * SLOT_SIZE + Integer.BYTES, address);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the record stored for the key, or {@code null}
+     */
+    SnapshotEntry find(DestinationKey key) {
+        byte[] name = utf8(key.name());
+        byte[] country = utf8(key.country());
+        lock.readLock().lock();
+        try {
+            long address = slots.getLong(findSlot(MappedDestinationSnapshot.hash(key), name, country) * SLOT_SIZE
+                    + Integer.BYTES);
+            return address == 0 ? null : decode(address);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(DestinationKey key) {
+        byte[] name = utf8(key.name());
+        byte[] country = utf8(key.country());
+        lock.readLock().lock();
+        try {
+            return slots.getLong(findSlot(MappedDestinationSnapshot.hash(key), name, country) * SLOT_SIZE
+                    + Integer.BYTES) != 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Decode every record. Writers are blocked while the action runs.
+     */
+    void forEach(BiConsumer<DestinationKey, SnapshotEntry> action) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                long address = slots.getLong(slot * SLOT_SIZE + Integer.BYTES);
+                if (address != 0) {
+                    ByteBuffer buffer = segments.get(segmentOf(address));
+                    int[] cursor = {offsetOf(address) + HEADER_SIZE};
+                    DestinationKey key = new DestinationKey(readString(buffer, cursor), readString(buffer, cursor));
+                    action.accept(key, decode(address));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Refuse further records until the next {@link #clear()}, so that a store being written out is not changed
+     * underneath the writer.
+     */
+    void seal() {
+        lock.writeLock().lock();
+        try {
+            sealed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean isSealed() {
+        lock.readLock().lock();
+        try {
+            return sealed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop all records and unseal the store. Allocated segments are kept for reuse.
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < slotCount * SLOT_SIZE; i += Integer.BYTES) {
+                slots.putInt(i, 0);
+            }
+            size = 0;
+            segment = -1;
+            position = SEGMENT_SIZE;
+            usedBytes = 0;
+            sealed = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return bytes taken by records, including records that have since been replaced
+     */
+    long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean reserve(int length) {
+        if (position + length <= SEGMENT_SIZE) {
+            return true;
+        }
+        int next = segment + 1;
+        if (next >= maxSegments) {
+            return false;
+        }
+        if (next == segments.size()) {
+            segments.add(ByteBuffer.allocateDirect(SEGMENT_SIZE));
+        }
+        segment = next;
+        position = 0;
+        return true;
+    }
+
+    /**
+     * @return the slot holding the key, or the empty slot where it belongs
+     */
+    private int findSlot(int hash, byte[] name, byte[] country) {
+        int mask = slotCount - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long address = slots.getLong(slot * SLOT_SIZE + Integer.BYTES);
+            if (address == 0 || (slots.getInt(slot * SLOT_SIZE) == hash && keyMatches(address, name, country))) {
+                return slot;
+            }
+        }
+    }
+
+    private void resize(int newSlotCount) {
+        ByteBuffer old = slots;
+        int oldSlotCount = slotCount;
+        slots = ByteBuffer.allocateDirect(newSlotCount * SLOT_SIZE);
+        slotCount = newSlotCount;
+        int mask = newSlotCount - 1;
+        for (int i = 0; i < oldSlotCount; i++) {
+            long address = old.getLong(i * SLOT_SIZE + Integer.BYTES);
+            if (address != 0) {
+                int hash = old.getInt(i * SLOT_SIZE);
+                int slot = hash & mask;
+                while (slots.getLong(slot * SLOT_SIZE + Integer.BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots.putInt(slot * SLOT_SIZE, hash);
+                slots.putLong(slot * SLOT_SIZE + Integer.BYTES, address);
+            }
+        }
+    }
+
+    private boolean keyMatches(long address, byte[] name, byte[] country) {
+        ByteBuffer buffer = segments.get(segmentOf(address));
+        int offset = offsetOf(address) + HEADER_SIZE;
+        if (!bytesMatch(buffer, offset, name)) {
+            return false;
+        }
+        return bytesMatch(buffer, offset + Short.BYTES + name.length, country);
+    }
+
+    private static boolean bytesMatch(ByteBuffer buffer, int offset, byte[] expected) {
+        if (Short.toUnsignedInt(buffer.getShort(offset)) != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + Short.BYTES + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer encode(byte[] name, byte[] country, TravelDestination destination, long fetchedAt) {
+        byte[][] text = {name, country, utf8(destination.getDestinationId()), utf8(destination.getName()),
+                utf8(destination.getCity()), utf8(destination.getDescription()), utf8(destination.getAttractions())};
+        String[] coded = {destination.getCountry(), destination.getCategory(), destination.getBestSeasonToVisit()};
+        int[] codes = new int[coded.length];
+        byte[][] inline = new byte[coded.length][];
+
+        int length = HEADER_SIZE;
+        for (byte[] value : text) {
+            length += Short.BYTES + (value == null ? 0 : value.length);
+        }
+        for (int i = 0; i < coded.length; i++) {
+            codes[i] = coded[i] == null ? NULL_CODE : dictionary.encode(coded[i]);
+            if (codes[i] == StringDictionary.NOT_ENCODED) {
+                codes[i] = INLINE_CODE;
+                inline[i] = utf8(coded[i]);
+                length += Short.BYTES + inline[i].length;
+            }
+            length += Short.BYTES;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length).putLong(fetchedAt);
+        for (byte[] value : text) {
+            putString(record, value);
+        }
+        for (int i = 0; i < coded.length; i++) {
+            record.putShort((short) codes[i]);
+            if (codes[i] == INLINE_CODE) {
+                putString(record, inline[i]);
+            }
+        }
+        record.flip();
+        return record;
+    }
+
+    private SnapshotEntry decode(long address) {
+        ByteBuffer buffer = segments.get(segmentOf(address));
+        int offset = offsetOf(address);
+        long fetchedAt = buffer.getLong(offset + Integer.BYTES);
+        int[] cursor = {offset + HEADER_SIZE};
+        skipString(buffer, cursor);
+        skipString(buffer, cursor);
+        String destinationId = readString(buffer, cursor);
+        String name = readString(buffer, cursor);
+        String city = readString(buffer, cursor);
+        String description = readString(buffer, cursor);
+        String attractions = readString(buffer, cursor);
+        TravelDestination destination = TravelDestination.builder()
+                .destinationId(destinationId)
+                .name(name)
+                .city(city)
+                .description(description)
+                .attractions(attractions)
+                .country(readCoded(buffer, cursor))
+                .category(readCoded(buffer, cursor))
+                .bestSeasonToVisit(readCoded(buffer, cursor))
+                .build();
+        return new SnapshotEntry(destination, fetchedAt);
+    }
+
+    private String readCoded(ByteBuffer buffer, int[] cursor) {
+        int code = Short.toUnsignedInt(buffer.getShort(cursor[0]));
+        cursor[0] += Short.BYTES;
+        if (code == NULL_CODE) {
+            return null;
+        }
+        return code == INLINE_CODE ? readString(buffer, cursor) : dictionary.decode(code);
+    }
+
+    private static String readString(ByteBuffer buffer, int[] cursor) {
+        int length = Short.toUnsignedInt(buffer.getShort(cursor[0]));
+        cursor[0] += Short.BYTES;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(cursor[0], bytes);
+        cursor[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer, int[] cursor) {
+        int length = Short.toUnsignedInt(buffer.getShort(cursor[0]));
+        cursor[0] += Short.BYTES + (length == NULL_LENGTH ? 0 : length);
+    }
+
+    private static void putString(ByteBuffer record, byte[] value) {
+        if (value == null) {
+            record.putShort((short) NULL_LENGTH);
+            return;
+        }
+        record.putShort((short) value.length).put(value);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // addresses are offset by one so that 0 can mark an empty slot
+    private static long address(int segment, int offset) {
+        return (long) segment * SEGMENT_SIZE + offset + 1;
+    }
+
+    private static int segmentOf(long address) {
+        return (int) ((address - 1) / SEGMENT_SIZE);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) ((address - 1) % SEGMENT_SIZE);
+    }
+}
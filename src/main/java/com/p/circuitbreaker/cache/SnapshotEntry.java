@@ -0,0 +1,9 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+
+/**
+ * A destination record together with the epoch millisecond at which it was fetched from the upstream.
+ */
+record SnapshotEntry(TravelDestination destination, long fetchedAt) {
+}
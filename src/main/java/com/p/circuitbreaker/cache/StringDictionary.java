@@ -0,0 +1,58 @@
+package com.p.circuitbreaker.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns small integer codes to repetitive short strings such as country names and categories, so that an
+ * encoded record stores two bytes instead of the text. Decoding returns one shared {@link String} per code.
+ * The dictionary only grows; once it holds {@code maxEntries} values, new values are not encoded.
+ */
+final class StringDictionary {
+
+    static final int NOT_ENCODED = -1;
+
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final int maxEntries;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[64];
+
+    StringDictionary(int maxEntries) {
+        if (maxEntries < 1 || maxEntries > 0xFFFE) {
+            throw new IllegalArgumentException("Dictionary size must be between 1 and " + 0xFFFE);
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the code for the value, or {@link #NOT_ENCODED} when the value is too long or the dictionary is full
+     */
+    synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (codes.size() >= maxEntries || value.length() > MAX_VALUE_LENGTH) {
+            return NOT_ENCODED;
+        }
+        int next = codes.size();
+        String[] current = values;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, Math.min(maxEntries, current.length * 2));
+        }
+        current[next] = value;
+        values = current;
+        codes.put(value, next);
+        return next;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    synchronized int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,167 @@
+package com.p.circuitbreaker.capture;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Binary format of the traffic capture log. A log is a directory of segments named {@code capture-<n>.tcap}, each
+ * starting with a magic number and version. Every record stores the time since the previous record in the segment
+ * and the latency as variable-length integers, the endpoint and status in three bytes, and the key as two
+ * modified-UTF-8 strings, so a typical record takes about 30 bytes. Requests are timestamped when they arrive but
+ * captured when they complete, so the time since the previous record can be negative; it is zigzag encoded.
+ */
+public final class CaptureLog {
+
+    static final int MAGIC = 0x54434150; // "TCAP"
+    static final int VERSION = 2;
+    static final String SEGMENT_PREFIX = "capture-";
+    static final String SEGMENT_SUFFIX = ".tcap";
+
+    private static final int NO_STATUS = 0;
+
+    private CaptureLog() {
+    }
+
+    static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * Append the record, with its timestamp relative to {@code previousTimestampMillis}.
+     */
+    static void write(DataOutput out, CapturedRequest request, long previousTimestampMillis) throws IOException {
+        writeVarLong(out, zigzag(request.timestampMillis() - previousTimestampMillis));
+        out.writeByte(request.endpoint().code());
+        out.writeShort(request.status() > 0 ? request.status() : NO_STATUS);
+        writeVarLong(out, Math.max(0, request.latencyMicros()));
+        writeNullableString(out, request.location());
+        writeNullableString(out, request.country());
+    }
+
+    /**
+     * Read every record of the log, oldest segment first. A segment cut short by a crash is read up to its last
+     * complete record.
+     *
+     * @param log a log directory or a single segment
+     */
+    public static List<CapturedRequest> read(Path log) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        for (Path segment : segments(log)) {
+            readSegment(segment, requests);
+        }
+        return requests;
+    }
+
+    /**
+     * @return the segments of the log directory, oldest first
+     */
+    static List<Path> segments(Path log) throws IOException {
+        if (!Files.isDirectory(log)) {
+            return List.of(log);
+        }
+        try (Stream<Path> files = Files.list(log)) {
+            return files.filter(CaptureLog::isSegment)
+                    .sorted((a, b) -> Long.compare(sequence(a), sequence(b)))
+                    .toList();
+        }
+    }
+
+    static Path segmentPath(Path directory, long sequence) {
+        return directory.resolve(SEGMENT_PREFIX + sequence + SEGMENT_SUFFIX);
+    }
+
+    static long sequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                && name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()).chars()
+                .allMatch(Character::isDigit);
+    }
+
+    private static void readSegment(Path segment, List<CapturedRequest> requests) throws IOException {
+        try (InputStream file = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(segment + " is not a traffic capture segment");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported traffic capture version " + version + " in " + segment);
+            }
+            long timestamp = 0;
+            while (true) {
+                long delta;
+                try {
+                    delta = readVarLong(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                try {
+                    timestamp += unzigzag(delta);
+                    CapturedRequest.Endpoint endpoint = CapturedRequest.Endpoint.ofCode(in.readUnsignedByte());
+                    int status = in.readUnsignedShort();
+                    long latencyMicros = readVarLong(in);
+                    String location = readNullableString(in);
+                    String country = readNullableString(in);
+                    requests.add(new CapturedRequest(timestamp, endpoint, location, country, status, latencyMicros));
+                } catch (EOFException e) {
+                    // torn last record
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
@@ -0,0 +1,63 @@
+package com.p.circuitbreaker.capture;
+
+/**
+ * Metadata of one captured request to {@code DestinationController}: which endpoint, which destination, when it
+ * arrived and how it was answered. The key is {@code null} when it could not be read from the request.
+ */
+public record CapturedRequest(long timestampMillis, Endpoint endpoint, String location, String country, int status,
+                              long latencyMicros) {
+
+    /**
+     * The captured endpoints; the code is what the capture log stores.
+     */
+    public enum Endpoint {
+        DETAILS(0, "GET", "/api/v1/destinations/details"),
+        DETAILS_POST(1, "POST", "/api/v1/destinations/details"),
+        ATTRACTIONS(2, "GET", "/api/v1/destinations/attractions");
+
+        private static final Endpoint[] VALUES = values();
+
+        private final int code;
+        private final String method;
+        private final String path;
+
+        Endpoint(int code, String method, String path) {
+            this.code = code;
+            this.method = method;
+            this.path = path;
+        }
+
+        public int code() {
+            return code;
+        }
+
+        public String method() {
+            return method;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        /**
+         * @return the endpoint serving the request, or {@code null} if it is not captured
+         */
+        public static Endpoint of(String method, String path) {
+            for (Endpoint endpoint : VALUES) {
+                if (endpoint.method.equals(method) && endpoint.path.equals(path)) {
+                    return endpoint;
+                }
+            }
+            return null;
+        }
+
+        static Endpoint ofCode(int code) {
+            for (Endpoint endpoint : VALUES) {
+                if (endpoint.code == code) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalArgumentException("Unknown endpoint code " + code);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.p.circuitbreaker.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p.circuitbreaker.dto.DestinationRequest;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples requests to the destination endpoints into the {@link TrafficCaptureWriter traffic capture log}, so that
+ * real traffic, with its key distribution and bursts, can be replayed later. Sits outside every other filter except
+ * the log budget and stage timing, so the captured status and latency are what the client saw. Only sampled POST
+ * requests have their body buffered to read the key. The startup warm-up's synthetic requests are not captured.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    private final double sampleRate;
+    private final TrafficCaptureWriter writer;
+    private final ObjectMapper objectMapper;
+
+    public TrafficCaptureFilter(@Value("${travel.capture.sample-rate:1.0}") double sampleRate,
+                                TrafficCaptureWriter writer,
+                                ObjectMapper objectMapper) {
+        this.sampleRate = sampleRate;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !writer.isEnabled() || endpoint(request) == null
+                || Boolean.parseBoolean(request.getHeader(StartupWarmUp.SYNTHETIC_REQUEST_HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        CapturedRequest.Endpoint endpoint = endpoint(request);
+        HttpServletRequest captured = endpoint == CapturedRequest.Endpoint.DETAILS_POST
+                ? new ContentCachingRequestWrapper(request) : request;
+        long timestamp = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(captured, response);
+        } finally {
+            long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            String location;
+            String country;
+            if (captured instanceof ContentCachingRequestWrapper body) {
+                DestinationRequest destination = readBody(body);
+                location = destination == null ? null : destination.getLocation();
+                country = destination == null ? null : destination.getCountry();
+            } else {
+                location = request.getParameter("location");
+                country = request.getParameter("country");
+            }
+            writer.capture(new CapturedRequest(timestamp, endpoint, location, country, response.getStatus(),
+                    latencyMicros));
+        }
+    }
+
+    private DestinationRequest readBody(ContentCachingRequestWrapper request) {
+        byte[] body = request.getContentAsByteArray();
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, DestinationRequest.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static CapturedRequest.Endpoint endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return CapturedRequest.Endpoint.of(request.getMethod(), path);
+    }
+}
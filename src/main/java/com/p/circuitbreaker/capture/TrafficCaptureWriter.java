@@ -0,0 +1,188 @@
+package com.p.circuitbreaker.capture;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends {@link CapturedRequest captured requests} to the {@link CaptureLog} off the request path. Requests only
+ * enqueue; a background thread writes them to the current segment, starts a new segment once it reaches the
+ * segment size, and deletes the oldest segments beyond the configured count. When the queue is full new requests
+ * are dropped rather than slowing requests down.
+ */
+@Component
+public class TrafficCaptureWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+    private static final int BATCH_SIZE = 256;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Counter written;
+    private final Counter dropped;
+
+    private volatile Thread worker;
+    private DataOutputStream out;
+    private long sequence;
+    private long previousTimestamp;
+
+    public TrafficCaptureWriter(@Value("${travel.capture.enabled:false}") boolean enabled,
+                                @Value("${travel.capture.directory:capture}") String directory,
+                                @Value("${travel.capture.segment-size:16MB}") DataSize segmentSize,
+                                @Value("${travel.capture.max-segments:8}") int maxSegments,
+                                @Value("${travel.capture.queue-size:10000}") int queueSize,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = Math.max(1, segmentSize.toBytes());
+        this.maxSegments = Math.max(1, maxSegments);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.written = Counter.builder("travel.capture.requests").tag("result", "written").register(meterRegistry);
+        this.dropped = Counter.builder("travel.capture.requests").tag("result", "dropped").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = CaptureLog.segments(directory);
+            sequence = segments.isEmpty() ? 0 : CaptureLog.sequence(segments.get(segments.size() - 1));
+        } catch (IOException e) {
+            log.warn("Traffic capture disabled, cannot use {}: {}", directory, e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(this::run, "traffic-capture-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("Capturing destination traffic to {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Stop the writer, writing what is still queued and closing the current segment. The worker notices within
+     * its poll timeout; it is not interrupted, since an interrupt during a write closes the segment's channel and
+     * loses the batch.
+     */
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        worker = null;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && worker != null;
+    }
+
+    /**
+     * Queue the request for the log without blocking.
+     */
+    public void capture(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<CapturedRequest> batch = new ArrayList<>(BATCH_SIZE);
+        while (worker != null) {
+            try {
+                CapturedRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        queue.drainTo(batch);
+        write(batch);
+        closeSegment();
+    }
+
+    private void write(List<CapturedRequest> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (CapturedRequest request : batch) {
+                if (out == null || out.size() >= segmentBytes) {
+                    rotate();
+                }
+                CaptureLog.write(out, request, previousTimestamp);
+                previousTimestamp = request.timestampMillis();
+            }
+            out.flush();
+            written.increment(batch.size());
+        } catch (IOException e) {
+            dropped.increment(batch.size());
+            log.warn("Could not capture {} requests: {}", batch.size(), e.getMessage());
+            closeSegment();
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        Path segment = CaptureLog.segmentPath(directory, ++sequence);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segment,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)));
+        CaptureLog.writeHeader(out);
+        previousTimestamp = 0;
+        deleteOldSegments();
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = CaptureLog.segments(directory);
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private void closeSegment() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Could not close traffic capture segment: {}", e.getMessage());
+        }
+        out = null;
+    }
+}
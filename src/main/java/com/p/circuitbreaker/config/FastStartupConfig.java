@@ -0,0 +1,20 @@
+package com.p.circuitbreaker.config;
+
+import com.p.circuitbreaker.cache.DestinationSnapshotStore;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FastStartupConfig {
+
+	/**
+	 * Beans that must exist before the first request even when the fast-startup profile enables lazy
+	 * initialization: the snapshot has to be mapped at boot and the warm-up gates readiness.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerStartupBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(DestinationSnapshotStore.class, StartupWarmUp.class);
+	}
+}
@@ -0,0 +1,121 @@
+package com.p.circuitbreaker.config;
+
+import com.p.circuitbreaker.resilience.RetryBudget;
+import com.p.circuitbreaker.resilience.RetryableFailures;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Retries for the destination lookup. The retry aspect is ordered inside the circuit breaker aspect
+ * ({@code resilience4j.retry.retry-aspect-order}), so the breaker records one outcome per request and an
+ * open breaker is never retried against.
+ */
+@Configuration
+public class UpstreamRetryConfig {
+
+	private static final Logger log = LoggerFactory.getLogger(UpstreamRetryConfig.class);
+	private static final String TRAVEL_DESTINATION = "travelDestination";
+
+	@Value("${travel.retry.initial-backoff:100ms}")
+	private Duration initialBackoff;
+
+	@Value("${travel.retry.max-backoff:2s}")
+	private Duration maxBackoff;
+
+	@Bean
+	RetryConfigCustomizer travelDestinationRetryCustomizer(RetryBudget retryBudget) {
+		Predicate<Throwable> retryable = failure -> RetryableFailures.isRetryable(failure) && retryBudget.tryWithdraw();
+		// the customizer hands over a raw builder; give it a type argument before passing it a typed predicate
+		return RetryConfigCustomizer.of(TRAVEL_DESTINATION, builder -> ((RetryConfig.Builder<?>) builder)
+				.intervalFunction(fullJitter(initialBackoff, maxBackoff))
+				.retryOnException(retryable));
+	}
+
+	/**
+	 * The retry predicate is also asked about the final attempt, after which no retry follows; give that
+	 * token back when the retry gives up.
+	 */
+	@Bean
+	RegistryEventConsumer<Retry> retryBudgetRefunds(RetryBudget retryBudget) {
+		return new RegistryEventConsumer<>() {
+			@Override
+			public void onEntryAddedEvent(EntryAddedEvent<Retry> entryAddedEvent) {
+				Retry retry = entryAddedEvent.getAddedEntry();
+				retry.getEventPublisher()
+						.onRetry(event -> log.info("Retrying {} (attempt {}) in {}ms after: {}", event.getName(),
+								event.getNumberOfRetryAttempts(), event.getWaitInterval().toMillis(),
+								event.getLastThrowable().getMessage()))
+						.onError(event -> retryBudget.refund());
+			}
+
+			@Override
+			public void onEntryRemovedEvent(EntryRemovedEvent<Retry> entryRemoveEvent) {
+			}
+
+			@Override
+			public void onEntryReplacedEvent(EntryReplacedEvent<Retry> entryReplacedEvent) {
+			}
+		};
+	}
+
+	/**
+	 * Every destination call the breaker admits counts as live traffic and funds the retry budget.
+	 */
+	@Bean
+	RegistryEventConsumer<CircuitBreaker> retryBudgetDeposits(RetryBudget retryBudget) {
+		return new RegistryEventConsumer<>() {
+			@Override
+			public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> entryAddedEvent) {
+				subscribe(entryAddedEvent.getAddedEntry());
+			}
+
+			@Override
+			public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> entryRemoveEvent) {
+			}
+
+			@Override
+			public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> entryReplacedEvent) {
+				subscribe(entryReplacedEvent.getNewEntry());
+			}
+
+			private void subscribe(CircuitBreaker circuitBreaker) {
+				if (TRAVEL_DESTINATION.equals(circuitBreaker.getName())) {
+					circuitBreaker.getEventPublisher()
+							.onSuccess(event -> retryBudget.deposit())
+							.onError(event -> retryBudget.deposit())
+							.onIgnoredError(event -> retryBudget.deposit());
+				}
+			}
+		};
+	}
+
+	/**
+	 * Exponential backoff with full jitter: the n-th retry waits a random time between zero and
+	 * {@code min(maxBackoff, initialBackoff * 2^(n-1))}, which spreads out retries from callers that failed together.
+	 */
+	static IntervalFunction fullJitter(Duration initialBackoff, Duration maxBackoff) {
+		long initial = Math.max(1, initialBackoff.toMillis());
+		long max = Math.max(initial, maxBackoff.toMillis());
+		return attempt -> {
+			int shift = Math.min(Math.max(attempt - 1, 0), 30);
+			long ceiling = Math.min(max, initial << shift);
+			return ThreadLocalRandom.current().nextLong(ceiling + 1);
+		};
+	}
+}
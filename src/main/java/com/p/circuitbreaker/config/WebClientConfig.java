@@ -1,9 +1,21 @@
 package com.p.circuitbreaker.config;
 
+import com.p.circuitbreaker.jfr.UpstreamCallEventFilter;
+import com.p.circuitbreaker.resilience.UpstreamLoadBalancer;
+import com.p.circuitbreaker.timing.Stage;
+import com.p.circuitbreaker.timing.StageTimer;
+import com.p.circuitbreaker.timing.StageTimingExchangeFilter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Arrays;
 
 @Configuration
 public class WebClientConfig {
@@ -11,8 +23,76 @@ public class WebClientConfig {
 	@Value("${travel.service.url}")
 	private String travelServiceUrl;
 
+	@Value("${travel.upstream.compression.enabled:true}")
+	private boolean upstreamCompression;
+
+	//HTTP11, H2C (cleartext, prior knowledge when used alone) or H2 (TLS with ALPN)
+	@Value("${travel.upstream.protocols:HTTP11}")
+	private HttpProtocol[] upstreamProtocols;
+
+	@Value("${travel.upstream.max-connections:50}")
+	private int maxConnections;
+
+	//Lookups allowed to wait for a pooled connection before failing fast
+	@Value("${travel.upstream.pending-acquire-max-count:1000}")
+	private int pendingAcquireMaxCount;
+
+	@Value("${travel.upstream.http2.max-concurrent-streams:100}")
+	private long maxConcurrentStreams;
+
+	@Value("${travel.upstream.pool-metrics.enabled:true}")
+	private boolean poolMetrics;
+
+	@Bean(destroyMethod = "dispose")
+	ConnectionProvider upstreamConnectionProvider() {
+		return connectionProvider(upstreamProtocols, maxConnections, pendingAcquireMaxCount,
+				maxConcurrentStreams, poolMetrics);
+	}
+
 	@Bean
-	WebClient webClient() {
-		return WebClient.builder().baseUrl(travelServiceUrl).build();
+	WebClient webClient(ConnectionProvider upstreamConnectionProvider, UpstreamLoadBalancer upstreamLoadBalancer) {
+		HttpClient httpClient = httpClient(upstreamConnectionProvider, upstreamProtocols, upstreamCompression);
+		return WebClient.builder()
+				.baseUrl(travelServiceUrl)
+				.filter(upstreamLoadBalancer)
+				.filter(new StageTimingExchangeFilter())
+				.filter(new UpstreamCallEventFilter())
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+	}
+
+	static ConnectionProvider connectionProvider(HttpProtocol[] protocols, int maxConnections,
+			int pendingAcquireMaxCount, long maxConcurrentStreams, boolean metrics) {
+		ConnectionProvider.Builder builder = ConnectionProvider.builder("travel-upstream")
+				.maxConnections(maxConnections)
+				.pendingAcquireMaxCount(pendingAcquireMaxCount)
+				.metrics(metrics);
+		if (supportsHttp2(protocols)) {
+			// Each HTTP/2 connection multiplexes up to maxConcurrentStreams in-flight lookups
+			builder.allocationStrategy(Http2AllocationStrategy.builder()
+					.maxConnections(maxConnections)
+					.maxConcurrentStreams(maxConcurrentStreams)
+					.build());
+		}
+		return builder.build();
+	}
+
+	static HttpClient httpClient(ConnectionProvider connectionProvider, HttpProtocol[] protocols, boolean compress) {
+		// compress(true) sends Accept-Encoding: gzip upstream and transparently inflates the response body
+		// Stage timing: the pool stage ends once a connection is acquired and the request goes out
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.protocol(protocols)
+				.compress(compress)
+				.doOnRequest((request, connection) -> StageTimer.enter(request.currentContextView(), Stage.UPSTREAM))
+				.doOnResponse((response, connection) -> StageTimer.enter(response.currentContextView(), Stage.DECODE));
+		if (Arrays.asList(protocols).contains(HttpProtocol.H2)) {
+			// H2 is negotiated through TLS ALPN
+			httpClient = httpClient.secure();
+		}
+		return httpClient;
+	}
+
+	private static boolean supportsHttp2(HttpProtocol[] protocols) {
+		return Arrays.stream(protocols).anyMatch(protocol -> protocol == HttpProtocol.H2 || protocol == HttpProtocol.H2C);
 	}
 }
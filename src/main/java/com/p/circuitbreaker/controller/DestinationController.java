@@ -2,8 +2,16 @@ package com.p.circuitbreaker.controller;
 
 import com.p.circuitbreaker.dto.ApiResponse;
 import com.p.circuitbreaker.dto.DestinationRequest;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.exception.UpstreamException;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.logging.LogSampler;
 import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
 import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
@@ -13,6 +21,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
+
 /**
  * REST controller for travel destination operations.
  */
@@ -23,9 +33,25 @@ public class DestinationController {
 
     private static final Logger log = LoggerFactory.getLogger(DestinationController.class);
     private final TravelDestinationService travelDestinationService;
+    private final UpstreamHealthProber upstreamHealthProber;
+    private final HotKeyTracker hotKeyTracker;
+    // one sampler per failure site, so a burst of one kind of failure cannot hide the others
+    private final LogSampler detailsRejectedLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler detailsDeadlineLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler detailsErrorLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler attractionsRejectedLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler attractionsDeadlineLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler attractionsErrorLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler postDetailsRejectedLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler postDetailsDeadlineLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler postDetailsErrorLogSampler = LogSampler.perTenSeconds();
 
-    public DestinationController(TravelDestinationService travelDestinationService) {
+    public DestinationController(TravelDestinationService travelDestinationService,
+                                 UpstreamHealthProber upstreamHealthProber,
+                                 HotKeyTracker hotKeyTracker) {
         this.travelDestinationService = travelDestinationService;
+        this.upstreamHealthProber = upstreamHealthProber;
+        this.hotKeyTracker = hotKeyTracker;
     }
 
     /**
@@ -33,21 +59,35 @@ public class DestinationController {
      *
      * @param location the destination location
      * @param country  the country
+     * @param synthetic whether the request was generated by the startup warm-up
      * @return destination details
      */
     @GetMapping("/details")
     public ResponseEntity<ApiResponse<TravelDestination>> getDestinationDetails(
             @RequestParam @NotBlank(message = "Location is required") String location,
-            @RequestParam @NotBlank(message = "Country is required") String country) {
+            @RequestParam @NotBlank(message = "Country is required") String country,
+            @RequestHeader(name = StartupWarmUp.SYNTHETIC_REQUEST_HEADER, defaultValue = "false") boolean synthetic) {
         
         log.info("Received request for destination details - location: {}, country: {}", location, country);
-        
+        recordLookup(location, country, synthetic);
+
         try {
             TravelDestination destination = travelDestinationService.getDestinationDetails(location, country);
             ApiResponse<TravelDestination> response = ApiResponse.success("Destination details retrieved successfully", destination);
             return ResponseEntity.ok(response);
+        } catch (BulkheadFullException e) {
+            logFailure(detailsRejectedLogSampler, e, "Rejected destination details request for location: {} and country: {}",
+                    location, country);
+            return serviceUnavailable("Too many concurrent destination lookups, please retry");
+        } catch (DestinationNotFoundException e) {
+            log.debug("{}", e.getMessage());
+            return notFound(e.getMessage());
+        } catch (DeadlineExceededException e) {
+            logFailure(detailsDeadlineLogSampler, e, "Deadline exceeded for destination details");
+            return gatewayTimeout(e.getMessage());
         } catch (Exception e) {
-            log.error("Error retrieving destination details for location: {} and country: {}", location, country, e);
+            logFailure(detailsErrorLogSampler, e, "Error retrieving destination details for location: {} and country: {}",
+                    location, country);
             ApiResponse<TravelDestination> response = ApiResponse.error("Failed to retrieve destination details: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
@@ -58,21 +98,35 @@ public class DestinationController {
      *
      * @param location the destination location
      * @param country  the country
+     * @param synthetic whether the request was generated by the startup warm-up
      * @return attractions information
      */
     @GetMapping("/attractions")
     public ResponseEntity<ApiResponse<String>> getAttractions(
             @RequestParam @NotBlank(message = "Location is required") String location,
-            @RequestParam @NotBlank(message = "Country is required") String country) {
+            @RequestParam @NotBlank(message = "Country is required") String country,
+            @RequestHeader(name = StartupWarmUp.SYNTHETIC_REQUEST_HEADER, defaultValue = "false") boolean synthetic) {
         
         log.info("Received request for attractions - location: {}, country: {}", location, country);
-        
+        recordLookup(location, country, synthetic);
+
         try {
             String attractions = travelDestinationService.getAttractions(location, country);
             ApiResponse<String> response = ApiResponse.success("Attractions retrieved successfully", attractions);
             return ResponseEntity.ok(response);
+        } catch (BulkheadFullException e) {
+            logFailure(attractionsRejectedLogSampler, e, "Rejected attractions request for location: {} and country: {}",
+                    location, country);
+            return serviceUnavailable("Too many concurrent attraction lookups, please retry");
+        } catch (DestinationNotFoundException e) {
+            log.debug("{}", e.getMessage());
+            return notFound(e.getMessage());
+        } catch (DeadlineExceededException e) {
+            logFailure(attractionsDeadlineLogSampler, e, "Deadline exceeded for attractions");
+            return gatewayTimeout(e.getMessage());
         } catch (Exception e) {
-            log.error("Error retrieving attractions for location: {} and country: {}", location, country, e);
+            logFailure(attractionsErrorLogSampler, e, "Error retrieving attractions for location: {} and country: {}",
+                    location, country);
             ApiResponse<String> response = ApiResponse.error("Failed to retrieve attractions: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
@@ -82,34 +136,108 @@ public class DestinationController {
      * Get destination details using request body.
      *
      * @param request the destination request
+     * @param synthetic whether the request was generated by the startup warm-up
      * @return destination details
      */
     @PostMapping("/details")
     public ResponseEntity<ApiResponse<TravelDestination>> getDestinationDetailsPost(
-            @Valid @RequestBody DestinationRequest request) {
+            @Valid @RequestBody DestinationRequest request,
+            @RequestHeader(name = StartupWarmUp.SYNTHETIC_REQUEST_HEADER, defaultValue = "false") boolean synthetic) {
         
         log.info("Received POST request for destination details - location: {}, country: {}", 
                 request.getLocation(), request.getCountry());
-        
+        recordLookup(request.getLocation(), request.getCountry(), synthetic);
+
         try {
             TravelDestination destination = travelDestinationService.getDestinationDetails(
                     request.getLocation(), request.getCountry());
             ApiResponse<TravelDestination> response = ApiResponse.success("Destination details retrieved successfully", destination);
             return ResponseEntity.ok(response);
+        } catch (BulkheadFullException e) {
+            logFailure(postDetailsRejectedLogSampler, e, "Rejected destination details request: {}", request);
+            return serviceUnavailable("Too many concurrent destination lookups, please retry");
+        } catch (DestinationNotFoundException e) {
+            log.debug("{}", e.getMessage());
+            return notFound(e.getMessage());
+        } catch (DeadlineExceededException e) {
+            logFailure(postDetailsDeadlineLogSampler, e, "Deadline exceeded for destination details");
+            return gatewayTimeout(e.getMessage());
         } catch (Exception e) {
-            log.error("Error retrieving destination details for request: {}", request, e);
+            logFailure(postDetailsErrorLogSampler, e, "Error retrieving destination details for request: {}", request);
             ApiResponse<TravelDestination> response = ApiResponse.error("Failed to retrieve destination details: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
 
     /**
-     * Health check endpoint.
+     * Health check endpoint. Reports the cached result of the latest upstream health probe; the service itself
+     * keeps answering from its caches while the upstream is down, so the status code stays 200.
      *
      * @return health status
      */
     @GetMapping("/health")
     public ResponseEntity<ApiResponse<String>> health() {
-        return ResponseEntity.ok(ApiResponse.success("Service is healthy", "OK"));
+        if (!upstreamHealthProber.isEnabled()) {
+            return ResponseEntity.ok(ApiResponse.success("Service is healthy", "OK"));
+        }
+        UpstreamHealthProber.ProbeResult probe = upstreamHealthProber.getLastResult();
+        return switch (probe.status()) {
+            case UP -> ResponseEntity.ok(ApiResponse.success("Service is healthy", "OK"));
+            case DOWN -> ResponseEntity.ok(ApiResponse.success(
+                    "Service is up but the upstream is unavailable: " + probe.error(), "DEGRADED"));
+            case UNKNOWN -> ResponseEntity.ok(ApiResponse.success("Service is healthy, upstream not probed yet", "UNKNOWN"));
+        };
+    }
+
+    /**
+     * Count a client lookup towards the hot keys; warm-up traffic would only make the warm-up list look hot.
+     */
+    private void recordLookup(String location, String country, boolean synthetic) {
+        if (!synthetic) {
+            hotKeyTracker.record(location, country);
+        }
+    }
+
+    /**
+     * Log a failed request, sampled so that an outage does not log every request. The message is only formatted
+     * for events the sampler lets through. Expected failures were already reported where they happened and are
+     * logged without a stack trace.
+     *
+     * @param format the message as an SLF4J format, filled in from {@code arguments}
+     */
+    private static void logFailure(LogSampler sampler, Exception e, String format, Object... arguments) {
+        long suppressed = sampler.tryAcquire();
+        if (suppressed < 0) {
+            return;
+        }
+        boolean expected = isExpected(e);
+        Object[] formatArguments = Arrays.copyOf(arguments, arguments.length + 2);
+        formatArguments[arguments.length] = expected ? e.getMessage() : LogSampler.summary(suppressed);
+        formatArguments[arguments.length + 1] = expected ? LogSampler.summary(suppressed) : e;
+        if (expected) {
+            log.warn(format + ": {}{}", formatArguments);
+        } else {
+            log.error(format + "{}", formatArguments);
+        }
+    }
+
+    private static boolean isExpected(Exception e) {
+        if (e instanceof UpstreamException upstream) {
+            return upstream.isExpected();
+        }
+        return e instanceof DestinationNotFoundException || e instanceof DeadlineExceededException
+                || e instanceof BulkheadFullException || e instanceof IllegalArgumentException;
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> notFound(String message) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(message));
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> serviceUnavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ApiResponse.error(message));
+    }
+
+    private static <T> ResponseEntity<ApiResponse<T>> gatewayTimeout(String message) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ApiResponse.error(message));
     }
 }
@@ -0,0 +1,93 @@
+package com.p.circuitbreaker.deadline;
+
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * The point in time after which the client no longer waits for an answer. Budgets arrive as a relative
+ * timeout in milliseconds ({@value #HEADER}), so client and server clocks never need to agree. The deadline of
+ * the request being served is bound to the handling thread by {@link DeadlineFilter}.
+ */
+public final class Deadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    /**
+     * Longest budget taken from a client. Far above any upstream timeout, so it never shortens a real budget, but
+     * small enough that the expiry time cannot overflow.
+     */
+    static final long MAX_BUDGET_MILLIS = Duration.ofHours(1).toMillis();
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * @return the deadline for a header value, or {@code null} when the value is missing or not a number of milliseconds;
+     * budgets are clamped to between zero and {@link #MAX_BUDGET_MILLIS}
+     */
+    public static Deadline parse(String headerValue) {
+        if (!StringUtils.hasText(headerValue)) {
+            return null;
+        }
+        long millis;
+        try {
+            millis = Long.parseLong(headerValue.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return after(Duration.ofMillis(Math.max(0, Math.min(millis, MAX_BUDGET_MILLIS))));
+    }
+
+    /**
+     * @return the deadline of the request handled by the current thread, or {@code null} if the client sent none
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Deadline deadline) {
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return whether the current request's deadline has already passed
+     */
+    public static boolean isCurrentExpired() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null && deadline.isExpired();
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @return the shorter of {@code timeout} and the time left until this deadline
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+}
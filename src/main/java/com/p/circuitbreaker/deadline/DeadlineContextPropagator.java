@@ -0,0 +1,29 @@
+package com.p.circuitbreaker.deadline;
+
+import io.github.resilience4j.core.ContextPropagator;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the request {@link Deadline} onto thread-pool bulkhead workers
+ * ({@code resilience4j.thread-pool-bulkhead.instances.*.context-propagators}).
+ */
+public class DeadlineContextPropagator implements ContextPropagator<Deadline> {
+
+    @Override
+    public Supplier<Optional<Deadline>> retrieve() {
+        return () -> Optional.ofNullable(Deadline.current());
+    }
+
+    @Override
+    public Consumer<Optional<Deadline>> copy() {
+        return deadline -> Deadline.set(deadline.orElse(null));
+    }
+
+    @Override
+    public Consumer<Optional<Deadline>> clear() {
+        return deadline -> Deadline.clear();
+    }
+}
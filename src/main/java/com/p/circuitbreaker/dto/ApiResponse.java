@@ -35,6 +35,7 @@ public class ApiResponse<T> {
         return new ApiResponse<>(false, message, null);
     }
 
+    @SuppressWarnings("unchecked")
     public static <T> ApiResponse<T> error(String message, Map<String, String> errors) {
         return new ApiResponse<>(false, message, (T) errors);
     }
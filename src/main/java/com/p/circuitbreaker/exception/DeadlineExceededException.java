@@ -0,0 +1,16 @@
+package com.p.circuitbreaker.exception;
+
+/**
+ * Exception thrown when the client's deadline passes before a lookup could be completed.
+ * Created without a stack trace, since this is an expected outcome under load.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message, null, false, false);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
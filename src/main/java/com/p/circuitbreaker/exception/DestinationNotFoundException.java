@@ -2,14 +2,15 @@ package com.p.circuitbreaker.exception;
 
 /**
  * Exception thrown when a travel destination is not found.
+ * Not-found lookups are an expected outcome, so the exception is created without a stack trace.
  */
 public class DestinationNotFoundException extends RuntimeException {
     
     public DestinationNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public DestinationNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
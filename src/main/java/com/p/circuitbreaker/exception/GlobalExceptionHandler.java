@@ -1,6 +1,7 @@
 package com.p.circuitbreaker.exception;
 
 import com.p.circuitbreaker.dto.ApiResponse;
+import com.p.circuitbreaker.logging.LogSampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -21,6 +22,9 @@ import java.util.Map;
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    // one sampler per handler, so a burst of upstream errors cannot hide unexpected ones
+    private final LogSampler webClientLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler unexpectedLogSampler = LogSampler.perTenSeconds();
 
     @ExceptionHandler(DestinationNotFoundException.class)
     public ResponseEntity<ApiResponse<Void>> handleDestinationNotFoundException(DestinationNotFoundException ex) {
@@ -31,7 +35,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(WebClientResponseException.class)
     public ResponseEntity<ApiResponse<Void>> handleWebClientResponseException(WebClientResponseException ex) {
-        logger.error("WebClient error: {}", ex.getMessage(), ex);
+        long suppressed = webClientLogSampler.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("WebClient error: {}{}", ex.getMessage(), LogSampler.summary(suppressed));
+        }
         return ResponseEntity.status(ex.getStatusCode())
                 .body(ApiResponse.error("External service error: " + ex.getMessage()));
     }
@@ -52,7 +59,10 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleGenericException(Exception ex) {
-        logger.error("Unexpected error: {}", ex.getMessage(), ex);
+        long suppressed = unexpectedLogSampler.tryAcquire();
+        if (suppressed >= 0) {
+            logger.error("Unexpected error: {}{}", ex.getMessage(), LogSampler.summary(suppressed), ex);
+        }
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(ApiResponse.error("An unexpected error occurred"));
     }
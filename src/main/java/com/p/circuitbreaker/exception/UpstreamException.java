@@ -0,0 +1,75 @@
+package com.p.circuitbreaker.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exception thrown when an upstream call fails.
+ * <p>
+ * Timeouts, refused connections and error statuses are expected while the upstream is degraded, and they always
+ * come from the same call site. These exceptions are therefore created without a stack trace, and timeouts and
+ * connection failures reuse shared preallocated instances. Only failures of an unknown kind keep their cause.
+ */
+public class UpstreamException extends RuntimeException {
+
+    public static final UpstreamException TIMEOUT = new UpstreamException("Upstream call timed out", null, true, true);
+    public static final UpstreamException CONNECTION_FAILED =
+            new UpstreamException("Upstream connection failed", null, true, true);
+    public static final UpstreamException SERVER_ERROR =
+            new UpstreamException("Upstream responded with a server error", null, false, true);
+
+    private static final Set<HttpStatus> RETRYABLE_STATUSES = Set.of(
+            HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+    private final boolean retryable;
+    private final boolean expected;
+
+    private UpstreamException(String message, Throwable cause, boolean retryable, boolean expected) {
+        super(message, cause, false, false);
+        this.retryable = retryable;
+        this.expected = expected;
+    }
+
+    /**
+     * Classify a failed upstream call. Not-found responses are not upstream failures and must be handled first.
+     */
+    public static UpstreamException from(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UpstreamException upstream) {
+                return upstream;
+            }
+            if (cause instanceof TimeoutException) {
+                return TIMEOUT;
+            }
+            if (cause instanceof WebClientRequestException || cause instanceof IOException) {
+                return CONNECTION_FAILED;
+            }
+            if (cause instanceof WebClientResponseException response) {
+                HttpStatus status = HttpStatus.resolve(response.getStatusCode().value());
+                return new UpstreamException("Upstream responded with " + response.getStatusCode().value(), null,
+                        status != null && RETRYABLE_STATUSES.contains(status), true);
+            }
+        }
+        return new UpstreamException("Failed to retrieve destination details: " + failure.getMessage(), failure,
+                false, false);
+    }
+
+    /**
+     * @return whether an idempotent call that failed this way may succeed when retried
+     */
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * @return whether this is a known kind of upstream failure, as opposed to one worth a stack trace in the logs
+     */
+    public boolean isExpected() {
+        return expected;
+    }
+}
@@ -0,0 +1,119 @@
+package com.p.circuitbreaker.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the latency of the requests it admits, in the style of a gradient limiter.
+ * A long-term average round-trip time serves as the no-load baseline. While recent latency stays close to
+ * it the limit grows by a small queue allowance. When recent latency rises above it the limit shrinks in
+ * proportion, so in-flight work tracks what the node can actually complete instead of queueing.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+    private double shortRtt;
+    private double longRtt;
+    private long samples;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        if (tolerance < 1.0 || smoothing <= 0 || smoothing > 1.0) {
+            throw new IllegalArgumentException("Tolerance must be >= 1 and smoothing in (0, 1]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = clamp(initialLimit);
+    }
+
+    /**
+     * Admit a request if the in-flight count is below the current limit. Every successful call must be paired
+     * with {@link #onSample} or {@link #onDropped}.
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1.0);
+    }
+
+    /**
+     * Admit a request only while the in-flight count is below the given share of the limit (at least one),
+     * leaving the rest of the limit to requests that are allowed a larger share.
+     */
+    public boolean tryAcquire(double share) {
+        int limit = Math.max(1, (int) (estimatedLimit * Math.min(1.0, share)));
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a permit and feed the request's round-trip time into the limit.
+     */
+    public synchronized void onSample(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        samples++;
+        if (samples == 1) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt = ema(shortRtt, rttNanos, SHORT_WINDOW);
+        longRtt = ema(longRtt, rttNanos, Math.min(samples, LONG_WINDOW));
+
+        // once latency has dropped well below the long-term average, let the baseline catch up
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // only adjust when the limit is actually being used
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    /**
+     * Release a permit for a request that timed out or was rejected downstream, backing the limit off.
+     */
+    public synchronized void onDropped() {
+        inFlight.decrementAndGet();
+        estimatedLimit = clamp(estimatedLimit * DROP_BACKOFF);
+    }
+
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    private static double ema(double average, double sample, long window) {
+        double alpha = 2.0 / (window + 1);
+        return average + alpha * (sample - average);
+    }
+}
@@ -0,0 +1,199 @@
+package com.p.circuitbreaker.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Negotiates gzip compression of API responses based on the client's {@code Accept-Encoding} header.
+ * Responses below the configured minimum size, of a non-compressible media type or already encoded
+ * are passed through untouched. Compression ratio and CPU time are published as metrics.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final boolean enabled;
+    private final int minResponseSize;
+    private final List<MediaType> mimeTypes;
+    private final GzipCompressor compressor;
+
+    private final DistributionSummary compressionRatio;
+    private final Timer compressionCpuTime;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final Counter skipped;
+
+    public CompressionFilter(@Value("${travel.compression.enabled:true}") boolean enabled,
+                             @Value("${travel.compression.min-response-size:1024}") int minResponseSize,
+                             @Value("${travel.compression.level:6}") int level,
+                             @Value("${travel.compression.pool-size:16}") int poolSize,
+                             @Value("${travel.compression.mime-types:application/json,text/plain}") String mimeTypes,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minResponseSize = minResponseSize;
+        this.mimeTypes = MediaType.parseMediaTypes(mimeTypes);
+        this.compressor = new GzipCompressor(level, poolSize);
+
+        this.compressionRatio = DistributionSummary.builder("travel.compression.ratio")
+                .description("Compressed size divided by original size of compressed responses")
+                .tag("encoding", GZIP)
+                .register(meterRegistry);
+        this.compressionCpuTime = Timer.builder("travel.compression.cpu")
+                .description("CPU time spent compressing responses")
+                .tag("encoding", GZIP)
+                .register(meterRegistry);
+        this.bytesIn = Counter.builder("travel.compression.bytes")
+                .tag("encoding", GZIP).tag("stage", "original")
+                .register(meterRegistry);
+        this.bytesOut = Counter.builder("travel.compression.bytes")
+                .tag("encoding", GZIP).tag("stage", "compressed")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("travel.compression.skipped")
+                .description("Negotiated responses sent uncompressed because they were too small or incompressible")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
+            responseToUse = new ContentCachingResponseWrapper(response);
+        }
+
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                writeResponse(responseToUse);
+            }
+        }
+    }
+
+    private void writeResponse(HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper wrapper =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            return;
+        }
+        HttpServletResponse rawResponse = (HttpServletResponse) wrapper.getResponse();
+        rawResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        if (!isCompressible(wrapper, body.length)) {
+            skipped.increment();
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        long start = currentCpuTime();
+        byte[] compressed = compressor.compress(body);
+        compressionCpuTime.record(currentCpuTime() - start, TimeUnit.NANOSECONDS);
+
+        if (compressed.length >= body.length) {
+            skipped.increment();
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        compressionRatio.record((double) compressed.length / body.length);
+        bytesIn.increment(body.length);
+        bytesOut.increment(compressed.length);
+
+        wrapper.resetBuffer();
+        rawResponse.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        rawResponse.setContentLength(compressed.length);
+        rawResponse.getOutputStream().write(compressed);
+        rawResponse.flushBuffer();
+    }
+
+    private boolean isCompressible(HttpServletResponse response, int length) {
+        if (length < minResponseSize || response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        int status = response.getStatus();
+        if (status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED) {
+            return false;
+        }
+        String contentType = response.getContentType();
+        if (!StringUtils.hasText(contentType)) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType));
+    }
+
+    /**
+     * Determine whether the {@code Accept-Encoding} header admits gzip, honouring explicit {@code q=0} refusals.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            boolean accepted = qualityOf(parts) > 0;
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                return accepted;
+            }
+            if ("*".equals(coding)) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static long currentCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+                ? THREAD_MX_BEAN.getCurrentThreadCpuTime()
+                : System.nanoTime();
+    }
+}
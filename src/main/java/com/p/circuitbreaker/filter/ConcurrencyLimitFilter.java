@@ -0,0 +1,141 @@
+package com.p.circuitbreaker.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p.circuitbreaker.dto.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds destination API requests above an {@link AdaptiveConcurrencyLimit}. Excess requests are answered
+ * with 503 straight away rather than queued, so admitted requests keep their latency while the node is
+ * overloaded. The {@link LoadSheddingPolicy} decides how much of the limit each priority tier may use, so
+ * lower tiers are shed first. Ordered ahead of the other filters so that shed requests cost as little as possible.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private static final String API_PREFIX = "/api/v1/destinations/";
+    private static final String HEALTH_PATH = API_PREFIX + "health";
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit limit;
+    private final LoadSheddingPolicy policy;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestPriority, Counter> admitted = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Counter> shed = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Timer> latency = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimitFilter(@Value("${travel.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${travel.concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${travel.concurrency-limit.min-limit:5}") int minLimit,
+                                  @Value("${travel.concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${travel.concurrency-limit.tolerance:1.5}") double tolerance,
+                                  @Value("${travel.concurrency-limit.smoothing:0.2}") double smoothing,
+                                  LoadSheddingPolicy policy,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing);
+        this.policy = policy;
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("travel.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit for destination API requests")
+                .register(meterRegistry);
+        Gauge.builder("travel.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Destination API requests currently being processed")
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            String tier = priority.name().toLowerCase(Locale.ROOT);
+            admitted.put(priority, Counter.builder("travel.concurrency.admitted")
+                    .description("Destination API requests admitted under the concurrency limit")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+            shed.put(priority, Counter.builder("travel.concurrency.shed")
+                    .description("Destination API requests rejected with 503 because their tier's share of the limit was used up")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+            latency.put(priority, Timer.builder("travel.concurrency.latency")
+                    .description("Processing time of admitted destination API requests")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !enabled || !path.startsWith(API_PREFIX) || path.equals(HEALTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestPriority priority = policy.classify(request);
+        if (!limit.tryAcquire(policy.share(priority))) {
+            shed.get(priority).increment();
+            log.debug("Shedding {} request {} at concurrency limit {}", priority, request.getRequestURI(), limit.getLimit());
+            reject(response);
+            return;
+        }
+        admitted.get(priority).increment();
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = isOverloadStatus(response.getStatus());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            latency.get(priority).record(elapsed, TimeUnit.NANOSECONDS);
+            if (dropped) {
+                limit.onDropped();
+            } else {
+                limit.onSample(elapsed);
+            }
+        }
+    }
+
+    AdaptiveConcurrencyLimit getLimit() {
+        return limit;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Server is at capacity, please retry"));
+    }
+
+    /**
+     * Requests that timed out or were rejected further down count as drops rather than latency samples.
+     */
+    private static boolean isOverloadStatus(int status) {
+        return status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+}
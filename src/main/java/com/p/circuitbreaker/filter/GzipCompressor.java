@@ -0,0 +1,87 @@
+package com.p.circuitbreaker.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip encoder backed by a bounded pool of raw {@link Deflater} instances.
+ * The gzip header and trailer are written by hand so that the native deflater state can be reused
+ * across requests instead of being allocated (and finalized) by every {@code GZIPOutputStream}.
+ */
+public class GzipCompressor {
+
+    private static final byte[] GZIP_HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+    private static final int CHUNK_SIZE = 8192;
+
+    private final BlockingQueue<Deflater> pool;
+    private final int level;
+
+    public GzipCompressor(int level, int poolSize) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        this.level = level;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+    }
+
+    /**
+     * Compress the given bytes into a complete gzip member.
+     *
+     * @param input the uncompressed bytes
+     * @return the gzip encoded bytes
+     */
+    public byte[] compress(byte[] input) {
+        Deflater deflater = acquire();
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + GZIP_HEADER.length + 8);
+            out.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+            byte[] chunk = new byte[CHUNK_SIZE];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                out.write(chunk, 0, written);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(input);
+            writeIntLE(out, (int) crc.getValue());
+            writeIntLE(out, input.length);
+            return out.toByteArray();
+        } finally {
+            release(deflater);
+        }
+    }
+
+    /**
+     * @return the number of idle deflaters currently held by the pool
+     */
+    public int idleCount() {
+        return pool.size();
+    }
+
+    private Deflater acquire() {
+        Deflater deflater = pool.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    private void release(Deflater deflater) {
+        deflater.reset();
+        if (!pool.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+}
@@ -0,0 +1,102 @@
+package com.p.circuitbreaker.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Assigns each request a {@link RequestPriority} and decides how much of the concurrency limit that tier may use.
+ * <p>
+ * A known client identity ({@code X-Client-Id}) takes its configured tier. Otherwise the tier comes from the
+ * endpoint. The {@code X-Request-Priority} header can then lower the tier, for example to mark bulk lookups
+ * as batch, but it can never raise it. Each tier is admitted only while the in-flight count is below its
+ * share of the limit, so lower tiers are shed first and the top of the limit stays reserved for critical
+ * traffic.
+ * <p>
+ * The service does not authenticate callers, so {@code X-Client-Id} is taken at face value. Client tiers are only
+ * safe to configure behind a gateway that authenticates callers and sets the header itself, dropping any value the
+ * caller sent; otherwise any caller can claim a higher tier by copying a listed client id.
+ */
+@Component
+public class LoadSheddingPolicy {
+
+    static final String PRIORITY_HEADER = "X-Request-Priority";
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private static final Logger log = LoggerFactory.getLogger(LoadSheddingPolicy.class);
+    private static final String API_PREFIX = "/api/v1/destinations/";
+
+    private final Map<String, RequestPriority> endpointTiers;
+    private final Map<String, RequestPriority> clientTiers;
+    private final RequestPriority defaultTier;
+    private final Map<RequestPriority, Double> shares = new EnumMap<>(RequestPriority.class);
+
+    public LoadSheddingPolicy(@Value("${travel.load-shedding.endpoint-tiers:details:INTERACTIVE,attractions:BATCH}") List<String> endpointTiers,
+                              @Value("${travel.load-shedding.client-tiers:}") List<String> clientTiers,
+                              @Value("${travel.load-shedding.default-tier:INTERACTIVE}") RequestPriority defaultTier,
+                              @Value("${travel.load-shedding.share.critical:1.0}") double criticalShare,
+                              @Value("${travel.load-shedding.share.interactive:0.9}") double interactiveShare,
+                              @Value("${travel.load-shedding.share.batch:0.6}") double batchShare) {
+        this.endpointTiers = parseTiers(endpointTiers);
+        this.clientTiers = parseTiers(clientTiers);
+        this.defaultTier = defaultTier;
+        shares.put(RequestPriority.CRITICAL, criticalShare);
+        shares.put(RequestPriority.INTERACTIVE, interactiveShare);
+        shares.put(RequestPriority.BATCH, batchShare);
+    }
+
+    public RequestPriority classify(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId != null && clientTiers.containsKey(clientId)) {
+            return clientTiers.get(clientId);
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String endpoint = path.startsWith(API_PREFIX) ? path.substring(API_PREFIX.length()) : path;
+        RequestPriority tier = endpointTiers.getOrDefault(endpoint, defaultTier);
+
+        RequestPriority requested = parse(request.getHeader(PRIORITY_HEADER));
+        return requested != null && requested.isLowerThan(tier) ? requested : tier;
+    }
+
+    /**
+     * @return the fraction of the concurrency limit that requests of this tier may occupy
+     */
+    public double share(RequestPriority priority) {
+        return shares.get(priority);
+    }
+
+    private static Map<String, RequestPriority> parseTiers(List<String> entries) {
+        Map<String, RequestPriority> tiers = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.lastIndexOf(':');
+            RequestPriority tier = separator > 0 ? parse(entry.substring(separator + 1)) : null;
+            if (tier == null) {
+                log.warn("Ignoring load-shedding tier '{}', expected name:tier", entry);
+                continue;
+            }
+            tiers.put(entry.substring(0, separator).trim(), tier);
+        }
+        return tiers;
+    }
+
+    private static RequestPriority parse(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return RequestPriority.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
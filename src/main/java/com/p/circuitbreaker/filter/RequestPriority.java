@@ -0,0 +1,20 @@
+package com.p.circuitbreaker.filter;
+
+/**
+ * Priority tiers used when shedding load, from most to least important.
+ */
+public enum RequestPriority {
+
+    /** Operational traffic that must get through even while everything else is shed. */
+    CRITICAL,
+
+    /** Lookups made on behalf of a user who is waiting for the answer. */
+    INTERACTIVE,
+
+    /** Bulk and background lookups that can be retried later. */
+    BATCH;
+
+    public boolean isLowerThan(RequestPriority other) {
+        return ordinal() > other.ordinal();
+    }
+}
@@ -0,0 +1,39 @@
+package com.p.circuitbreaker.hotkeys;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lists the heaviest destination keys found by {@link HotKeyTracker} at {@code /actuator/hotkeys}, with estimated
+ * rates, for choosing cache pinning, warm-up lists and capacity plans.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+
+    public HotKeyEndpoint(HotKeyTracker hotKeyTracker) {
+        this.hotKeyTracker = hotKeyTracker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotKeys(@Nullable Integer limit) {
+        if (limit != null && limit < 0) {
+            throw new InvalidEndpointRequestException("Negative limit " + limit, "limit must not be negative");
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", hotKeyTracker.isEnabled());
+        body.put("windowMillis", hotKeyTracker.getWindow().toMillis());
+        body.put("topK", hotKeyTracker.getTopK());
+        body.put("lookups", hotKeyTracker.total());
+        body.put("hotKeys", hotKeyTracker.topK(limit == null ? hotKeyTracker.getTopK() : limit));
+        return body;
+    }
+}
@@ -0,0 +1,192 @@
+package com.p.circuitbreaker.hotkeys;
+
+import com.p.circuitbreaker.cache.DestinationKey;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the destination keys that dominate traffic without a metric per key. Every lookup is counted in a
+ * {@link CountMinSketch}; keys whose estimate beats the weakest of the current candidates join a small candidate
+ * set, which is trimmed back to the strongest keys when it grows to twice the top-K size. Counts cover the current
+ * window plus the previous one, so rates follow shifts in traffic within two windows. Recording takes no lock:
+ * sketch updates are atomic, and only one thread at a time trims the candidates while the others carry on.
+ */
+@Component
+public class HotKeyTracker {
+
+    /**
+     * A heavy hitter with its estimated request rate and share of all tracked lookups.
+     */
+    public record HotKey(String location, String country, long estimatedCount, double ratePerSecond, double share) {
+    }
+
+    private final boolean enabled;
+    private final int topK;
+    private final long windowMillis;
+    private final Map<DestinationKey, Boolean> candidates = new ConcurrentHashMap<>();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final AtomicLong currentTotal = new AtomicLong();
+
+    private volatile CountMinSketch current;
+    private volatile CountMinSketch previous;
+    private volatile long previousTotal;
+    private volatile long windowStartedAt;
+    private volatile long countedSince;
+    private volatile long admissionThreshold;
+
+    public HotKeyTracker(@Value("${travel.hot-keys.enabled:true}") boolean enabled,
+                         @Value("${travel.hot-keys.top-k:20}") int topK,
+                         @Value("${travel.hot-keys.window:60s}") Duration window,
+                         @Value("${travel.hot-keys.sketch-width:2048}") int width,
+                         @Value("${travel.hot-keys.sketch-depth:4}") int depth,
+                         MeterRegistry meterRegistry) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("Hot key top-K must be at least 1");
+        }
+        this.enabled = enabled;
+        this.topK = topK;
+        this.windowMillis = Math.max(1, window.toMillis());
+        this.current = new CountMinSketch(width, depth);
+        this.previous = new CountMinSketch(width, depth);
+        this.windowStartedAt = System.currentTimeMillis();
+        this.countedSince = windowStartedAt;
+        Gauge.builder("travel.hot-keys.top-share", this, tracker -> tracker.topShare(System.currentTimeMillis()))
+                .description("Share of destination lookups going to the current top-K destinations")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count one lookup of the destination.
+     */
+    public void record(String location, String country) {
+        if (enabled && location != null && country != null) {
+            record(DestinationKey.of(location, country), System.currentTimeMillis());
+        }
+    }
+
+    void record(DestinationKey key, long nowMillis) {
+        rotateIfDue(nowMillis);
+        int hash = key.hashCode();
+        long estimate = current.increment(hash) + previous.estimate(hash);
+        currentTotal.incrementAndGet();
+        if (estimate <= admissionThreshold || candidates.containsKey(key)) {
+            return;
+        }
+        candidates.put(key, Boolean.TRUE);
+        if (candidates.size() >= 2 * topK) {
+            trim();
+        }
+    }
+
+    /**
+     * @return up to {@code limit} heaviest destinations, heaviest first
+     */
+    public List<HotKey> topK(int limit) {
+        return topK(limit, System.currentTimeMillis());
+    }
+
+    List<HotKey> topK(int limit, long nowMillis) {
+        rotateIfDue(nowMillis);
+        double seconds = Math.max(1, nowMillis - countedSince) / 1000.0;
+        long total = Math.max(1, total());
+        return candidates.keySet().stream()
+                .map(key -> {
+                    long count = estimate(key);
+                    return new HotKey(key.name(), key.country(), count, count / seconds, (double) count / total);
+                })
+                .sorted(Comparator.comparingLong(HotKey::estimatedCount).reversed())
+                .limit(Math.min(limit, topK))
+                .toList();
+    }
+
+    /**
+     * @return lookups counted over the current and previous window
+     */
+    public long total() {
+        return previousTotal + currentTotal.get();
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(windowMillis);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    double topShare(long nowMillis) {
+        return topK(topK, nowMillis).stream().mapToDouble(HotKey::share).sum();
+    }
+
+    private long estimate(DestinationKey key) {
+        int hash = key.hashCode();
+        return current.estimate(hash) + previous.estimate(hash);
+    }
+
+    /**
+     * Keep the strongest {@code topK} candidates and raise the admission bar to the weakest of them. Skipped when
+     * another thread is already trimming.
+     */
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Map.Entry<DestinationKey, Long>> ranked = candidates.keySet().stream()
+                    .map(key -> Map.entry(key, estimate(key)))
+                    .sorted(Map.Entry.<DestinationKey, Long>comparingByValue().reversed())
+                    .toList();
+            ranked.stream().skip(topK).forEach(entry -> candidates.remove(entry.getKey()));
+            admissionThreshold = ranked.size() < topK ? 0 : ranked.get(topK - 1).getValue();
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    /**
+     * Start a new window once the current one is over; the current counts become the previous window's. A lookup
+     * counted during the swap may land in either window.
+     */
+    private void rotateIfDue(long nowMillis) {
+        long startedAt = windowStartedAt;
+        if (nowMillis - startedAt < windowMillis) {
+            return;
+        }
+        synchronized (this) {
+            if (windowStartedAt != startedAt) {
+                return;
+            }
+            boolean skippedWindow = nowMillis - startedAt >= 2 * windowMillis;
+            CountMinSketch expired = previous;
+            expired.clear();
+            if (skippedWindow) {
+                current.clear();
+                previousTotal = 0;
+                currentTotal.set(0);
+                countedSince = nowMillis;
+            } else {
+                previous = current;
+                current = expired;
+                previousTotal = currentTotal.getAndSet(0);
+                countedSince = startedAt;
+            }
+            windowStartedAt = nowMillis;
+            admissionThreshold = 0;
+            candidates.keySet().removeIf(key -> estimate(key) == 0);
+        }
+    }
+}
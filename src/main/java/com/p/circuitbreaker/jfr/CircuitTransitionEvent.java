@@ -0,0 +1,25 @@
+package com.p.circuitbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A circuit breaker changed state.
+ */
+@Name("com.p.circuitbreaker.CircuitTransition")
+@Label("Circuit Transition")
+@Category({"Travel Destinations", "Resilience"})
+@StackTrace(false)
+public class CircuitTransitionEvent extends jdk.jfr.Event {
+
+    @Label("Circuit Breaker")
+    public String breaker;
+
+    @Label("From State")
+    public String fromState;
+
+    @Label("To State")
+    public String toState;
+}
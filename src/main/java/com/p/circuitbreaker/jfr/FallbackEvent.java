@@ -0,0 +1,42 @@
+package com.p.circuitbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A lookup was answered with a fallback instead of upstream data.
+ */
+@Name("com.p.circuitbreaker.Fallback")
+@Label("Fallback Served")
+@Category({"Travel Destinations", "Resilience"})
+@StackTrace(false)
+public class FallbackEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Country")
+    public String country;
+
+    @Label("Reason")
+    public String reason;
+
+    /**
+     * Record a fallback if a recording is capturing fallback events.
+     */
+    public static void record(String operation, String destination, String country, Throwable reason) {
+        FallbackEvent event = new FallbackEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.destination = destination;
+            event.country = country;
+            event.reason = reason == null ? null : reason.getClass().getSimpleName() + ": " + reason.getMessage();
+            event.commit();
+        }
+    }
+}
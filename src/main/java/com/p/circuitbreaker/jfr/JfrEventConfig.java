@@ -0,0 +1,48 @@
+package com.p.circuitbreaker.jfr;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns circuit breaker state transitions into {@link CircuitTransitionEvent JFR events}. Every breaker is
+ * subscribed, including the per-instance upstream breakers and breakers replaced by live reconfiguration.
+ */
+@Configuration
+public class JfrEventConfig {
+
+    @Bean
+    RegistryEventConsumer<CircuitBreaker> circuitTransitionEvents() {
+        return new RegistryEventConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> entryAddedEvent) {
+                subscribe(entryAddedEvent.getAddedEntry());
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> entryRemoveEvent) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> entryReplacedEvent) {
+                subscribe(entryReplacedEvent.getNewEntry());
+            }
+        };
+    }
+
+    static void subscribe(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(transition -> {
+            CircuitTransitionEvent event = new CircuitTransitionEvent();
+            if (event.isEnabled()) {
+                event.breaker = transition.getCircuitBreakerName();
+                event.fromState = transition.getStateTransition().getFromState().name();
+                event.toState = transition.getStateTransition().getToState().name();
+                event.commit();
+            }
+        });
+    }
+}
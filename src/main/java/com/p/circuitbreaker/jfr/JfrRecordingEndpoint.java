@@ -0,0 +1,163 @@
+package com.p.circuitbreaker.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Starts, lists, dumps and closes bounded Flight Recorder recordings at {@code /actuator/jfr}. Recordings use one of
+ * the JDK's settings ({@code default} or {@code profile}) with this application's events enabled, and are capped in
+ * duration and size. Only a few recordings are kept at a time; starting another one closes the oldest stopped one.
+ * Without a recording the application's events cost a disabled-check per call. Dumps carry the environment, system
+ * properties and command line of the process, so the endpoint is not exposed over the web by default.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingEndpoint.class);
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(UpstreamCallEvent.class,
+            CircuitTransitionEvent.class, RateLimiterEvent.class, FallbackEvent.class);
+
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final int maxRecordings;
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final Map<Long, Path> dumps = new ConcurrentHashMap<>();
+
+    public JfrRecordingEndpoint(@Value("${travel.jfr.max-duration:10m}") Duration maxDuration,
+                                @Value("${travel.jfr.max-size:100MB}") DataSize maxSize,
+                                @Value("${travel.jfr.max-recordings:2}") int maxRecordings) {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.maxRecordings = Math.max(1, maxRecordings);
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> recordings() {
+        List<Map<String, Object>> body = new ArrayList<>();
+        recordings.values().forEach(recording -> body.add(describe(recording)));
+        return body;
+    }
+
+    /**
+     * Start a recording that stops by itself after the duration (at most the configured maximum).
+     */
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Duration duration, @Nullable String settings) {
+        makeRoom();
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings == null ? "default" : settings);
+        } catch (IOException | ParseException e) {
+            throw new InvalidEndpointRequestException("Unknown JFR settings " + settings, "Unknown JFR settings");
+        }
+        Recording recording = new Recording(configuration);
+        EVENTS.forEach(event -> recording.enable(event).withoutStackTrace());
+        Duration requested = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        recording.setName("travel-" + recording.getId());
+        recording.setDuration(requested);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setToDisk(true);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        log.info("Started JFR recording {} for {}", recording.getName(), requested);
+        return describe(recording);
+    }
+
+    /**
+     * Dump what the recording has captured so far; the recording keeps running.
+     */
+    @ReadOperation
+    public WebEndpointResponse<Resource> dump(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            Path file = Files.createTempFile("travel-" + id + "-", ".jfr");
+            file.toFile().deleteOnExit();
+            recording.dump(file);
+            Path previous = dumps.put(id, file);
+            deleteQuietly(previous);
+            return new WebEndpointResponse<>(new FileSystemResource(file));
+        } catch (IOException e) {
+            log.warn("Could not dump JFR recording {}: {}", id, e.getMessage());
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> close(@Selector long id) {
+        Recording recording = recordings.remove(id);
+        if (recording == null) {
+            return Map.of("id", id, "state", "UNKNOWN");
+        }
+        recording.close();
+        deleteQuietly(dumps.remove(id));
+        log.info("Closed JFR recording {}", recording.getName());
+        return describe(recording);
+    }
+
+    private void makeRoom() {
+        if (recordings.size() < maxRecordings) {
+            return;
+        }
+        Recording oldestStopped = recordings.values().stream()
+                .filter(recording -> recording.getState() != RecordingState.RUNNING
+                        && recording.getState() != RecordingState.DELAYED)
+                .min((a, b) -> Long.compare(a.getId(), b.getId()))
+                .orElseThrow(() -> new InvalidEndpointRequestException(
+                        maxRecordings + " recordings are already running", "Too many recordings"));
+        close(oldestStopped.getId());
+    }
+
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", recording.getId());
+        body.put("name", recording.getName());
+        body.put("state", recording.getState());
+        body.put("startTime", recording.getStartTime());
+        body.put("duration", recording.getDuration());
+        body.put("maxSize", recording.getMaxSize());
+        body.put("size", recording.getSize());
+        return body;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
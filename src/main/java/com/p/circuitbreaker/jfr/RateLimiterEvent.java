@@ -0,0 +1,51 @@
+package com.p.circuitbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time a caller spent waiting for a rate limiter permit, and whether it got one.
+ */
+@Name("com.p.circuitbreaker.RateLimiterWait")
+@Label("Rate Limiter Wait")
+@Category({"Travel Destinations", "Resilience"})
+@StackTrace(false)
+public class RateLimiterEvent extends jdk.jfr.Event {
+
+    @Label("Rate Limiter")
+    public String limiter;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Country")
+    public String country;
+
+    @Label("Permitted")
+    public boolean permitted;
+
+    /**
+     * End the wait started with {@link #begin()} and record it if a recording is capturing rate limiter waits.
+     */
+    public static void commit(RateLimiterEvent event, String limiter, String destination, String country,
+                              boolean permitted) {
+        event.end();
+        record(event, limiter, destination, country, permitted);
+    }
+
+    /**
+     * Record a wait that was already ended with {@link #end()}, for callers that only learn the outcome later.
+     */
+    public static void record(RateLimiterEvent event, String limiter, String destination, String country,
+                              boolean permitted) {
+        if (event.shouldCommit()) {
+            event.limiter = limiter;
+            event.destination = destination;
+            event.country = country;
+            event.permitted = permitted;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.p.circuitbreaker.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One upstream HTTP call, from subscription until the response headers arrived or the call failed. Retried
+ * lookups produce one event per attempt.
+ */
+@Name("com.p.circuitbreaker.UpstreamCall")
+@Label("Upstream Call")
+@Category({"Travel Destinations", "Upstream"})
+@Description("HTTP call to the travel destination upstream")
+@StackTrace(false)
+public class UpstreamCallEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Destination")
+    public String destination;
+
+    @Label("Country")
+    public String country;
+
+    @Label("Instance")
+    public String instance;
+
+    @Label("Status")
+    @Description("HTTP status code, or the failure when no response arrived")
+    public String status;
+}
@@ -0,0 +1,56 @@
+package com.p.circuitbreaker.jfr;
+
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Records an {@link UpstreamCallEvent} for every upstream call while a recording captures them. Without a recording
+ * the call passes straight through.
+ */
+public class UpstreamCallEventFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            UpstreamCallEvent event = new UpstreamCallEvent();
+            if (!event.isEnabled()) {
+                return next.exchange(request);
+            }
+            event.begin();
+            return next.exchange(request)
+                    .doOnNext(response -> commit(event, request.url(), String.valueOf(response.statusCode().value())))
+                    .doOnError(error -> commit(event, request.url(), error.getClass().getSimpleName()))
+                    .doOnCancel(() -> commit(event, request.url(), "cancelled"));
+        });
+    }
+
+    private static void commit(UpstreamCallEvent event, URI url, String status) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        UriComponents uri = UriComponentsBuilder.fromUri(url).build();
+        MultiValueMap<String, String> query = uri.getQueryParams();
+        String path = uri.getPath();
+        event.operation = path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+        event.destination = decode(query.getFirst("destinationId"));
+        event.country = decode(query.getFirst("country"));
+        event.instance = url.getScheme() + "://" + url.getRawAuthority();
+        event.status = status;
+        event.commit();
+    }
+
+    private static String decode(String value) {
+        return value == null ? null : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package com.p.circuitbreaker.logging;
+
+import java.time.Duration;
+
+/**
+ * Rate limit for a log statement that fires on every failing request. The first few events of each window are
+ * logged and the rest are counted; the next event that gets through reports how many were suppressed, so an
+ * outage produces a handful of lines per window instead of one per request.
+ */
+public final class LogSampler {
+
+    private final int permitsPerWindow;
+    private final long windowNanos;
+
+    private long windowStart;
+    private int permitsUsed;
+    private long suppressed;
+
+    public LogSampler(int permitsPerWindow, Duration window) {
+        if (permitsPerWindow < 1 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("A log sampler needs at least one permit per positive window");
+        }
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowNanos = window.toNanos();
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Five events per ten seconds, the default for per-request failure logging.
+     */
+    public static LogSampler perTenSeconds() {
+        return new LogSampler(5, Duration.ofSeconds(10));
+    }
+
+    /**
+     * @return {@code -1} when this event should not be logged, otherwise the number of events suppressed since
+     * the last one that was logged
+     */
+    public synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos) {
+            windowStart = now;
+            permitsUsed = 0;
+        }
+        if (permitsUsed >= permitsPerWindow) {
+            suppressed++;
+            return -1;
+        }
+        permitsUsed++;
+        long count = suppressed;
+        suppressed = 0;
+        return count;
+    }
+
+    /**
+     * @return a suffix for the log message that summarises the suppressed events, empty when there were none
+     */
+    public static String summary(long suppressed) {
+        return suppressed > 0 ? " (" + suppressed + " similar messages suppressed)" : "";
+    }
+}
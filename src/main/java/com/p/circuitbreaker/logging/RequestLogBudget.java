@@ -0,0 +1,61 @@
+package com.p.circuitbreaker.logging;
+
+/**
+ * Number of log events a single request may emit below WARN level. The budget is bound to the handling thread
+ * by {@link RequestLogBudgetFilter} and enforced by {@link RequestLogBudgetTurboFilter}; threads with no budget
+ * bound (startup, schedulers, reactor callbacks) are not limited.
+ */
+public final class RequestLogBudget {
+
+    private static final ThreadLocal<RequestLogBudget> CURRENT = new ThreadLocal<>();
+
+    private final int maxEvents;
+    private int used;
+    private int dropped;
+
+    private RequestLogBudget(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Bind a fresh budget to the current thread.
+     */
+    public static RequestLogBudget open(int maxEvents) {
+        RequestLogBudget budget = new RequestLogBudget(maxEvents);
+        CURRENT.set(budget);
+        return budget;
+    }
+
+    /**
+     * @return the budget bound to the current thread, or {@code null} outside a request
+     */
+    public static RequestLogBudget current() {
+        return CURRENT.get();
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Take one event from the budget.
+     *
+     * @return {@code false} when the budget is spent and the event should be dropped
+     */
+    public boolean tryConsume() {
+        if (used >= maxEvents) {
+            dropped++;
+            return false;
+        }
+        used++;
+        return true;
+    }
+
+    public int getUsed() {
+        return used;
+    }
+
+    public int getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,57 @@
+package com.p.circuitbreaker.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Gives every request a fixed budget of log events below WARN level, so a request that loops through retries
+ * and fallbacks cannot flood the log. Events over the budget are dropped by {@link RequestLogBudgetTurboFilter}
+ * and counted here.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLogBudgetFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int maxEventsPerRequest;
+    private final Counter dropped;
+
+    public RequestLogBudgetFilter(@Value("${travel.logging.request-budget.enabled:true}") boolean enabled,
+                                  @Value("${travel.logging.request-budget.max-events:20}") int maxEventsPerRequest,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEventsPerRequest = maxEventsPerRequest;
+        this.dropped = Counter.builder("travel.logging.request-budget.dropped")
+                .description("Log events dropped because their request had used up its log budget")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestLogBudget budget = RequestLogBudget.open(maxEventsPerRequest);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestLogBudget.close();
+            if (budget.getDropped() > 0) {
+                dropped.increment(budget.getDropped());
+            }
+        }
+    }
+}
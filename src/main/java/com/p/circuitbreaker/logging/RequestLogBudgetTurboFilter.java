@@ -0,0 +1,28 @@
+package com.p.circuitbreaker.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+/**
+ * Drops request-path log events below WARN once the current request has spent its {@link RequestLogBudget}.
+ * Turbo filters run before a logging event is created, so a dropped event costs no allocation and never
+ * reaches the appender queue. Warnings and errors are always let through.
+ */
+public class RequestLogBudgetTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isDebugEnabled()-style checks arrive without a format and must not consume the budget
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        RequestLogBudget budget = RequestLogBudget.current();
+        if (budget == null || budget.tryConsume()) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
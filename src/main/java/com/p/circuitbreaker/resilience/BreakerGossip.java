@@ -0,0 +1,316 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Shares circuit breaker state between instances over UDP, so that the fleet reacts to a failing upstream as one.
+ * <ul>
+ *     <li>A node that opens a breaker tells its peers at once, and peers with the breaker closed open it too.</li>
+ *     <li>Every node sends its sliding-window counts as a heartbeat. A node opens its breaker once the calls seen
+ *     by all closed nodes together exceed the failure-rate threshold, instead of waiting until its own window
+ *     has {@code minimum-number-of-calls} failures.</li>
+ *     <li>A node whose breaker goes half-open while {@code max-half-open-nodes} peers are already probing goes back
+ *     to open, and a peer whose probe closed its breaker lets open nodes move to half-open early, under the same
+ *     limit.</li>
+ * </ul>
+ * Peers are a static {@code host:port} list, and datagrams from any other address are dropped. Transitions a node
+ * makes because of gossip are not gossiped again. A peer's view counts as live by when this node received it; the
+ * sender's timestamp only orders one peer's messages, so clock skew between nodes does not matter.
+ */
+@Component
+public class BreakerGossip {
+
+    private static final Logger log = LoggerFactory.getLogger(BreakerGossip.class);
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final Set<SocketAddress> peerAddresses;
+    private final List<String> breakerNames;
+    private final long staleAfterNanos;
+    private final int maxHalfOpenNodes;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private final Map<String, Map<String, PeerView>> peerViews = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> applyingGossip = ThreadLocal.withInitial(() -> false);
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+    private final Counter remoteTransitions;
+
+    private volatile DatagramSocket socket;
+
+    public BreakerGossip(@Value("${travel.gossip.enabled:false}") boolean enabled,
+                         @Value("${travel.gossip.node-id:}") String nodeId,
+                         @Value("${travel.gossip.bind-address:0.0.0.0}") String bindHost,
+                         @Value("${travel.gossip.port:7946}") int port,
+                         @Value("${travel.gossip.peers:}") List<String> peers,
+                         @Value("${travel.gossip.breakers:travelDestination}") List<String> breakerNames,
+                         @Value("${travel.gossip.interval:PT1S}") Duration interval,
+                         @Value("${travel.gossip.max-half-open-nodes:2}") int maxHalfOpenNodes,
+                         CircuitBreakerRegistry circuitBreakerRegistry,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+        this.bindAddress = new InetSocketAddress(bindHost, port);
+        this.peers = peers.stream().filter(StringUtils::hasText).map(BreakerGossip::parsePeer).toList();
+        this.peerAddresses = this.peers.stream().collect(Collectors.toUnmodifiableSet());
+        this.breakerNames = breakerNames.stream().filter(StringUtils::hasText).map(String::trim).toList();
+        this.staleAfterNanos = interval.toNanos() * 3;
+        this.maxHalfOpenNodes = maxHalfOpenNodes;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.sent = Counter.builder("travel.gossip.messages").tag("direction", "sent").register(meterRegistry);
+        this.received = Counter.builder("travel.gossip.messages").tag("direction", "received").register(meterRegistry);
+        this.dropped = Counter.builder("travel.gossip.messages").tag("direction", "dropped").register(meterRegistry);
+        this.remoteTransitions = Counter.builder("travel.gossip.remote-transitions")
+                .description("Circuit breaker transitions made because of state gossiped by peers")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws SocketException {
+        if (!enabled) {
+            return;
+        }
+        socket = new DatagramSocket(bindAddress);
+        for (String name : breakerNames) {
+            circuitBreakerRegistry.circuitBreaker(name).getEventPublisher()
+                    .onStateTransition(this::onLocalTransition);
+        }
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if (breakerNames.contains(event.getNewEntry().getName())) {
+                event.getNewEntry().getEventPublisher().onStateTransition(this::onLocalTransition);
+            }
+        });
+        Thread receiver = new Thread(this::receiveLoop, "breaker-gossip");
+        receiver.setDaemon(true);
+        receiver.start();
+        log.info("Breaker gossip node {} listening on {} with peers {}", nodeId, socket.getLocalSocketAddress(), peers);
+    }
+
+    @PreDestroy
+    public void stop() {
+        DatagramSocket current = socket;
+        if (current != null) {
+            socket = null;
+            current.close();
+        }
+    }
+
+    /**
+     * Send every shared breaker's state and window counts to all peers.
+     */
+    @Scheduled(fixedDelayString = "${travel.gossip.interval:PT1S}")
+    public void heartbeat() {
+        if (socket == null) {
+            return;
+        }
+        for (String name : breakerNames) {
+            broadcast(circuitBreakerRegistry.circuitBreaker(name));
+        }
+    }
+
+    /**
+     * @return the number of peers whose latest gossip for the breaker is recent enough to act on
+     */
+    public int livePeers(String breakerName) {
+        return freshViews(breakerName).size();
+    }
+
+    private void onLocalTransition(CircuitBreakerOnStateTransitionEvent event) {
+        if (applyingGossip.get()) {
+            return;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(event.getCircuitBreakerName());
+        if (event.getStateTransition().getToState() == CircuitBreaker.State.HALF_OPEN
+                && tooManyProbers(event.getCircuitBreakerName())) {
+            log.debug("Keeping {} open, {} peers are already probing", event.getCircuitBreakerName(), maxHalfOpenNodes);
+            applyGossip(circuitBreaker::transitionToOpenState);
+            return;
+        }
+        broadcast(circuitBreaker);
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[GossipMessage.MAX_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        DatagramSocket current;
+        while ((current = socket) != null) {
+            try {
+                current.receive(packet);
+            } catch (IOException e) {
+                if (socket != null) {
+                    log.warn("Breaker gossip receive failed: {}", e.getMessage());
+                }
+                continue;
+            }
+            if (!peerAddresses.contains(packet.getSocketAddress())) {
+                dropped.increment();
+                continue;
+            }
+            GossipMessage message = GossipMessage.decode(packet.getData(), packet.getLength());
+            if (message == null || message.nodeId().equals(nodeId) || !breakerNames.contains(message.breakerName())) {
+                dropped.increment();
+                continue;
+            }
+            received.increment();
+            try {
+                onPeerMessage(message);
+            } catch (RuntimeException e) {
+                log.warn("Failed to apply breaker gossip from {}: {}", message.nodeId(), e.getMessage());
+            }
+        }
+    }
+
+    void onPeerMessage(GossipMessage message) {
+        onPeerMessage(message, System.nanoTime());
+    }
+
+    void onPeerMessage(GossipMessage message, long receivedAtNanos) {
+        Map<String, PeerView> views = peerViews.computeIfAbsent(message.breakerName(), name -> new ConcurrentHashMap<>());
+        PeerView previousView = views.put(message.nodeId(), new PeerView(message, receivedAtNanos));
+        GossipMessage previous = previousView == null ? null : previousView.message();
+        if (previous != null && previous.sentAt() > message.sentAt()) {
+            // reordered datagram, keep the newer view
+            views.put(message.nodeId(), previousView);
+            return;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(message.breakerName());
+        CircuitBreaker.State local = circuitBreaker.getState();
+        boolean changed = previous == null || previous.state() != message.state();
+
+        if (changed && message.state() == CircuitBreaker.State.OPEN && local == CircuitBreaker.State.CLOSED) {
+            log.info("Opening {} because peer {} opened it", message.breakerName(), message.nodeId());
+            remoteTransition(circuitBreaker::transitionToOpenState);
+        } else if (changed && message.state() == CircuitBreaker.State.CLOSED && previous != null
+                && previous.state() == CircuitBreaker.State.HALF_OPEN && local == CircuitBreaker.State.OPEN) {
+            // every open node hears the same recovery; only as many as may probe at once act on it
+            if (tooManyProbers(message.breakerName())) {
+                log.debug("Keeping {} open after peer {} closed it, {} peers are already probing",
+                        message.breakerName(), message.nodeId(), maxHalfOpenNodes);
+                return;
+            }
+            log.info("Probing {} early because peer {} closed it", message.breakerName(), message.nodeId());
+            remoteTransition(circuitBreaker::transitionToHalfOpenState);
+        } else if (local == CircuitBreaker.State.CLOSED && fleetFailureRateExceeded(circuitBreaker)) {
+            log.info("Opening {} because the fleet-wide failure rate exceeded its threshold", message.breakerName());
+            remoteTransition(circuitBreaker::transitionToOpenState);
+        }
+    }
+
+    /**
+     * Whether the calls in the sliding windows of this node and its closed peers together fail at or above the
+     * breaker's failure-rate threshold, with at least {@code minimum-number-of-calls} calls between them.
+     */
+    private boolean fleetFailureRateExceeded(CircuitBreaker circuitBreaker) {
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        long calls = metrics.getNumberOfBufferedCalls();
+        long failed = metrics.getNumberOfFailedCalls();
+        for (GossipMessage view : freshViews(circuitBreaker.getName())) {
+            if (view.state() == CircuitBreaker.State.CLOSED) {
+                calls += view.bufferedCalls();
+                failed += view.failedCalls();
+            }
+        }
+        return calls > 0 && calls >= circuitBreaker.getCircuitBreakerConfig().getMinimumNumberOfCalls()
+                && failed * 100f / calls >= circuitBreaker.getCircuitBreakerConfig().getFailureRateThreshold();
+    }
+
+    private boolean tooManyProbers(String breakerName) {
+        return freshViews(breakerName).stream()
+                .filter(view -> view.state() == CircuitBreaker.State.HALF_OPEN)
+                .count() >= maxHalfOpenNodes;
+    }
+
+    private List<GossipMessage> freshViews(String breakerName) {
+        long now = System.nanoTime();
+        return peerViews.getOrDefault(breakerName, Map.of()).values().stream()
+                .filter(view -> now - view.receivedAtNanos() <= staleAfterNanos)
+                .map(PeerView::message)
+                .toList();
+    }
+
+    /**
+     * A peer's latest message and when it arrived here, by this node's monotonic clock.
+     */
+    private record PeerView(GossipMessage message, long receivedAtNanos) {
+    }
+
+    private void remoteTransition(Runnable transition) {
+        applyGossip(transition);
+        remoteTransitions.increment();
+    }
+
+    private void applyGossip(Runnable transition) {
+        applyingGossip.set(true);
+        try {
+            transition.run();
+        } catch (IllegalStateException e) {
+            // the breaker moved on concurrently; gossip is advisory
+            log.debug("Skipped gossip transition: {}", e.getMessage());
+        } finally {
+            applyingGossip.set(false);
+        }
+    }
+
+    private void broadcast(CircuitBreaker circuitBreaker) {
+        DatagramSocket current = socket;
+        if (current == null) {
+            return;
+        }
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        byte[] data = new GossipMessage(nodeId, circuitBreaker.getName(), circuitBreaker.getState(),
+                metrics.getNumberOfBufferedCalls(), metrics.getNumberOfFailedCalls(), System.currentTimeMillis()).encode();
+        for (InetSocketAddress peer : peers) {
+            try {
+                current.send(new DatagramPacket(data, data.length, peer));
+                sent.increment();
+            } catch (IOException e) {
+                log.debug("Failed to send breaker gossip to {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    private static InetSocketAddress parsePeer(String peer) {
+        String value = peer.trim();
+        int separator = value.lastIndexOf(':');
+        if (separator <= 0 || separator == value.length() - 1) {
+            throw new IllegalArgumentException("Invalid gossip peer '" + peer + "', expected host:port");
+        }
+        try {
+            return new InetSocketAddress(InetAddress.getByName(value.substring(0, separator)),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid gossip peer '" + peer + "', expected host:port", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One node's view of one circuit breaker: its state and the calls currently in its sliding window. The same
+ * message is sent immediately on a state transition and periodically as a heartbeat.
+ * <p>
+ * Wire format (big endian, one datagram):
+ * <pre>
+ * magic:int version:byte nodeId breakerName state:byte bufferedCalls:int failedCalls:int sentAt:long
+ * </pre>
+ * Strings are length:unsigned byte + UTF-8; {@code state} is the {@link CircuitBreaker.State#getOrder() order}
+ * of the state.
+ */
+record GossipMessage(String nodeId, String breakerName, CircuitBreaker.State state, int bufferedCalls,
+                     int failedCalls, long sentAt) {
+
+    static final int MAGIC = 0x54474231;
+    static final byte VERSION = 1;
+    static final int MAX_SIZE = 512;
+
+    GossipMessage {
+        if (utf8(nodeId).length > 255 || utf8(breakerName).length > 255) {
+            throw new IllegalArgumentException("Node id and breaker name must fit in 255 bytes");
+        }
+    }
+
+    byte[] encode() {
+        byte[] node = utf8(nodeId);
+        byte[] breaker = utf8(breakerName);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 1 + 1 + node.length + 1 + breaker.length + 1
+                + Integer.BYTES * 2 + Long.BYTES);
+        buffer.putInt(MAGIC).put(VERSION)
+                .put((byte) node.length).put(node)
+                .put((byte) breaker.length).put(breaker)
+                .put((byte) state.getOrder())
+                .putInt(bufferedCalls).putInt(failedCalls).putLong(sentAt);
+        return buffer.array();
+    }
+
+    /**
+     * @return the decoded message, or {@code null} when the datagram is not a gossip message this node understands
+     */
+    static GossipMessage decode(byte[] data, int length) {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return null;
+            }
+            String nodeId = readString(buffer);
+            String breakerName = readString(buffer);
+            CircuitBreaker.State state = stateOf(buffer.get());
+            if (state == null) {
+                return null;
+            }
+            return new GossipMessage(nodeId, breakerName, state, buffer.getInt(), buffer.getInt(), buffer.getLong());
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    private static CircuitBreaker.State stateOf(int order) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            if (state.getOrder() == order) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,171 @@
+package com.p.circuitbreaker.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Lock-free latency histogram over a sliding time window, with log-linear buckets in the style of HdrHistogram:
+ * every power-of-two range of microseconds is split into 16 equal buckets, so a reported percentile is within
+ * about 6% of the true value. The window is a ring of time slices; recording only increments one counter, and a
+ * slice is zeroed lazily by the first sample that lands in it after it has aged out. A sample racing with that
+ * reset may be lost, which is harmless for percentiles.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    private final long maxMicros;
+    private final long sliceMillis;
+    private final Slice[] slices;
+    private final int bucketCount;
+
+    public LatencyHistogram(long maxMicros, long sliceMillis, int sliceCount) {
+        if (maxMicros < SUB_BUCKETS || sliceMillis < 1 || sliceCount < 1) {
+            throw new IllegalArgumentException("Histogram needs a maximum of at least " + SUB_BUCKETS
+                    + "us and at least one positive time slice");
+        }
+        this.maxMicros = maxMicros;
+        this.sliceMillis = sliceMillis;
+        this.bucketCount = bucketIndex(maxMicros) + 1;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice(bucketCount);
+        }
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        record(unit.toMicros(duration), System.currentTimeMillis());
+    }
+
+    void record(long micros, long nowMillis) {
+        long sliceId = nowMillis / sliceMillis;
+        Slice slice = slices[(int) (sliceId % slices.length)];
+        long current = slice.id.get();
+        if (current != sliceId && slice.id.compareAndSet(current, sliceId)) {
+            for (int i = 0; i < bucketCount; i++) {
+                slice.counts.set(i, 0);
+            }
+        }
+        slice.counts.incrementAndGet(bucketIndex(Math.max(0, Math.min(micros, maxMicros))));
+    }
+
+    /**
+     * Forget every sample recorded so far. Like the lazy slice reset, a sample racing with this may survive it.
+     */
+    public void reset() {
+        for (Slice slice : slices) {
+            slice.id.set(Long.MIN_VALUE);
+            for (int i = 0; i < bucketCount; i++) {
+                slice.counts.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * @return the counts of the slices still inside the window
+     */
+    public Snapshot snapshot() {
+        return snapshot(System.currentTimeMillis());
+    }
+
+    Snapshot snapshot(long nowMillis) {
+        long newest = nowMillis / sliceMillis;
+        long[] counts = new long[bucketCount];
+        long total = 0;
+        for (Slice slice : slices) {
+            long id = slice.id.get();
+            if (id <= newest && newest - id < slices.length) {
+                for (int i = 0; i < bucketCount; i++) {
+                    long count = slice.counts.get(i);
+                    counts[i] += count;
+                    total += count;
+                }
+            }
+        }
+        return new Snapshot(counts, total);
+    }
+
+    public long windowMillis() {
+        return sliceMillis * slices.length;
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(micros)) - (SUB_BUCKET_BITS - 1);
+        return shift * HALF_SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    /**
+     * @return the largest value, in microseconds, that falls into the bucket
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKETS - 1;
+        long subBucket = index % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    private static final class Slice {
+        final AtomicLong id = new AtomicLong(Long.MIN_VALUE);
+        final AtomicLongArray counts;
+
+        Slice(int bucketCount) {
+            this.counts = new AtomicLongArray(bucketCount);
+        }
+    }
+
+    /**
+     * Point-in-time counts of a histogram window.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long totalCount;
+
+        private Snapshot(long[] counts, long totalCount) {
+            this.counts = counts;
+            this.totalCount = totalCount;
+        }
+
+        public long totalCount() {
+            return totalCount;
+        }
+
+        /**
+         * @param percentile between 0 and 1, e.g. 0.99
+         * @return the upper bound in microseconds of the bucket holding the percentile, or 0 without samples
+         */
+        public long valueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return bucketUpperBound(i);
+                }
+            }
+            return bucketUpperBound(counts.length - 1);
+        }
+
+        /**
+         * @return the non-empty buckets as (upper bound in microseconds, count) pairs, in increasing order
+         */
+        public long[][] buckets() {
+            return IntStream.range(0, counts.length)
+                    .filter(i -> counts[i] > 0)
+                    .mapToObj(i -> new long[]{bucketUpperBound(i), counts[i]})
+                    .toArray(long[][]::new);
+        }
+    }
+}
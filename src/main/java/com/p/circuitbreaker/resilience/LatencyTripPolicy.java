@@ -0,0 +1,169 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a circuit breaker when upstream latency degrades, which its failure-rate and slow-call thresholds over a
+ * short count-based window do not catch. The latency of every call the breaker records goes into a
+ * {@link LatencyHistogram}; once the configured percentile of the window has stayed above the budget for the
+ * sustain period, the breaker is opened. While the percentile is over budget but not yet for long enough, the
+ * policy reports the breaker as breaching so that dashboards and alerts can warn before it opens. The window is
+ * cleared whenever the breaker leaves the closed state, so the slow calls that caused a trip cannot trip the
+ * breaker again once it has closed.
+ */
+@Component
+public class LatencyTripPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyTripPolicy.class);
+    private static final double[] REPORTED_PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final boolean enabled;
+    private final String breakerName;
+    private final double percentile;
+    private final long budgetMicros;
+    private final long sustainMillis;
+    private final long minSamples;
+    private final LatencyHistogram histogram;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Counter trips;
+
+    private volatile long breachingSince = -1;
+
+    public LatencyTripPolicy(@Value("${travel.latency-trip.enabled:true}") boolean enabled,
+                             @Value("${travel.latency-trip.breaker:travelDestination}") String breakerName,
+                             @Value("${travel.latency-trip.percentile:0.99}") double percentile,
+                             @Value("${travel.latency-trip.budget:2s}") Duration budget,
+                             @Value("${travel.latency-trip.sustain:30s}") Duration sustain,
+                             @Value("${travel.latency-trip.window:60s}") Duration window,
+                             @Value("${travel.latency-trip.min-samples:20}") long minSamples,
+                             CircuitBreakerRegistry circuitBreakerRegistry,
+                             MeterRegistry meterRegistry) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Latency trip percentile must be between 0 and 1");
+        }
+        this.enabled = enabled;
+        this.breakerName = breakerName;
+        this.percentile = percentile;
+        this.budgetMicros = budget.toNanos() / 1000;
+        this.sustainMillis = sustain.toMillis();
+        this.minSamples = minSamples;
+        // six slices per window; latencies are capped at a minute
+        this.histogram = new LatencyHistogram(TimeUnit.MINUTES.toMicros(1), Math.max(1, window.toMillis() / 6), 6);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.trips = Counter.builder("travel.latency-trip.trips")
+                .description("Times the breaker was opened because upstream latency stayed over budget")
+                .tag("name", breakerName)
+                .register(meterRegistry);
+        for (double reported : REPORTED_PERCENTILES) {
+            Gauge.builder("travel.upstream.latency.percentile", histogram,
+                            h -> h.snapshot().valueAtPercentile(reported) / 1000.0)
+                    .description("Upstream call latency percentile over the latency trip window")
+                    .tag("name", breakerName)
+                    .tag("percentile", String.valueOf(reported))
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("travel.latency-trip.breaching", this, policy -> policy.isBreaching() ? 1 : 0)
+                .description("1 while the latency percentile is over budget and the breaker is about to open")
+                .tag("name", breakerName)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        record(circuitBreakerRegistry.circuitBreaker(breakerName));
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if (breakerName.equals(event.getNewEntry().getName())) {
+                record(event.getNewEntry());
+            }
+        });
+    }
+
+    private void record(CircuitBreaker circuitBreaker) {
+        var eventPublisher = circuitBreaker.getEventPublisher();
+        eventPublisher.onSuccess(event -> histogram.record(event.getElapsedDuration().toNanos(), TimeUnit.NANOSECONDS));
+        eventPublisher.onError(event -> histogram.record(event.getElapsedDuration().toNanos(), TimeUnit.NANOSECONDS));
+        eventPublisher.onStateTransition(event -> {
+            if (event.getStateTransition().getFromState() == CircuitBreaker.State.CLOSED) {
+                histogram.reset();
+                breachingSince = -1;
+            }
+        });
+    }
+
+    /**
+     * Compare the window's percentile with the budget and open the breaker once it has been over budget for the
+     * whole sustain period.
+     */
+    @Scheduled(fixedDelayString = "${travel.latency-trip.evaluation-interval:PT1S}")
+    public void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        evaluate(System.currentTimeMillis());
+    }
+
+    void evaluate(long nowMillis) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(breakerName);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(nowMillis);
+        long observed = snapshot.valueAtPercentile(percentile);
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED || snapshot.totalCount() < minSamples
+                || observed <= budgetMicros) {
+            breachingSince = -1;
+            return;
+        }
+        if (breachingSince < 0) {
+            breachingSince = nowMillis;
+            log.warn("{} latency percentile of {} is {}ms, over its {}ms budget; opening in {}ms unless it recovers",
+                    percentile, breakerName, observed / 1000, budgetMicros / 1000, sustainMillis);
+            return;
+        }
+        if (nowMillis - breachingSince >= sustainMillis) {
+            log.warn("Opening {}: its {} latency percentile has been over the {}ms budget for {}ms",
+                    breakerName, percentile, budgetMicros / 1000, nowMillis - breachingSince);
+            breachingSince = -1;
+            trips.increment();
+            try {
+                circuitBreaker.transitionToOpenState();
+            } catch (IllegalStateException e) {
+                log.debug("Breaker {} changed state concurrently: {}", breakerName, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isBreaching() {
+        return breachingSince >= 0;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public String getBreakerName() {
+        return breakerName;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public Duration getBudget() {
+        return Duration.ofNanos(budgetMicros * 1000);
+    }
+}
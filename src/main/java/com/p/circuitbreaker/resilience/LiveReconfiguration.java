@@ -0,0 +1,315 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.exception.UpstreamException;
+import com.p.circuitbreaker.service.TravelDestinationServiceImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes breaker, rate limiter and upstream timeout settings at runtime, from the {@code resilienceconfig}
+ * actuator endpoint or a watched properties file. Settings use the keys
+ * <ul>
+ *     <li>{@code circuitbreaker.<name>.failure-rate-threshold} and {@code circuitbreaker.<name>.sliding-window-size}</li>
+ *     <li>{@code ratelimiter.<name>.limit-for-period} and {@code ratelimiter.<name>.timeout-duration}</li>
+ *     <li>{@code upstream.timeout}</li>
+ * </ul>
+ * A change is validated as a whole before any of it is applied, so it either takes effect completely or not at all.
+ * <p>
+ * Rate limiters and the upstream timeout are changed in place. A resilience4j breaker's configuration is fixed, so a
+ * reconfigured breaker is replaced in its registry: calls already in flight finish on the old instance, the new one
+ * takes over the old one's state, and while both are closed count-based windows the recorded outcomes are replayed
+ * into it so that the failure rate survives the change. Every applied setting is logged and kept for the endpoint.
+ */
+@Component
+public class LiveReconfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveReconfiguration.class);
+    private static final int MAX_HISTORY = 50;
+    private static final String CIRCUIT_BREAKER = "circuitbreaker";
+    private static final String RATE_LIMITER = "ratelimiter";
+    private static final String UPSTREAM_TIMEOUT = "upstream.timeout";
+
+    /**
+     * One applied setting, as written to the audit log.
+     */
+    public record Change(Instant at, String source, String key, String oldValue, String newValue) {
+    }
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final TravelDestinationServiceImpl travelDestinationService;
+    private final Path watchedFile;
+    private final Deque<Change> history = new ArrayDeque<>();
+
+    private long watchedFileModified = -1;
+
+    public LiveReconfiguration(CircuitBreakerRegistry circuitBreakerRegistry,
+                               RateLimiterRegistry rateLimiterRegistry,
+                               TravelDestinationServiceImpl travelDestinationService,
+                               @Value("${travel.reconfig.file:}") String watchedFile) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rateLimiterRegistry = rateLimiterRegistry;
+        this.travelDestinationService = travelDestinationService;
+        this.watchedFile = StringUtils.hasText(watchedFile) ? Path.of(watchedFile.trim()) : null;
+    }
+
+    /**
+     * Validate and apply the settings.
+     *
+     * @return the settings whose value actually changed
+     * @throws IllegalArgumentException if any setting is unknown or invalid; nothing is applied then
+     */
+    public synchronized List<Change> apply(Map<String, String> settings, String source) {
+        Map<String, CircuitBreakerConfig.Builder> breakerConfigs = new LinkedHashMap<>();
+        Map<String, Map<String, String>> limiterSettings = new LinkedHashMap<>();
+        Duration upstreamTimeout = null;
+
+        for (Map.Entry<String, String> setting : new TreeMap<>(settings).entrySet()) {
+            String key = setting.getKey().trim();
+            String value = setting.getValue() == null ? "" : setting.getValue().trim();
+            if (key.equals(UPSTREAM_TIMEOUT)) {
+                upstreamTimeout = parseDuration(key, value);
+                if (upstreamTimeout.isNegative() || upstreamTimeout.isZero()) {
+                    throw new IllegalArgumentException(key + " must be positive");
+                }
+                continue;
+            }
+            String[] parts = splitKey(key);
+            if (parts[0].equals(CIRCUIT_BREAKER)) {
+                CircuitBreaker circuitBreaker = circuitBreakerRegistry.find(parts[1])
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown circuit breaker in " + key));
+                CircuitBreakerConfig.Builder builder = breakerConfigs.computeIfAbsent(parts[1],
+                        name -> CircuitBreakerConfig.from(circuitBreaker.getCircuitBreakerConfig()));
+                switch (parts[2]) {
+                    case "failure-rate-threshold" -> builder.failureRateThreshold(parseFloat(key, value));
+                    case "sliding-window-size" -> builder.slidingWindowSize(parseInt(key, value));
+                    default -> throw new IllegalArgumentException("Unknown setting " + key);
+                }
+            } else if (parts[0].equals(RATE_LIMITER)) {
+                rateLimiterRegistry.find(parts[1])
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown rate limiter in " + key));
+                switch (parts[2]) {
+                    case "limit-for-period" -> {
+                        if (parseInt(key, value) < 1) {
+                            throw new IllegalArgumentException(key + " must be at least 1");
+                        }
+                    }
+                    case "timeout-duration" -> {
+                        if (parseDuration(key, value).isNegative()) {
+                            throw new IllegalArgumentException(key + " must not be negative");
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown setting " + key);
+                }
+                limiterSettings.computeIfAbsent(parts[1], name -> new LinkedHashMap<>()).put(parts[2], value);
+            } else {
+                throw new IllegalArgumentException("Unknown setting " + key);
+            }
+        }
+
+        Map<String, CircuitBreakerConfig> newBreakerConfigs = new LinkedHashMap<>();
+        breakerConfigs.forEach((name, builder) -> newBreakerConfigs.put(name, builder.build()));
+
+        // everything is valid, apply it
+        Instant now = Instant.now();
+        Map<String, String> before = currentSettings();
+        newBreakerConfigs.forEach(this::replaceBreaker);
+        limiterSettings.forEach((name, values) -> {
+            RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(name);
+            values.forEach((setting, value) -> {
+                if (setting.equals("limit-for-period")) {
+                    rateLimiter.changeLimitForPeriod(Integer.parseInt(value));
+                } else {
+                    rateLimiter.changeTimeoutDuration(parseDuration(setting, value));
+                }
+            });
+        });
+        if (upstreamTimeout != null) {
+            travelDestinationService.setUpstreamTimeout(upstreamTimeout);
+        }
+
+        List<Change> changes = new ArrayList<>();
+        currentSettings().forEach((key, value) -> {
+            String previous = before.get(key);
+            if (!value.equals(previous)) {
+                changes.add(new Change(now, source, key, previous, value));
+            }
+        });
+        for (Change change : changes) {
+            log.info("Reconfigured {} from {} to {} ({})", change.key(), change.oldValue(), change.newValue(), source);
+            history.addLast(change);
+            if (history.size() > MAX_HISTORY) {
+                history.removeFirst();
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Apply the watched file whenever it changes. A file that fails to load or validate is reported and left
+     * alone until it is modified again.
+     */
+    @Scheduled(fixedDelayString = "${travel.reconfig.watch-interval:PT2S}")
+    public void pollWatchedFile() {
+        if (watchedFile == null || !Files.isRegularFile(watchedFile)) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(watchedFile).toMillis();
+            if (modified == watchedFileModified) {
+                return;
+            }
+            watchedFileModified = modified;
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(watchedFile)) {
+                properties.load(reader);
+            }
+            Map<String, String> settings = new LinkedHashMap<>();
+            properties.forEach((key, value) -> settings.put(key.toString(), value.toString()));
+            apply(settings, "file:" + watchedFile);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring reconfiguration file {}: {}", watchedFile, e.getMessage());
+        }
+    }
+
+    /**
+     * The current value of every setting that can be changed.
+     */
+    public Map<String, String> currentSettings() {
+        Map<String, String> settings = new TreeMap<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakerRegistry.getAllCircuitBreakers()) {
+            CircuitBreakerConfig config = circuitBreaker.getCircuitBreakerConfig();
+            String prefix = CIRCUIT_BREAKER + "." + circuitBreaker.getName() + ".";
+            settings.put(prefix + "failure-rate-threshold", String.valueOf(config.getFailureRateThreshold()));
+            settings.put(prefix + "sliding-window-size", String.valueOf(config.getSlidingWindowSize()));
+        }
+        for (RateLimiter rateLimiter : rateLimiterRegistry.getAllRateLimiters()) {
+            String prefix = RATE_LIMITER + "." + rateLimiter.getName() + ".";
+            settings.put(prefix + "limit-for-period", String.valueOf(rateLimiter.getRateLimiterConfig().getLimitForPeriod()));
+            settings.put(prefix + "timeout-duration", String.valueOf(rateLimiter.getRateLimiterConfig().getTimeoutDuration()));
+        }
+        settings.put(UPSTREAM_TIMEOUT, String.valueOf(travelDestinationService.getUpstreamTimeout()));
+        return settings;
+    }
+
+    public synchronized List<Change> getHistory() {
+        return List.copyOf(history);
+    }
+
+    private void replaceBreaker(String name, CircuitBreakerConfig config) {
+        CircuitBreaker previous = circuitBreakerRegistry.circuitBreaker(name);
+        CircuitBreakerConfig current = previous.getCircuitBreakerConfig();
+        if (current.getFailureRateThreshold() == config.getFailureRateThreshold()
+                && current.getSlidingWindowSize() == config.getSlidingWindowSize()) {
+            return;
+        }
+        CircuitBreaker replacement = CircuitBreaker.of(name, config, previous.getTags());
+        switch (previous.getState()) {
+            case CLOSED -> replayWindow(previous, replacement);
+            case OPEN -> replacement.transitionToOpenState();
+            case HALF_OPEN -> {
+                replacement.transitionToOpenState();
+                replacement.transitionToHalfOpenState();
+            }
+            case FORCED_OPEN -> replacement.transitionToForcedOpenState();
+            case DISABLED -> replacement.transitionToDisabledState();
+            case METRICS_ONLY -> replacement.transitionToMetricsOnlyState();
+        }
+        circuitBreakerRegistry.replace(name, replacement);
+    }
+
+    /**
+     * Record the old window's outcomes in the new breaker, scaled down when the new window is smaller. This runs
+     * before the replacement is registered, so listeners do not see the replayed calls.
+     */
+    private static void replayWindow(CircuitBreaker previous, CircuitBreaker replacement) {
+        CircuitBreakerConfig oldConfig = previous.getCircuitBreakerConfig();
+        CircuitBreakerConfig newConfig = replacement.getCircuitBreakerConfig();
+        if (oldConfig.getSlidingWindowType() != CircuitBreakerConfig.SlidingWindowType.COUNT_BASED
+                || newConfig.getSlidingWindowType() != CircuitBreakerConfig.SlidingWindowType.COUNT_BASED) {
+            return;
+        }
+        CircuitBreaker.Metrics metrics = previous.getMetrics();
+        int buffered = metrics.getNumberOfBufferedCalls();
+        if (buffered == 0) {
+            return;
+        }
+        double scale = Math.min(1.0, (double) newConfig.getSlidingWindowSize() / buffered);
+        long slowNanos = newConfig.getSlowCallDurationThreshold().toNanos() + TimeUnit.MILLISECONDS.toNanos(1);
+        int slowSuccesses = (int) Math.round(metrics.getNumberOfSlowSuccessfulCalls() * scale);
+        int slowFailures = (int) Math.round(metrics.getNumberOfSlowFailedCalls() * scale);
+        int successes = (int) Math.round(metrics.getNumberOfSuccessfulCalls() * scale) - slowSuccesses;
+        int failures = (int) Math.round(metrics.getNumberOfFailedCalls() * scale) - slowFailures;
+        for (int i = 0; i < successes; i++) {
+            replacement.onSuccess(0, TimeUnit.NANOSECONDS);
+        }
+        for (int i = 0; i < slowSuccesses; i++) {
+            replacement.onSuccess(slowNanos, TimeUnit.NANOSECONDS);
+        }
+        for (int i = 0; i < failures; i++) {
+            replacement.onError(0, TimeUnit.NANOSECONDS, UpstreamException.SERVER_ERROR);
+        }
+        for (int i = 0; i < slowFailures; i++) {
+            replacement.onError(slowNanos, TimeUnit.NANOSECONDS, UpstreamException.SERVER_ERROR);
+        }
+    }
+
+    private static String[] splitKey(String key) {
+        int first = key.indexOf('.');
+        int last = key.lastIndexOf('.');
+        if (first <= 0 || last <= first + 1 || last == key.length() - 1) {
+            throw new IllegalArgumentException("Unknown setting " + key);
+        }
+        return new String[]{key.substring(0, first), key.substring(first + 1, last), key.substring(last + 1)};
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a whole number, was '" + value + "'");
+        }
+    }
+
+    private static float parseFloat(String key, String value) {
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number, was '" + value + "'");
+        }
+    }
+
+    private static Duration parseDuration(String key, String value) {
+        try {
+            return DurationStyle.detectAndParse(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(key + " must be a duration such as 2s, was '" + value + "'");
+        }
+    }
+}
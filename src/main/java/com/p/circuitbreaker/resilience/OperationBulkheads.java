@@ -0,0 +1,96 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the concurrency of the destination-details and attractions workloads with a bulkhead per operation, so
+ * that one saturated operation cannot take all the capacity of the other. Each operation is configured as a
+ * semaphore bulkhead ({@code resilience4j.bulkhead.instances.*}), a thread-pool bulkhead
+ * ({@code resilience4j.thread-pool-bulkhead.instances.*}) or no bulkhead at all. A full bulkhead rejects immediately
+ * with {@link BulkheadFullException}.
+ * <p>
+ * {@link #execute} is synchronous for every type: with a thread-pool bulkhead the call runs on a worker thread but
+ * the caller still waits for it, so the pool and its queue limit how many calls run and wait, not how many request
+ * threads are held.
+ */
+@Component
+public class OperationBulkheads {
+
+    public static final String TRAVEL_DESTINATION = "travelDestination";
+    public static final String TRAVEL_ATTRACTIONS = "travelAttractions";
+
+    public enum Type {
+        SEMAPHORE, THREADPOOL, NONE
+    }
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+    private final Map<String, Type> types;
+    private final Map<String, Counter> rejections;
+
+    public OperationBulkheads(BulkheadRegistry bulkheadRegistry,
+                              ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${travel.bulkhead.travelDestination.type:SEMAPHORE}") Type destinationType,
+                              @Value("${travel.bulkhead.travelAttractions.type:SEMAPHORE}") Type attractionsType) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.threadPoolBulkheadRegistry = threadPoolBulkheadRegistry;
+        this.types = Map.of(TRAVEL_DESTINATION, destinationType, TRAVEL_ATTRACTIONS, attractionsType);
+        this.rejections = Map.of(
+                TRAVEL_DESTINATION, rejectionCounter(meterRegistry, TRAVEL_DESTINATION, destinationType),
+                TRAVEL_ATTRACTIONS, rejectionCounter(meterRegistry, TRAVEL_ATTRACTIONS, attractionsType));
+    }
+
+    /**
+     * Run the supplier inside the bulkhead configured for the operation.
+     *
+     * @throws BulkheadFullException when the bulkhead has no free capacity
+     */
+    public <T> T execute(String operation, Supplier<T> supplier) {
+        Type type = types.getOrDefault(operation, Type.NONE);
+        try {
+            return switch (type) {
+                case SEMAPHORE -> bulkheadRegistry.bulkhead(operation).executeSupplier(supplier);
+                case THREADPOOL -> join(threadPoolBulkheadRegistry.bulkhead(operation).executeSupplier(supplier)
+                        .toCompletableFuture());
+                case NONE -> supplier.get();
+            };
+        } catch (BulkheadFullException e) {
+            rejections.get(operation).increment();
+            throw e;
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, String operation, Type type) {
+        return Counter.builder("travel.bulkhead.rejected")
+                .description("Calls rejected because the operation's bulkhead was saturated")
+                .tag("name", operation)
+                .tag("type", type.name())
+                .register(meterRegistry);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.p.circuitbreaker.resilience;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and changes the settings managed by {@link LiveReconfiguration} at {@code /actuator/resilienceconfig}.
+ * A POST names the breaker and/or rate limiter to change and the new values; omitted values are left as they are.
+ * The endpoint is not exposed over the web by default, since anyone who can reach it can reconfigure the service.
+ */
+@Component
+@Endpoint(id = "resilienceconfig")
+public class ReconfigurationEndpoint {
+
+    private final LiveReconfiguration liveReconfiguration;
+
+    public ReconfigurationEndpoint(LiveReconfiguration liveReconfiguration) {
+        this.liveReconfiguration = liveReconfiguration;
+    }
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("settings", liveReconfiguration.currentSettings());
+        body.put("changes", liveReconfiguration.getHistory());
+        return body;
+    }
+
+    @WriteOperation
+    public List<LiveReconfiguration.Change> update(@Nullable String circuitBreaker,
+                                                   @Nullable Float failureRateThreshold,
+                                                   @Nullable Integer slidingWindowSize,
+                                                   @Nullable String rateLimiter,
+                                                   @Nullable Integer limitForPeriod,
+                                                   @Nullable Duration rateLimiterTimeout,
+                                                   @Nullable Duration upstreamTimeout) {
+        Map<String, String> settings = new LinkedHashMap<>();
+        if (failureRateThreshold != null || slidingWindowSize != null) {
+            String prefix = "circuitbreaker." + require(circuitBreaker, "circuitBreaker") + ".";
+            put(settings, prefix + "failure-rate-threshold", failureRateThreshold);
+            put(settings, prefix + "sliding-window-size", slidingWindowSize);
+        }
+        if (limitForPeriod != null || rateLimiterTimeout != null) {
+            String prefix = "ratelimiter." + require(rateLimiter, "rateLimiter") + ".";
+            put(settings, prefix + "limit-for-period", limitForPeriod);
+            put(settings, prefix + "timeout-duration", rateLimiterTimeout);
+        }
+        put(settings, "upstream.timeout", upstreamTimeout);
+        if (settings.isEmpty()) {
+            throw new InvalidEndpointRequestException("Nothing to change", "Nothing to change");
+        }
+        try {
+            return liveReconfiguration.apply(settings, "endpoint");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    private static String require(String name, String parameter) {
+        if (name == null || name.isBlank()) {
+            throw new InvalidEndpointRequestException(parameter + " is required", parameter + " is required");
+        }
+        return name;
+    }
+
+    private static void put(Map<String, String> settings, String key, Object value) {
+        if (value != null) {
+            settings.put(key, value instanceof Duration duration ? duration.toMillis() + "ms" : value.toString());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Slow start for an upstream that has just recovered. When the breaker closes again, only a fraction of calls is
+ * let through, growing linearly from the minimum fraction to all calls over the ramp window; the rest are rejected
+ * as if the breaker were still open, so callers serve them from their fallback. Without the ramp the full load
+ * lands on the upstream the moment the breaker closes, which often knocks it straight back over.
+ */
+@Component
+public class RecoveryRamp {
+
+    private static final Logger log = LoggerFactory.getLogger(RecoveryRamp.class);
+
+    private final boolean enabled;
+    private final String breakerName;
+    private final long windowMillis;
+    private final double minFraction;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Counter rejected;
+
+    private volatile long rampStartedAt = -1;
+
+    public RecoveryRamp(@Value("${travel.recovery-ramp.enabled:true}") boolean enabled,
+                        @Value("${travel.recovery-ramp.breaker:travelDestination}") String breakerName,
+                        @Value("${travel.recovery-ramp.window:60s}") Duration window,
+                        @Value("${travel.recovery-ramp.min-fraction:0.1}") double minFraction,
+                        CircuitBreakerRegistry circuitBreakerRegistry,
+                        MeterRegistry meterRegistry) {
+        if (minFraction < 0 || minFraction > 1) {
+            throw new IllegalArgumentException("Recovery ramp minimum fraction must be between 0 and 1");
+        }
+        this.enabled = enabled;
+        this.breakerName = breakerName;
+        this.windowMillis = Math.max(1, window.toMillis());
+        this.minFraction = minFraction;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rejected = Counter.builder("travel.recovery-ramp.rejected")
+                .description("Calls turned away while the upstream was ramping back up after recovery")
+                .tag("name", breakerName)
+                .register(meterRegistry);
+        Gauge.builder("travel.recovery-ramp.admit-fraction", this,
+                        ramp -> ramp.admitFraction(System.currentTimeMillis()))
+                .description("Share of calls currently let through to the upstream")
+                .tag("name", breakerName)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        circuitBreakerRegistry.circuitBreaker(breakerName).getEventPublisher().onStateTransition(this::onStateTransition);
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if (breakerName.equals(event.getNewEntry().getName())) {
+                event.getNewEntry().getEventPublisher().onStateTransition(this::onStateTransition);
+            }
+        });
+    }
+
+    private void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        CircuitBreaker.State from = event.getStateTransition().getFromState();
+        CircuitBreaker.State to = event.getStateTransition().getToState();
+        if (to == CircuitBreaker.State.CLOSED && (from == CircuitBreaker.State.OPEN || from == CircuitBreaker.State.HALF_OPEN)) {
+            rampStartedAt = System.currentTimeMillis();
+            log.info("{} closed, ramping upstream traffic from {}% to 100% over {}ms",
+                    breakerName, Math.round(minFraction * 100), windowMillis);
+        } else if (to != CircuitBreaker.State.CLOSED) {
+            rampStartedAt = -1;
+        }
+    }
+
+    /**
+     * Let the call through, or reject it with the breaker's own {@link CallNotPermittedException} while the ramp
+     * has not reached the call's share yet.
+     */
+    public void acquirePermission() {
+        if (!enabled || rampStartedAt < 0) {
+            return;
+        }
+        double fraction = admitFraction(System.currentTimeMillis());
+        if (fraction < 1.0 && ThreadLocalRandom.current().nextDouble() >= fraction) {
+            rejected.increment();
+            throw CallNotPermittedException.createCallNotPermittedException(
+                    circuitBreakerRegistry.circuitBreaker(breakerName));
+        }
+    }
+
+    double admitFraction(long nowMillis) {
+        long startedAt = rampStartedAt;
+        if (startedAt < 0) {
+            return 1.0;
+        }
+        long elapsed = nowMillis - startedAt;
+        if (elapsed >= windowMillis) {
+            rampStartedAt = -1;
+            return 1.0;
+        }
+        return minFraction + (1.0 - minFraction) * Math.max(0, elapsed) / windowMillis;
+    }
+
+    public boolean isRamping() {
+        return admitFraction(System.currentTimeMillis()) < 1.0;
+    }
+}
@@ -0,0 +1,78 @@
+package com.p.circuitbreaker.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps retries at a fraction of live traffic. Every call admitted to the upstream deposits
+ * {@code ratio} of a token, every retry withdraws a whole one, and the balance never exceeds {@code max-tokens}.
+ * The bucket starts full so that retries still work at low traffic, but during an outage, when every call
+ * fails, retries settle at {@code ratio} of the call rate instead of multiplying it.
+ */
+@Component
+public class RetryBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+    private final Counter exhausted;
+
+    public RetryBudget(@Value("${travel.retry.budget.ratio:0.1}") double ratio,
+                       @Value("${travel.retry.budget.max-tokens:10}") int maxTokens,
+                       MeterRegistry meterRegistry) {
+        if (ratio < 0 || maxTokens < 0) {
+            throw new IllegalArgumentException("Retry budget ratio and max-tokens must not be negative");
+        }
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = maxTokens * TOKEN;
+        this.balance = new AtomicLong(capacity);
+        this.exhausted = Counter.builder("travel.retry.budget.exhausted")
+                .description("Retryable failures that were not retried because the retry budget was empty")
+                .register(meterRegistry);
+        Gauge.builder("travel.retry.budget.tokens", this, RetryBudget::tokens)
+                .description("Retries currently available in the retry budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Credit the budget for a call that reached the upstream.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    /**
+     * Take one retry from the budget.
+     *
+     * @return {@code false} when the budget cannot afford another retry
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                exhausted.increment();
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Return a token taken by {@link #tryWithdraw()} for a retry that was never attempted.
+     */
+    public void refund() {
+        balance.accumulateAndGet(TOKEN, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    public double tokens() {
+        return (double) balance.get() / TOKEN;
+    }
+}
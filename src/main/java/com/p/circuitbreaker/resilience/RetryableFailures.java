@@ -0,0 +1,61 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.deadline.Deadline;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
+import com.p.circuitbreaker.exception.UpstreamException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classifies upstream failures worth retrying: transport errors, timeouts and gateway-style statuses on
+ * idempotent requests. Client errors, not-found lookups and validation failures are never retried, and neither
+ * is anything once the client's deadline has passed.
+ */
+public final class RetryableFailures {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+    private static final Set<HttpStatus> RETRYABLE_STATUSES = Set.of(
+            HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+    private RetryableFailures() {
+    }
+
+    /**
+     * Walk the cause chain, since the service wraps upstream errors before they reach the retry aspect.
+     */
+    public static boolean isRetryable(Throwable failure) {
+        if (Deadline.isCurrentExpired()) {
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException) {
+                return false;
+            }
+            if (cause instanceof UpstreamException upstream) {
+                return upstream.isRetryable();
+            }
+            if (cause instanceof WebClientResponseException response) {
+                return isIdempotent(response.getRequest() != null ? response.getRequest().getMethod() : null)
+                        && RETRYABLE_STATUSES.contains(HttpStatus.resolve(response.getStatusCode().value()));
+            }
+            if (cause instanceof WebClientRequestException request) {
+                return isIdempotent(request.getMethod());
+            }
+            if (cause instanceof TimeoutException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdempotent(HttpMethod method) {
+        return method != null && IDEMPOTENT_METHODS.contains(method);
+    }
+}
@@ -0,0 +1,116 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One upstream instance behind {@link UpstreamLoadBalancer}: its base URL, its own circuit breaker and the load
+ * and health signals the balancer chooses by. The breaker is looked up in the registry on every call, so a breaker
+ * replaced by {@link LiveReconfiguration} takes effect for the next request.
+ * <ul>
+ *     <li>{@code outstanding}: requests sent to the instance that have not completed.</li>
+ *     <li>Latency: a peak-sensitive, time-decayed moving average. A slower response raises it at once, and faster
+ *     responses pull it down over the decay time, so a degrading instance loses traffic quickly.</li>
+ *     <li>Ejection: after {@code consecutive-errors} failures in a row the instance takes no traffic until its
+ *     ejection time has passed, and that time doubles with every repeated ejection.</li>
+ * </ul>
+ */
+public final class UpstreamEndpoint {
+
+    private final String baseUrl;
+    private final String circuitBreakerName;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final double decayNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private double latencyNanos;
+    private long lastObservedNanos;
+    private int consecutiveErrors;
+    private int ejections;
+    private long ejectedUntilMillis;
+
+    UpstreamEndpoint(String baseUrl, String circuitBreakerName, CircuitBreakerRegistry circuitBreakerRegistry,
+                     long decayNanos) {
+        this.baseUrl = baseUrl;
+        this.circuitBreakerName = circuitBreakerName;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.decayNanos = decayNanos;
+        this.lastObservedNanos = System.nanoTime();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreakerRegistry.circuitBreaker(circuitBreakerName);
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized double getLatencyMillis() {
+        return latencyNanos / 1_000_000;
+    }
+
+    public synchronized boolean isEjected(long nowMillis) {
+        return nowMillis < ejectedUntilMillis;
+    }
+
+    /**
+     * Expected cost of sending one more request here: latency weighted by the requests already waiting on it.
+     */
+    synchronized double cost() {
+        return (latencyNanos + 1) * (outstanding.get() + 1);
+    }
+
+    void onStart() {
+        outstanding.incrementAndGet();
+    }
+
+    synchronized void onSuccess(long rttNanos) {
+        outstanding.decrementAndGet();
+        observe(rttNanos);
+        consecutiveErrors = 0;
+    }
+
+    /**
+     * @return whether this failure ejected the endpoint
+     */
+    synchronized boolean onError(long rttNanos, int maxConsecutiveErrors, long baseEjectionMillis,
+                                 long maxEjectionMillis, long nowMillis) {
+        outstanding.decrementAndGet();
+        observe(rttNanos);
+        if (++consecutiveErrors < maxConsecutiveErrors || isEjected(nowMillis)) {
+            return false;
+        }
+        // forget earlier ejections once the endpoint has stayed healthy for the longest ejection time
+        if (nowMillis - ejectedUntilMillis > maxEjectionMillis) {
+            ejections = 0;
+        }
+        ejections++;
+        long ejectionMillis = Math.min(maxEjectionMillis, baseEjectionMillis << Math.min(ejections - 1, 20));
+        ejectedUntilMillis = nowMillis + ejectionMillis;
+        consecutiveErrors = 0;
+        return true;
+    }
+
+    private void observe(long rttNanos) {
+        long now = System.nanoTime();
+        if (rttNanos > latencyNanos) {
+            latencyNanos = rttNanos;
+        } else {
+            double weight = Math.exp(-(now - lastObservedNanos) / decayNanos);
+            latencyNanos = latencyNanos * weight + rttNanos * (1 - weight);
+        }
+        lastObservedNanos = now;
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
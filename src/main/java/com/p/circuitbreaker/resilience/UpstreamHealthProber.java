@@ -0,0 +1,218 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detects upstream recovery in the background instead of with user requests. While the breaker is open or
+ * half-open the prober calls a cheap upstream path every interval; once enough consecutive probes succeed it
+ * closes the breaker, and a failed probe while half-open sends it back to open. While the breaker is closed the
+ * upstream is still probed, less often, so that the last result can be reported by the health endpoint.
+ * Only successes seen while the breaker is not closed count towards closing it, and the streak starts over every
+ * time the breaker opens, so idle probes from before an outage cannot close it. A probe succeeds when the upstream
+ * answers the sample lookup with 2xx.
+ */
+@Component
+public class UpstreamHealthProber {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamHealthProber.class);
+
+    public enum Status {
+        UNKNOWN, UP, DOWN
+    }
+
+    /**
+     * Outcome of the latest probe, with the streak it extends.
+     */
+    public record ProbeResult(Status status, long checkedAt, long latencyMillis, int consecutiveSuccesses,
+                              int consecutiveFailures, String error) {
+
+        static final ProbeResult UNKNOWN = new ProbeResult(Status.UNKNOWN, 0, 0, 0, 0, null);
+    }
+
+    private final boolean enabled;
+    private final String breakerName;
+    private final String path;
+    private final long idleIntervalMillis;
+    private final Duration timeout;
+    private final int successThreshold;
+    private final WebClient webClient;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter closed;
+    private final Counter reopened;
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile ProbeResult lastResult = ProbeResult.UNKNOWN;
+
+    public UpstreamHealthProber(@Value("${travel.health-probe.enabled:true}") boolean enabled,
+                                @Value("${travel.health-probe.breaker:travelDestination}") String breakerName,
+                                @Value("${travel.health-probe.path:/travelDestination?destinationId=Paris&country=France}") String path,
+                                @Value("${travel.health-probe.idle-interval:30s}") Duration idleInterval,
+                                @Value("${travel.health-probe.timeout:1s}") Duration timeout,
+                                @Value("${travel.health-probe.success-threshold:3}") int successThreshold,
+                                WebClient webClient,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry) {
+        if (successThreshold < 1) {
+            throw new IllegalArgumentException("Health probe success threshold must be at least 1");
+        }
+        this.enabled = enabled;
+        this.breakerName = breakerName;
+        this.path = path;
+        this.idleIntervalMillis = idleInterval.toMillis();
+        this.timeout = timeout;
+        this.successThreshold = successThreshold;
+        this.webClient = webClient;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.successes = Counter.builder("travel.health-probe.results").tag("result", "success").register(meterRegistry);
+        this.failures = Counter.builder("travel.health-probe.results").tag("result", "failure").register(meterRegistry);
+        this.closed = Counter.builder("travel.health-probe.transitions")
+                .description("Breaker transitions made because of upstream health probes")
+                .tag("name", breakerName)
+                .tag("to", "closed")
+                .register(meterRegistry);
+        this.reopened = Counter.builder("travel.health-probe.transitions")
+                .description("Breaker transitions made because of upstream health probes")
+                .tag("name", breakerName)
+                .tag("to", "open")
+                .register(meterRegistry);
+        Gauge.builder("travel.health-probe.up", this, prober -> prober.lastResult.status() == Status.UP ? 1 : 0)
+                .description("1 while the latest upstream health probe succeeded")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!enabled) {
+            return;
+        }
+        circuitBreakerRegistry.circuitBreaker(breakerName).getEventPublisher().onStateTransition(this::onStateTransition);
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if (breakerName.equals(event.getNewEntry().getName())) {
+                event.getNewEntry().getEventPublisher().onStateTransition(this::onStateTransition);
+            }
+        });
+    }
+
+    private synchronized void onStateTransition(CircuitBreakerOnStateTransitionEvent event) {
+        if (event.getStateTransition().getToState() == CircuitBreaker.State.OPEN) {
+            ProbeResult previous = lastResult;
+            lastResult = new ProbeResult(previous.status(), previous.checkedAt(), previous.latencyMillis(), 0,
+                    previous.consecutiveFailures(), previous.error());
+        }
+    }
+
+    /**
+     * Probe every interval while the breaker is not closed, and every idle interval while it is. At most one probe
+     * is in flight at a time.
+     */
+    @Scheduled(fixedDelayString = "${travel.health-probe.interval:PT2S}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean closedBreaker = circuitBreakerRegistry.circuitBreaker(breakerName).getState() == CircuitBreaker.State.CLOSED;
+        if (closedBreaker && now - lastResult.checkedAt() < idleIntervalMillis) {
+            return;
+        }
+        if (!probing.compareAndSet(false, true)) {
+            return;
+        }
+        probe().doFinally(signal -> probing.set(false)).subscribe();
+    }
+
+    /**
+     * Send one probe, record its result and apply it to the breaker.
+     */
+    Mono<ProbeResult> probe() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get().uri(path)
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                    .timeout(timeout)
+                    .map(status -> status.is2xxSuccessful()
+                            ? onSuccess(start)
+                            : onFailure(start, "HTTP " + status.value()))
+                    .onErrorResume(error -> Mono.just(onFailure(start, describe(error))));
+        });
+    }
+
+    private synchronized ProbeResult onSuccess(long start) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(breakerName);
+        CircuitBreaker.State state = circuitBreaker.getState();
+        ProbeResult previous = lastResult;
+        int streak = state == CircuitBreaker.State.CLOSED ? 0 : previous.consecutiveSuccesses() + 1;
+        ProbeResult result = new ProbeResult(Status.UP, System.currentTimeMillis(), elapsedMillis(start),
+                streak, 0, null);
+        lastResult = result;
+        successes.increment();
+
+        if ((state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.HALF_OPEN)
+                && result.consecutiveSuccesses() >= successThreshold) {
+            log.info("Closing {} after {} successful upstream health probes", breakerName, result.consecutiveSuccesses());
+            transition(circuitBreaker::transitionToClosedState, closed);
+        }
+        return result;
+    }
+
+    private synchronized ProbeResult onFailure(long start, String error) {
+        ProbeResult previous = lastResult;
+        ProbeResult result = new ProbeResult(Status.DOWN, System.currentTimeMillis(), elapsedMillis(start),
+                0, previous.consecutiveFailures() + 1, error);
+        lastResult = result;
+        failures.increment();
+        if (previous.status() != Status.DOWN) {
+            log.warn("Upstream health probe failed: {}", error);
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(breakerName);
+        if (circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN) {
+            log.info("Reopening {}: upstream health probe failed while half-open", breakerName);
+            transition(circuitBreaker::transitionToOpenState, reopened);
+        }
+        return result;
+    }
+
+    private void transition(Runnable transition, Counter counter) {
+        try {
+            transition.run();
+            counter.increment();
+        } catch (IllegalStateException e) {
+            log.debug("Breaker {} changed state concurrently: {}", breakerName, e.getMessage());
+        }
+    }
+
+    public ProbeResult getLastResult() {
+        return lastResult;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static long elapsedMillis(long start) {
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    private static String describe(Throwable error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,50 @@
+package com.p.circuitbreaker.resilience;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the latency histogram behind {@link LatencyTripPolicy} at {@code /actuator/upstreamlatency}, with
+ * headline percentiles and the non-empty buckets for heat-map dashboards.
+ */
+@Component
+@Endpoint(id = "upstreamlatency")
+public class UpstreamLatencyEndpoint {
+
+    private final LatencyTripPolicy latencyTripPolicy;
+
+    public UpstreamLatencyEndpoint(LatencyTripPolicy latencyTripPolicy) {
+        this.latencyTripPolicy = latencyTripPolicy;
+    }
+
+    @ReadOperation
+    public Map<String, Object> histogram() {
+        LatencyHistogram histogram = latencyTripPolicy.getHistogram();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", snapshot.valueAtPercentile(0.5) / 1000.0);
+        percentiles.put("p90", snapshot.valueAtPercentile(0.9) / 1000.0);
+        percentiles.put("p99", snapshot.valueAtPercentile(0.99) / 1000.0);
+        percentiles.put("p99.9", snapshot.valueAtPercentile(0.999) / 1000.0);
+        List<Map<String, Long>> buckets = Arrays.stream(snapshot.buckets())
+                .map(bucket -> Map.of("upperBoundMicros", bucket[0], "count", bucket[1]))
+                .toList();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("breaker", latencyTripPolicy.getBreakerName());
+        body.put("windowMillis", histogram.windowMillis());
+        body.put("samples", snapshot.totalCount());
+        body.put("percentilesMillis", percentiles);
+        body.put("tripPercentile", latencyTripPolicy.getPercentile());
+        body.put("budgetMillis", latencyTripPolicy.getBudget().toMillis());
+        body.put("breaching", latencyTripPolicy.isBreaching());
+        body.put("buckets", buckets);
+        return body;
+    }
+}
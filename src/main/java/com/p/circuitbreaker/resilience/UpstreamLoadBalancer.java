@@ -0,0 +1,263 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.exception.UpstreamException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Spreads upstream calls over the instances listed in {@code travel.service.urls}, rewriting each request from the
+ * logical {@code travel.service.url} to the chosen instance.
+ * <p>
+ * Each instance has its own circuit breaker ({@code resilience4j.circuitbreaker.configs.upstreamEndpoint}) and is
+ * ejected for a while after consecutive failures, so one bad host is drained without opening the
+ * {@code travelDestination} breaker for all of them. At most {@code max-ejection-percent} of the instances are
+ * ejected at once; when every instance is unavailable the least loaded one is used anyway and the
+ * {@code travelDestination} breaker decides.
+ * <p>
+ * Instances are chosen by power of two choices: the cheaper of two random candidates, by latency times outstanding
+ * requests. The alternative is least outstanding requests. With a single URL the filter passes requests through.
+ * <p>
+ * A call cancelled before its response arrived, which is how the upstream timeout ends a call to a hung instance,
+ * counts as a failure of that instance with the time it was left waiting.
+ */
+@Component
+public class UpstreamLoadBalancer implements ExchangeFilterFunction {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamLoadBalancer.class);
+
+    public enum Strategy {
+        POWER_OF_TWO_CHOICES, LEAST_OUTSTANDING
+    }
+
+    private final String logicalBaseUrl;
+    private final List<UpstreamEndpoint> endpoints;
+    private final Strategy strategy;
+    private final int consecutiveErrors;
+    private final long baseEjectionMillis;
+    private final long maxEjectionMillis;
+    private final int maxEjected;
+    private final MeterRegistry meterRegistry;
+    private final Map<UpstreamEndpoint, Counter> ejections = new IdentityHashMap<>();
+
+    public UpstreamLoadBalancer(@Value("${travel.service.url}") String logicalBaseUrl,
+                                @Value("${travel.service.urls:}") List<String> endpointUrls,
+                                @Value("${travel.upstream.load-balancer.strategy:POWER_OF_TWO_CHOICES}") Strategy strategy,
+                                @Value("${travel.upstream.load-balancer.latency-decay:10s}") Duration latencyDecay,
+                                @Value("${travel.upstream.outlier.consecutive-errors:5}") int consecutiveErrors,
+                                @Value("${travel.upstream.outlier.base-ejection-time:30s}") Duration baseEjectionTime,
+                                @Value("${travel.upstream.outlier.max-ejection-time:5m}") Duration maxEjectionTime,
+                                @Value("${travel.upstream.outlier.max-ejection-percent:50}") int maxEjectionPercent,
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                MeterRegistry meterRegistry) {
+        this.logicalBaseUrl = stripTrailingSlash(logicalBaseUrl);
+        this.strategy = strategy;
+        this.consecutiveErrors = consecutiveErrors;
+        this.baseEjectionMillis = baseEjectionTime.toMillis();
+        this.maxEjectionMillis = maxEjectionTime.toMillis();
+        this.meterRegistry = meterRegistry;
+
+        CircuitBreakerConfig endpointConfig = circuitBreakerRegistry.getConfiguration("upstreamEndpoint")
+                .orElse(circuitBreakerRegistry.getDefaultConfig());
+        List<UpstreamEndpoint> configured = new ArrayList<>();
+        for (String url : endpointUrls) {
+            if (StringUtils.hasText(url)) {
+                String baseUrl = stripTrailingSlash(url.trim());
+                String circuitBreakerName = "upstream-" + URI.create(baseUrl).getAuthority();
+                circuitBreakerRegistry.circuitBreaker(circuitBreakerName, endpointConfig);
+                configured.add(new UpstreamEndpoint(baseUrl, circuitBreakerName, circuitBreakerRegistry,
+                        latencyDecay.toNanos()));
+            }
+        }
+        this.endpoints = List.copyOf(configured);
+        this.maxEjected = endpoints.size() * maxEjectionPercent / 100;
+        for (UpstreamEndpoint endpoint : endpoints) {
+            registerMeters(endpoint);
+        }
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String url = request.url().toString();
+        if (endpoints.size() < 2 || !url.startsWith(logicalBaseUrl)) {
+            return next.exchange(request);
+        }
+        return Mono.defer(() -> {
+            Choice choice = choose();
+            UpstreamEndpoint endpoint = choice.endpoint();
+            ClientRequest routed = ClientRequest.from(request)
+                    .url(URI.create(endpoint.getBaseUrl() + url.substring(logicalBaseUrl.length())))
+                    .build();
+            long start = System.nanoTime();
+            endpoint.onStart();
+            // a cancel can still arrive after the response was recorded; settle each call exactly once
+            AtomicBoolean settled = new AtomicBoolean();
+            return next.exchange(routed)
+                    .doOnNext(response -> {
+                        if (!settled.compareAndSet(false, true)) {
+                            return;
+                        }
+                        if (response.statusCode().is5xxServerError()) {
+                            onError(choice, start, UpstreamException.SERVER_ERROR);
+                        } else {
+                            onSuccess(choice, start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (settled.compareAndSet(false, true)) {
+                            onError(choice, start, e);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // a caller's timeout ends a call that got no answer by cancelling it; without counting
+                        // that as a failure a hung instance would never be ejected nor trip its breaker
+                        if (settled.compareAndSet(false, true)) {
+                            onError(choice, start, UpstreamException.TIMEOUT);
+                        }
+                    });
+        });
+    }
+
+    public List<UpstreamEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Pick an endpoint and take a permit from its circuit breaker. When no endpoint grants a permit, the least
+     * loaded one is returned without a permit. The outcome is recorded on the breaker instance the permit came
+     * from, even if the breaker is replaced while the call is in flight.
+     */
+    Choice choose() {
+        long now = System.currentTimeMillis();
+        List<UpstreamEndpoint> available = new ArrayList<>(endpoints.size());
+        int ejected = 0;
+        for (UpstreamEndpoint endpoint : endpoints) {
+            if (endpoint.isEjected(now)) {
+                ejected++;
+            } else if (endpoint.getCircuitBreaker().getState() != CircuitBreaker.State.OPEN) {
+                available.add(endpoint);
+            }
+        }
+        if (ejected > maxEjected) {
+            // never drain more than the allowed share of the fleet; fall back to the ejected endpoints too
+            for (UpstreamEndpoint endpoint : endpoints) {
+                if (endpoint.isEjected(now) && endpoint.getCircuitBreaker().getState() != CircuitBreaker.State.OPEN) {
+                    available.add(endpoint);
+                }
+            }
+        }
+
+        while (!available.isEmpty()) {
+            UpstreamEndpoint candidate = strategy == Strategy.LEAST_OUTSTANDING
+                    ? leastOutstanding(available) : powerOfTwoChoices(available);
+            CircuitBreaker circuitBreaker = candidate.getCircuitBreaker();
+            if (circuitBreaker.tryAcquirePermission()) {
+                return new Choice(candidate, circuitBreaker, true);
+            }
+            // half-open with all probe permits taken
+            available.remove(candidate);
+        }
+        UpstreamEndpoint fallback = leastOutstanding(endpoints);
+        log.debug("No upstream endpoint available, using {}", fallback);
+        return new Choice(fallback, fallback.getCircuitBreaker(), false);
+    }
+
+    private void onSuccess(Choice choice, long start) {
+        long elapsed = System.nanoTime() - start;
+        choice.endpoint().onSuccess(elapsed);
+        if (choice.permitted()) {
+            choice.circuitBreaker().onSuccess(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void onError(Choice choice, long start, Throwable failure) {
+        long elapsed = System.nanoTime() - start;
+        UpstreamEndpoint endpoint = choice.endpoint();
+        if (choice.permitted()) {
+            choice.circuitBreaker().onError(elapsed, TimeUnit.NANOSECONDS, failure);
+        }
+        if (endpoint.onError(elapsed, consecutiveErrors, baseEjectionMillis, maxEjectionMillis,
+                System.currentTimeMillis())) {
+            log.warn("Ejected upstream endpoint {} after {} consecutive failures", endpoint, consecutiveErrors);
+            ejections.get(endpoint).increment();
+        }
+    }
+
+    private static UpstreamEndpoint powerOfTwoChoices(List<UpstreamEndpoint> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamEndpoint a = candidates.get(first);
+        UpstreamEndpoint b = candidates.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    private static UpstreamEndpoint leastOutstanding(List<UpstreamEndpoint> candidates) {
+        // start at a random offset so that ties do not always go to the first endpoint
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        UpstreamEndpoint best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            UpstreamEndpoint candidate = candidates.get((offset + i) % candidates.size());
+            if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private void registerMeters(UpstreamEndpoint endpoint) {
+        Gauge.builder("travel.upstream.endpoint.outstanding", endpoint, UpstreamEndpoint::getOutstanding)
+                .description("Requests in flight to the upstream endpoint")
+                .tag("endpoint", endpoint.getBaseUrl())
+                .register(meterRegistry);
+        Gauge.builder("travel.upstream.endpoint.latency", endpoint, UpstreamEndpoint::getLatencyMillis)
+                .description("Decaying peak latency average of the upstream endpoint")
+                .tag("endpoint", endpoint.getBaseUrl())
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("travel.upstream.endpoint.ejected", endpoint,
+                        e -> e.isEjected(System.currentTimeMillis()) ? 1 : 0)
+                .tag("endpoint", endpoint.getBaseUrl())
+                .register(meterRegistry);
+        ejections.put(endpoint, Counter.builder("travel.upstream.endpoint.ejections")
+                .description("Times an upstream endpoint was ejected after consecutive failures")
+                .tag("endpoint", endpoint.getBaseUrl())
+                .register(meterRegistry));
+    }
+
+    record Choice(UpstreamEndpoint endpoint, CircuitBreaker circuitBreaker, boolean permitted) {
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
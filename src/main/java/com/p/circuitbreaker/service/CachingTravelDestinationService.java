@@ -0,0 +1,157 @@
+package com.p.circuitbreaker.service;
+
+import com.p.circuitbreaker.cache.AttractionsCache;
+import com.p.circuitbreaker.cache.DestinationSnapshotStore;
+import com.p.circuitbreaker.cache.NegativeDestinationCache;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.jfr.RateLimiterEvent;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.OperationBulkheads;
+import com.p.circuitbreaker.resilience.RecoveryRamp;
+import com.p.circuitbreaker.timing.Stage;
+import com.p.circuitbreaker.timing.StageTimer;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Front for {@link TravelDestinationServiceImpl} that answers lookups from local state when possible.
+ * It sits outside the circuit breaker and rate limiter aspects, so locally served lookups neither count
+ * towards the breaker's sliding window nor consume rate limiter permits. Calls that do reach the delegate
+ * run inside the operation's bulkhead. Destinations the upstream recently answered 404 for are rejected
+ * without a call, and while the upstream ramps back up after an outage the lookups the {@link RecoveryRamp}
+ * turns away get the fallback.
+ */
+@Service
+@Primary
+public class CachingTravelDestinationService implements TravelDestinationService {
+
+    private static final String TRAVEL_ATTRACTIONS_LIMITER = "travelAttractions";
+
+    private final TravelDestinationServiceImpl delegate;
+    private final DestinationSnapshotStore snapshotStore;
+    private final AttractionsCache attractionsCache;
+    private final NegativeDestinationCache negativeCache;
+    private final OperationBulkheads bulkheads;
+    private final RecoveryRamp recoveryRamp;
+
+    public CachingTravelDestinationService(TravelDestinationServiceImpl delegate, DestinationSnapshotStore snapshotStore,
+                                           AttractionsCache attractionsCache, NegativeDestinationCache negativeCache,
+                                           OperationBulkheads bulkheads, RecoveryRamp recoveryRamp) {
+        this.delegate = delegate;
+        this.snapshotStore = snapshotStore;
+        this.attractionsCache = attractionsCache;
+        this.negativeCache = negativeCache;
+        this.bulkheads = bulkheads;
+        this.recoveryRamp = recoveryRamp;
+    }
+
+    @Override
+    public TravelDestination getDestinationDetails(String destinationName, String country) {
+        if (!StringUtils.hasText(destinationName) || !StringUtils.hasText(country)) {
+            return delegate.getDestinationDetails(destinationName, country);
+        }
+
+        StageTimer.enter(Stage.CACHE);
+        TravelDestination snapshot = snapshotStore.find(destinationName, country);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        rejectKnownMissing(OperationBulkheads.TRAVEL_DESTINATION, destinationName, country);
+        try {
+            recoveryRamp.acquirePermission();
+        } catch (CallNotPermittedException e) {
+            return delegate.fallbackTravelDestination(destinationName, country, e);
+        }
+
+        TravelDestination destination;
+        StageTimer.enter(Stage.RESILIENCE);
+        try {
+            destination = bulkheads.execute(OperationBulkheads.TRAVEL_DESTINATION,
+                    () -> delegate.getDestinationDetails(destinationName, country));
+        } catch (DestinationNotFoundException e) {
+            negativeCache.recordMissing(OperationBulkheads.TRAVEL_DESTINATION, destinationName, country);
+            throw e;
+        } finally {
+            StageTimer.enter(Stage.CACHE);
+        }
+        if (destination != null && !TravelDestinationServiceImpl.isFallback(destination)) {
+            snapshotStore.record(destinationName, country, destination);
+        }
+        return destination;
+    }
+
+    /**
+     * Cached attractions are returned without touching the rate limiter or the recovery ramp; only actual upstream
+     * fetches take a permit.
+     */
+    @Override
+    public String getAttractions(String destinationName, String country) {
+        if (!StringUtils.hasText(destinationName) || !StringUtils.hasText(country)) {
+            return delegate.getAttractions(destinationName, country);
+        }
+
+        StageTimer.enter(Stage.CACHE);
+        // A destination that does not exist has no attractions either; the reverse does not hold.
+        rejectKnownMissing(OperationBulkheads.TRAVEL_DESTINATION, destinationName, country);
+        rejectKnownMissing(OperationBulkheads.TRAVEL_ATTRACTIONS, destinationName, country);
+
+        try {
+            return attractionsCache.get(destinationName, country, () -> {
+                // the attractions come from the same upstream, so they ramp back up with the details
+                recoveryRamp.acquirePermission();
+                StageTimer.enter(Stage.RESILIENCE);
+                try {
+                    return bulkheads.execute(OperationBulkheads.TRAVEL_ATTRACTIONS,
+                            () -> rateLimited(destinationName, country).block());
+                } finally {
+                    StageTimer.enter(Stage.CACHE);
+                }
+            });
+        } catch (RequestNotPermitted e) {
+            return delegate.fallbackRateLimit(destinationName, country, e);
+        } catch (CallNotPermittedException e) {
+            return delegate.fallbackAttractions(destinationName, country, e);
+        } catch (DestinationNotFoundException e) {
+            negativeCache.recordMissing(OperationBulkheads.TRAVEL_ATTRACTIONS, destinationName, country);
+            throw e;
+        }
+    }
+
+    /**
+     * Ask the rate-limited delegate for the fetch, recording how long the permit took as a JFR event. The wait is
+     * timed from subscription, when the fetch actually asks for its permit, to the moment the rate limiter let the
+     * subscription through or turned it away.
+     */
+    private Mono<String> rateLimited(String destinationName, String country) {
+        return Mono.defer(() -> {
+            RateLimiterEvent event = new RateLimiterEvent();
+            event.begin();
+            Mono<String> fetch;
+            try {
+                fetch = delegate.fetchAttractions(destinationName, country);
+            } catch (RequestNotPermitted e) {
+                RateLimiterEvent.commit(event, TRAVEL_ATTRACTIONS_LIMITER, destinationName, country, false);
+                return Mono.error(e);
+            }
+            // a rate limiter applied on subscribe passes the subscription on once it has decided
+            AtomicBoolean denied = new AtomicBoolean();
+            return fetch
+                    .doOnSubscribe(subscription -> event.end())
+                    .doOnError(RequestNotPermitted.class, e -> denied.set(true))
+                    .doFinally(signal -> RateLimiterEvent.record(event, TRAVEL_ATTRACTIONS_LIMITER,
+                            destinationName, country, !denied.get()));
+        });
+    }
+
+    private void rejectKnownMissing(String operation, String destinationName, String country) {
+        if (negativeCache.isKnownMissing(operation, destinationName, country)) {
+            throw new DestinationNotFoundException("Destination not found: " + destinationName + " in " + country);
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.p.circuitbreaker.service;
 
+import com.p.circuitbreaker.deadline.Deadline;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
 import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.exception.UpstreamException;
+import com.p.circuitbreaker.jfr.FallbackEvent;
+import com.p.circuitbreaker.logging.LogSampler;
 import com.p.circuitbreaker.model.TravelDestination;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import io.github.resilience4j.retry.annotation.Retry;
 import jakarta.annotation.PostConstruct;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -24,34 +32,49 @@ import java.time.Duration;
 @Service
 public class TravelDestinationServiceImpl implements TravelDestinationService {
 
-    private static final Logger log = LogManager.getLogger(TravelDestinationServiceImpl.class);
+    private static final Logger log = LoggerFactory.getLogger(TravelDestinationServiceImpl.class);
     private static final String NO_DETAILS_AVAILABLE = "No Details Available";
-    private static final Duration TIMEOUT_DURATION = Duration.ofSeconds(10);
+
+    private final LogSampler upstreamLogSampler = LogSampler.perTenSeconds();
+    private final LogSampler fallbackLogSampler = LogSampler.perTenSeconds();
 
     private final WebClient webClient;
     private final RateLimiterRegistry rateLimiterRegistry;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private volatile Duration upstreamTimeout;
 
     public TravelDestinationServiceImpl(WebClient webClient, RateLimiterRegistry rateLimiterRegistry,
-                                      CircuitBreakerRegistry circuitBreakerRegistry) {
+                                      CircuitBreakerRegistry circuitBreakerRegistry,
+                                      @Value("${travel.upstream.timeout:10s}") Duration upstreamTimeout) {
         this.webClient = webClient;
         this.rateLimiterRegistry = rateLimiterRegistry;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.upstreamTimeout = upstreamTimeout;
     }
 
     @Override
     @CircuitBreaker(name = "travelDestination", fallbackMethod = "fallbackTravelDestination")
+    @Retry(name = "travelDestination")
     public TravelDestination getDestinationDetails(String destinationName, String country) {
         log.info("Fetching destination details for: {} in country: {}", destinationName, country);
         
         validateInputParameters(destinationName, country);
 
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException("Deadline passed before looking up " + destinationName + " in " + country);
+        }
+
         try {
-            return webClient.get()
-                    .uri("/travelDestination?destinationId={destinationId}&country={country}", destinationName, country)
+            WebClient.RequestHeadersSpec<?> request = webClient.get()
+                    .uri("/travelDestination?destinationId={destinationId}&country={country}", destinationName, country);
+            if (deadline != null) {
+                request = request.header(Deadline.HEADER, String.valueOf(deadline.remaining().toMillis()));
+            }
+            return request
                     .retrieve()
                     .bodyToMono(TravelDestination.class)
-                    .timeout(TIMEOUT_DURATION)
+                    .timeout(timeout(deadline))
                     .doOnSuccess(destination -> {
                         if (destination != null) {
                             log.info("Successfully retrieved destination: {}", destination.getName());
@@ -59,21 +82,27 @@ public class TravelDestinationServiceImpl implements TravelDestinationService {
                             log.warn("Destination not found for: {} in country: {}", destinationName, country);
                         }
                     })
-                    .doOnError(error -> log.error("Error retrieving destination: {}", error.getMessage()))
                     .block();
         } catch (WebClientResponseException.NotFound e) {
             log.warn("Destination not found: {} in country: {}", destinationName, country);
             throw new DestinationNotFoundException("Destination not found: " + destinationName + " in " + country);
         } catch (Exception e) {
-            log.error("Unexpected error while retrieving destination: {} in country: {}", destinationName, country, e);
-            throw new RuntimeException("Failed to retrieve destination details", e);
+            if (deadline != null && deadline.isExpired()) {
+                log.warn("Deadline passed while retrieving destination: {} in country: {}", destinationName, country);
+                throw new DeadlineExceededException("Deadline passed while looking up " + destinationName + " in " + country);
+            }
+            throw logged(UpstreamException.from(e), e, destinationName, country);
         }
     }
 
     public TravelDestination fallbackTravelDestination(String destinationName, String country, Exception ex) {
-        log.warn("Circuit breaker fallback triggered for destination: {} in country: {}. Error: {}", 
-                destinationName, country, ex.getMessage());
-        
+        long suppressed = fallbackLogSampler.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Circuit breaker fallback triggered for destination: {} in country: {}. Error: {}{}",
+                    destinationName, country, ex.getMessage(), LogSampler.summary(suppressed));
+        }
+        FallbackEvent.record("travelDestination", destinationName, country, ex);
+
         return TravelDestination.builder()
                 .destinationId(NO_DETAILS_AVAILABLE)
                 .name(destinationName)
@@ -86,30 +115,125 @@ public class TravelDestinationServiceImpl implements TravelDestinationService {
                 .build();
     }
 
+    /**
+     * A destination that does not exist is an answer, not an outage; let the caller report it as not found
+     * instead of serving the placeholder.
+     */
+    public TravelDestination fallbackTravelDestination(String destinationName, String country, DestinationNotFoundException ex) {
+        throw ex;
+    }
+
+    /**
+     * The client has already given up, so a placeholder would go unread; let the caller answer with a timeout.
+     */
+    public TravelDestination fallbackTravelDestination(String destinationName, String country, DeadlineExceededException ex) {
+        throw ex;
+    }
+
+    /**
+     * @return whether the destination is the placeholder served by {@link #fallbackTravelDestination}
+     */
+    public static boolean isFallback(TravelDestination destination) {
+        return NO_DETAILS_AVAILABLE.equals(destination.getDestinationId());
+    }
+
     @Override
     @RateLimiter(name = "travelAttractions", fallbackMethod = "fallbackRateLimit")
     public String getAttractions(String destinationName, String country) {
+        return fetchAttractions(destinationName, country).block();
+    }
+
+    /**
+     * Fetch attractions from the upstream. The attractions endpoint is synchronous: callers block on the returned
+     * {@link Mono} on the request thread, which is bounded by the upstream timeout and the request deadline. Unlike
+     * {@link #getAttractions} there is no fallback: a call turned away by the rate limiter fails with
+     * {@link RequestNotPermitted}, so callers can tell a real answer from the rate-limit message.
+     */
+    @RateLimiter(name = "travelAttractions")
+    public Mono<String> fetchAttractions(String destinationName, String country) {
         log.info("Fetching attractions for: {} in country: {}", destinationName, country);
-        
+
         validateInputParameters(destinationName, country);
 
-        // Simulate external service call
-        return destinationName + " is renowned for its stunning alpine scenery, abundant wildlife, " +
-               "and iconic trails such as Trail Ridge Road and Bear Lake. " +
-               "The destination offers breathtaking views and unforgettable experiences for nature enthusiasts.";
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            return Mono.error(new DeadlineExceededException(
+                    "Deadline passed before fetching attractions for " + destinationName + " in " + country));
+        }
+
+        WebClient.RequestHeadersSpec<?> request = webClient.get()
+                .uri("/travelAttractions?destinationId={destinationId}&country={country}", destinationName, country);
+        if (deadline != null) {
+            request = request.header(Deadline.HEADER, String.valueOf(deadline.remaining().toMillis()));
+        }
+        return request
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(timeout(deadline))
+                .onErrorMap(WebClientResponseException.NotFound.class, e -> new DestinationNotFoundException(
+                        "Attractions not found: " + destinationName + " in " + country))
+                .onErrorMap(e -> !(e instanceof DeadlineExceededException) && !(e instanceof DestinationNotFoundException),
+                        e -> deadline != null && deadline.isExpired()
+                                ? new DeadlineExceededException(
+                                        "Deadline passed while fetching attractions for " + destinationName + " in " + country)
+                                : logged(UpstreamException.from(e), e, destinationName, country));
     }
 
     public String fallbackRateLimit(String destinationName, String country, RequestNotPermitted requestNotPermitted) {
         log.warn("Rate limiter fallback triggered for destination: {} in country: {}", destinationName, country);
+        FallbackEvent.record("travelAttractions", destinationName, country, requestNotPermitted);
         return "API rate limit exceeded. Please try again in one minute to check the attractions at " + destinationName;
     }
 
+    public String fallbackAttractions(String destinationName, String country, CallNotPermittedException callNotPermitted) {
+        log.warn("Attractions fallback triggered for destination: {} in country: {}", destinationName, country);
+        FallbackEvent.record("travelAttractions", destinationName, country, callNotPermitted);
+        return "Attractions are temporarily unavailable. Please try again shortly to check the attractions at " + destinationName;
+    }
+
     @PostConstruct
     public void postConstruct() {
         setupRateLimiterEventPublisher();
         setupCircuitBreakerEventPublisher();
     }
 
+    /**
+     * Log an upstream failure, sampled so that an outage does not log every failing request. Only failures of an
+     * unknown kind are logged with their stack trace.
+     */
+    private UpstreamException logged(UpstreamException failure, Throwable cause, String destinationName, String country) {
+        long suppressed = upstreamLogSampler.tryAcquire();
+        if (suppressed >= 0) {
+            if (failure.isExpected()) {
+                log.warn("Upstream call failed for: {} in country: {}: {}{}",
+                        destinationName, country, cause.getMessage(), LogSampler.summary(suppressed));
+            } else {
+                log.error("Unexpected error while calling the upstream for: {} in country: {}{}",
+                        destinationName, country, LogSampler.summary(suppressed), cause);
+            }
+        }
+        return failure;
+    }
+
+    private Duration timeout(Deadline deadline) {
+        Duration timeout = upstreamTimeout;
+        return deadline != null ? deadline.cap(timeout) : timeout;
+    }
+
+    public Duration getUpstreamTimeout() {
+        return upstreamTimeout;
+    }
+
+    /**
+     * Change the timeout of upstream calls; calls already in flight keep the timeout they started with.
+     */
+    public void setUpstreamTimeout(Duration upstreamTimeout) {
+        if (upstreamTimeout.isNegative() || upstreamTimeout.isZero()) {
+            throw new IllegalArgumentException("Upstream timeout must be positive");
+        }
+        this.upstreamTimeout = upstreamTimeout;
+    }
+
     private void validateInputParameters(String destinationName, String country) {
         if (!StringUtils.hasText(destinationName)) {
             throw new IllegalArgumentException("Destination name is required and cannot be null or empty");
@@ -124,23 +248,29 @@ public class TravelDestinationServiceImpl implements TravelDestinationService {
                 .rateLimiter("travelAttractions")
                 .getEventPublisher();
         
-        rateLimitEventPublisher.onEvent(event -> 
-            log.info("Rate limiter event: {}", event.getEventType()));
+        // permits are acquired on every call, so successful acquisitions are only logged at debug level
         rateLimitEventPublisher.onSuccess(event -> 
-            log.info("Rate limiter success: {}", event.getEventType()));
+            log.debug("Rate limiter success: {}", event.getEventType()));
         rateLimitEventPublisher.onFailure(event -> 
             log.warn("Rate limiter failure: {}", event.getEventType()));
     }
 
     private void setupCircuitBreakerEventPublisher() {
-        var circuitBreakerEventPublisher = circuitBreakerRegistry
-                .circuitBreaker("travelDestination")
-                .getEventPublisher();
-        
-        circuitBreakerEventPublisher.onEvent(event -> 
-            log.info("Circuit breaker event: {}", event.getEventType()));
+        subscribeCircuitBreakerEvents(circuitBreakerRegistry.circuitBreaker("travelDestination").getEventPublisher());
+        // a reconfigured breaker is a new instance, so follow it
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event -> {
+            if ("travelDestination".equals(event.getNewEntry().getName())) {
+                subscribeCircuitBreakerEvents(event.getNewEntry().getEventPublisher());
+            }
+        });
+    }
+
+    private void subscribeCircuitBreakerEvents(
+            io.github.resilience4j.circuitbreaker.CircuitBreaker.EventPublisher circuitBreakerEventPublisher) {
+        circuitBreakerEventPublisher.onStateTransition(event -> 
+            log.info("Circuit breaker state transition: {}", event.getStateTransition()));
         circuitBreakerEventPublisher.onSuccess(event -> 
-            log.info("Circuit breaker success: {}", event.getEventType()));
+            log.debug("Circuit breaker success: {}", event.getEventType()));
         circuitBreakerEventPublisher.onFailureRateExceeded(event -> 
             log.warn("Circuit breaker failure rate exceeded: {}", event.getEventType()));
         circuitBreakerEventPublisher.onSlowCallRateExceeded(event -> 
@@ -0,0 +1,37 @@
+package com.p.circuitbreaker.timing;
+
+/**
+ * Stages of serving a request, in the order a lookup that reaches the upstream passes through them. The name is the
+ * metric name used in the {@code Server-Timing} header and in exported traces.
+ */
+public enum Stage {
+
+    /** Servlet filters, handler mapping and argument binding. */
+    REQUEST("request"),
+    /** Parameter validation and the controller. */
+    HANDLER("handler"),
+    /** Snapshot, negative cache and attractions cache lookups. */
+    CACHE("cache"),
+    /** Bulkhead, circuit breaker, retry and rate limiter, including retry backoff. */
+    RESILIENCE("resilience"),
+    /** Waiting for a pooled upstream connection. */
+    POOL("pool"),
+    /** Upstream I/O until the response headers arrive. */
+    UPSTREAM("upstream"),
+    /** Reading and deserializing the upstream response body. */
+    DECODE("decode"),
+    /** Serializing and writing the response. */
+    SERIALIZE("serialize");
+
+    static final Stage[] VALUES = values();
+
+    private final String metricName;
+
+    Stage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,139 @@
+package com.p.circuitbreaker.timing;
+
+import reactor.util.context.ContextView;
+
+import java.util.Locale;
+
+/**
+ * Splits the time spent on one request into {@link Stage stages} on the monotonic clock. The request is always in
+ * exactly one stage; {@link #mark} closes it and opens the next, and a stage that is entered again (a retried
+ * upstream call) accumulates. The timer of the request being served is bound to the handling thread by
+ * {@link StageTimingFilter}; when timing is disabled there is no timer and the static helpers do nothing.
+ * <p>
+ * Upstream stages are marked from the I/O threads while the handling thread waits for them, so every access is
+ * synchronized.
+ */
+public final class StageTimer {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final ThreadLocal<StageTimer> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final long startEpochMillis;
+    private final long[] stageNanos = new long[Stage.VALUES.length];
+    private Stage stage;
+    private long stageStartNanos;
+    private long endNanos = -1;
+
+    private StageTimer(Stage first) {
+        this.startNanos = System.nanoTime();
+        this.startEpochMillis = System.currentTimeMillis();
+        this.stage = first;
+        this.stageStartNanos = startNanos;
+    }
+
+    public static StageTimer start(Stage first) {
+        return new StageTimer(first);
+    }
+
+    /**
+     * @return the timer of the request handled by the current thread, or {@code null} when timing is disabled
+     */
+    public static StageTimer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(StageTimer timer) {
+        if (timer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timer);
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Move the current thread's request into the given stage, if it is being timed.
+     */
+    public static void enter(Stage stage) {
+        StageTimer timer = CURRENT.get();
+        if (timer != null) {
+            timer.mark(stage);
+        }
+    }
+
+    /**
+     * Move the request whose timer was put into the reactive context into the given stage.
+     */
+    public static void enter(ContextView context, Stage stage) {
+        StageTimer timer = context.getOrDefault(StageTimer.class, null);
+        if (timer != null) {
+            timer.mark(stage);
+        }
+    }
+
+    public synchronized void mark(Stage next) {
+        if (endNanos >= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - stageStartNanos;
+        stage = next;
+        stageStartNanos = now;
+    }
+
+    /**
+     * Close the current stage; later marks are ignored.
+     */
+    public synchronized void stop() {
+        if (endNanos < 0) {
+            mark(stage);
+            endNanos = stageStartNanos;
+        }
+    }
+
+    /**
+     * @return the time spent in the stage so far, including the current stage up to now
+     */
+    public synchronized long elapsedNanos(Stage of) {
+        long elapsed = stageNanos[of.ordinal()];
+        if (endNanos < 0 && of == stage) {
+            elapsed += System.nanoTime() - stageStartNanos;
+        }
+        return elapsed;
+    }
+
+    public synchronized long totalNanos() {
+        return (endNanos >= 0 ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * @return the stages the request has spent time in so far and the total, as a {@code Server-Timing} header value
+     */
+    public synchronized String serverTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Stage each : Stage.VALUES) {
+            long elapsed = elapsedNanos(each);
+            if (elapsed > 0) {
+                appendMetric(header, each.metricName(), elapsed);
+            }
+        }
+        appendMetric(header, "total", totalNanos());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,29 @@
+package com.p.circuitbreaker.timing;
+
+import io.github.resilience4j.core.ContextPropagator;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Carries the request {@link StageTimer} onto thread-pool bulkhead workers
+ * ({@code resilience4j.thread-pool-bulkhead.instances.*.context-propagators}).
+ */
+public class StageTimingContextPropagator implements ContextPropagator<StageTimer> {
+
+    @Override
+    public Supplier<Optional<StageTimer>> retrieve() {
+        return () -> Optional.ofNullable(StageTimer.current());
+    }
+
+    @Override
+    public Consumer<Optional<StageTimer>> copy() {
+        return timer -> StageTimer.set(timer.orElse(null));
+    }
+
+    @Override
+    public Consumer<Optional<StageTimer>> clear() {
+        return timer -> StageTimer.clear();
+    }
+}
@@ -0,0 +1,27 @@
+package com.p.circuitbreaker.timing;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Starts the {@link Stage#POOL} stage when an upstream call is subscribed and hands the caller's timer to the
+ * HTTP client through the reactive context, where the request and response hooks mark the upstream stages.
+ */
+public class StageTimingExchangeFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            StageTimer timer = StageTimer.current();
+            if (timer == null) {
+                return next.exchange(request);
+            }
+            timer.mark(Stage.POOL);
+            return next.exchange(request).contextWrite(Context.of(StageTimer.class, timer));
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package com.p.circuitbreaker.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every request by {@link Stage} and binds its {@link StageTimer} to the handling thread. When the request is
+ * done the stages are recorded in the {@code travel.request.stage} timers and, for a sample of requests plus every
+ * request slower than the slow threshold, exported as a {@link StageTrace}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StageTimingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final StageTraceExporter exporter;
+    private final Timer[] stageTimers = new Timer[Stage.VALUES.length];
+    private final Timer totalTimer;
+
+    public StageTimingFilter(@Value("${travel.timing.enabled:true}") boolean enabled,
+                             @Value("${travel.timing.trace.sample-rate:0.01}") double sampleRate,
+                             @Value("${travel.timing.trace.slow-threshold:1s}") Duration slowThreshold,
+                             StageTraceExporter exporter,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.exporter = exporter;
+        for (Stage stage : Stage.VALUES) {
+            stageTimers[stage.ordinal()] = stageTimer(stage.metricName(), meterRegistry);
+        }
+        this.totalTimer = stageTimer("total", meterRegistry);
+    }
+
+    private static Timer stageTimer(String stage, MeterRegistry meterRegistry) {
+        return Timer.builder("travel.request.stage")
+                .description("Time requests spent in each stage of serving them")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        StageTimer timer = StageTimer.start(Stage.REQUEST);
+        StageTimer.set(timer);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StageTimer.clear();
+            timer.stop();
+            if (!response.isCommitted() && response.getHeader(StageTimer.SERVER_TIMING_HEADER) == null) {
+                response.setHeader(StageTimer.SERVER_TIMING_HEADER, timer.serverTiming());
+            }
+            record(timer, request, response);
+        }
+    }
+
+    private void record(StageTimer timer, HttpServletRequest request, HttpServletResponse response) {
+        for (Stage stage : Stage.VALUES) {
+            long elapsed = timer.elapsedNanos(stage);
+            if (elapsed > 0) {
+                stageTimers[stage.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+        long total = timer.totalNanos();
+        totalTimer.record(total, TimeUnit.NANOSECONDS);
+
+        if (!exporter.isEnabled()
+                || (total < slowThresholdNanos && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        Map<String, Long> stageMicros = new LinkedHashMap<>();
+        for (Stage stage : Stage.VALUES) {
+            long elapsed = timer.elapsedNanos(stage);
+            if (elapsed > 0) {
+                stageMicros.put(stage.metricName(), TimeUnit.NANOSECONDS.toMicros(elapsed));
+            }
+        }
+        exporter.export(new StageTrace(traceId(), request.getMethod(), request.getRequestURI(), response.getStatus(),
+                timer.getStartEpochMillis(), TimeUnit.NANOSECONDS.toMicros(total), stageMicros));
+    }
+
+    private static String traceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return HexFormat.of().toHexDigits(random.nextLong()) + HexFormat.of().toHexDigits(random.nextLong());
+    }
+}
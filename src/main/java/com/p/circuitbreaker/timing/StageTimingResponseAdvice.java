@@ -0,0 +1,35 @@
+package com.p.circuitbreaker.timing;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Enters {@link Stage#SERIALIZE} just before a response body is written and reports the stages so far in the
+ * {@value StageTimer#SERVER_TIMING_HEADER} header, the last point at which headers can still be added.
+ * Serialization itself only shows up in the stage metrics and traces.
+ */
+@ControllerAdvice
+public class StageTimingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        StageTimer timer = StageTimer.current();
+        if (timer != null) {
+            timer.mark(Stage.SERIALIZE);
+            response.getHeaders().set(StageTimer.SERVER_TIMING_HEADER, timer.serverTiming());
+        }
+        return body;
+    }
+}
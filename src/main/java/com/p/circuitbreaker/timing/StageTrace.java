@@ -0,0 +1,10 @@
+package com.p.circuitbreaker.timing;
+
+import java.util.Map;
+
+/**
+ * One sampled request with its stage breakdown, as exported by {@link StageTraceExporter}.
+ */
+public record StageTrace(String traceId, String method, String path, int status, long startEpochMillis,
+                         long durationMicros, Map<String, Long> stageMicros) {
+}
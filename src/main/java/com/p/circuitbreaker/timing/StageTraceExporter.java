@@ -0,0 +1,181 @@
+package com.p.circuitbreaker.timing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ships sampled {@link StageTrace traces} off the request path. Requests only enqueue; a background thread writes
+ * batches as JSON lines to a local file, or POSTs them as a JSON array to a collector endpoint. When the queue is
+ * full new traces are dropped rather than slowing requests down.
+ */
+@Component
+public class StageTraceExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(StageTraceExporter.class);
+
+    private final Path file;
+    private final URI endpoint;
+    private final int batchSize;
+    private final BlockingQueue<StageTrace> queue;
+    private final ObjectMapper objectMapper;
+    private final Counter exported;
+    private final Counter dropped;
+
+    private volatile Thread worker;
+    private HttpClient httpClient;
+
+    public StageTraceExporter(@Value("${travel.timing.trace.file:}") String file,
+                              @Value("${travel.timing.trace.endpoint:}") String endpoint,
+                              @Value("${travel.timing.trace.queue-size:1000}") int queueSize,
+                              @Value("${travel.timing.trace.batch-size:100}") int batchSize,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.file = StringUtils.hasText(file) ? Path.of(file.trim()) : null;
+        this.endpoint = StringUtils.hasText(endpoint) ? URI.create(endpoint.trim()) : null;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.objectMapper = objectMapper;
+        this.exported = Counter.builder("travel.timing.traces").tag("result", "exported").register(meterRegistry);
+        this.dropped = Counter.builder("travel.timing.traces").tag("result", "dropped").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (endpoint != null) {
+            httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        }
+        Thread thread = new Thread(this::run, "stage-trace-exporter");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("Exporting sampled request traces to {}", endpoint != null ? endpoint : file);
+    }
+
+    /**
+     * Stop the exporter, exporting what is still queued. The worker notices within its poll timeout; it is not
+     * interrupted, since an interrupt during a file append or post loses the batch being written.
+     */
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
+        worker = null;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return file != null || endpoint != null;
+    }
+
+    /**
+     * Queue the trace for export without blocking.
+     */
+    public void export(StageTrace trace) {
+        if (!queue.offer(trace)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<StageTrace> batch = new ArrayList<>(batchSize);
+        while (worker != null) {
+            try {
+                StageTrace first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        // write whatever is left on shutdown
+        queue.drainTo(batch);
+        flush(batch);
+    }
+
+    void flush(List<StageTrace> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (endpoint != null) {
+                post(batch);
+            } else {
+                append(batch);
+            }
+            exported.increment(batch.size());
+        } catch (IOException e) {
+            dropped.increment(batch.size());
+            log.warn("Could not export {} traces: {}", batch.size(), e.getMessage());
+        } catch (InterruptedException e) {
+            dropped.increment(batch.size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(List<StageTrace> batch) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (StageTrace trace : batch) {
+                writer.write(toJson(trace));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private void post(List<StageTrace> batch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() >= 300) {
+            throw new IOException("Collector answered " + response.statusCode());
+        }
+    }
+
+    private String toJson(StageTrace trace) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(trace);
+    }
+}
@@ -0,0 +1,232 @@
+package com.p.circuitbreaker.warmup;
+
+import com.p.circuitbreaker.cache.DestinationSnapshotStore;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.service.TravelDestinationServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the instance up before its readiness probe reports UP: pre-establishes upstream connections,
+ * prefetches the configured hot destinations and drives synthetic requests through the full
+ * HTTP → controller → service → serialization path so that it is JIT compiled before real traffic arrives.
+ * The whole phase is bounded by a time budget; once it is spent the instance reports ready regardless.
+ * Synthetic requests carry the {@link #SYNTHETIC_REQUEST_HEADER} so that hot key tracking and traffic capture
+ * leave them out.
+ */
+@Component
+public class StartupWarmUp implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    /**
+     * Marks a request as generated by the warm-up rather than sent by a client.
+     */
+    public static final String SYNTHETIC_REQUEST_HEADER = "X-Warm-Up";
+
+    enum Phase {
+        PENDING, CONNECTIONS, PREFETCH, SYNTHETIC_REQUESTS, COMPLETE, BUDGET_EXHAUSTED, DISABLED
+    }
+
+    private final boolean enabled;
+    private final int upstreamConnections;
+    private final String upstreamPath;
+    private final List<String> destinations;
+    private final int syntheticRequests;
+    private final Duration timeBudget;
+    private final WebClient webClient;
+    private final TravelDestinationService travelDestinationService;
+    private final DestinationSnapshotStore snapshotStore;
+    private final Environment environment;
+
+    private final AtomicInteger connectionsOpened = new AtomicInteger();
+    private final AtomicInteger prefetched = new AtomicInteger();
+    private final AtomicInteger syntheticCompleted = new AtomicInteger();
+    private volatile Phase phase;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public StartupWarmUp(@Value("${travel.warmup.enabled:true}") boolean enabled,
+                         @Value("${travel.warmup.upstream-connections:8}") int upstreamConnections,
+                         @Value("${travel.warmup.upstream-path:/}") String upstreamPath,
+                         @Value("${travel.warmup.destinations:}") List<String> destinations,
+                         @Value("${travel.warmup.synthetic-requests:2000}") int syntheticRequests,
+                         @Value("${travel.warmup.time-budget:30s}") Duration timeBudget,
+                         WebClient webClient,
+                         TravelDestinationService travelDestinationService,
+                         DestinationSnapshotStore snapshotStore,
+                         Environment environment) {
+        this.enabled = enabled;
+        this.upstreamConnections = upstreamConnections;
+        this.upstreamPath = upstreamPath;
+        this.destinations = destinations;
+        this.syntheticRequests = syntheticRequests;
+        this.timeBudget = timeBudget;
+        this.webClient = webClient;
+        this.travelDestinationService = travelDestinationService;
+        this.snapshotStore = snapshotStore;
+        this.environment = environment;
+        this.phase = enabled ? Phase.PENDING : Phase.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::run, "startup-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = isReady() ? Health.up() : Health.outOfService();
+        builder.withDetail("phase", phase)
+                .withDetail("upstreamConnections", connectionsOpened.get() + "/" + upstreamConnections)
+                .withDetail("prefetchedDestinations", prefetched.get() + "/" + destinations.size())
+                .withDetail("syntheticRequests", syntheticCompleted.get() + "/" + syntheticRequests);
+        if (startedAt > 0) {
+            long end = finishedAt > 0 ? finishedAt : System.nanoTime();
+            builder.withDetail("elapsedMs", Duration.ofNanos(end - startedAt).toMillis());
+        }
+        return builder.build();
+    }
+
+    boolean isReady() {
+        return phase == Phase.COMPLETE || phase == Phase.BUDGET_EXHAUSTED || phase == Phase.DISABLED;
+    }
+
+    void run() {
+        startedAt = System.nanoTime();
+        long deadline = startedAt + timeBudget.toNanos();
+        log.info("Starting warm-up with a budget of {}", timeBudget);
+        try {
+            phase = Phase.CONNECTIONS;
+            openUpstreamConnections(deadline);
+
+            phase = Phase.PREFETCH;
+            List<String[]> warmKeys = prefetchDestinations(deadline);
+
+            phase = Phase.SYNTHETIC_REQUESTS;
+            sendSyntheticRequests(warmKeys, deadline);
+
+            phase = System.nanoTime() - deadline < 0 ? Phase.COMPLETE : Phase.BUDGET_EXHAUSTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            phase = Phase.BUDGET_EXHAUSTED;
+        } catch (RuntimeException e) {
+            log.warn("Warm-up aborted in phase {}: {}", phase, e.getMessage());
+            phase = Phase.BUDGET_EXHAUSTED;
+        } finally {
+            finishedAt = System.nanoTime();
+            log.info("Warm-up finished: {}", health().getDetails());
+        }
+    }
+
+    private void openUpstreamConnections(long deadline) {
+        if (upstreamConnections <= 0 || isPast(deadline)) {
+            return;
+        }
+        // Concurrent requests force the pool to open one connection each; the response status is irrelevant
+        Flux.range(0, upstreamConnections)
+                .flatMap(i -> webClient.get().uri(upstreamPath)
+                        .exchangeToMono(response -> response.releaseBody()
+                                .doOnSuccess(ignored -> connectionsOpened.incrementAndGet()))
+                        .onErrorResume(error -> Mono.empty()), upstreamConnections)
+                .then()
+                .block(remaining(deadline));
+    }
+
+    private List<String[]> prefetchDestinations(long deadline) {
+        List<String[]> warmKeys = new ArrayList<>();
+        for (String entry : destinations) {
+            if (isPast(deadline)) {
+                break;
+            }
+            String[] key = entry.split(":", 2);
+            if (key.length != 2) {
+                log.warn("Ignoring warm-up destination '{}', expected location:country", entry);
+                continue;
+            }
+            String location = key[0].trim();
+            String country = key[1].trim();
+            try {
+                TravelDestination destination = travelDestinationService.getDestinationDetails(location, country);
+                // an open breaker answers with the placeholder, which warms nothing
+                if (destination != null && !TravelDestinationServiceImpl.isFallback(destination)) {
+                    prefetched.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                log.debug("Prefetch of {} in {} failed: {}", location, country, e.getMessage());
+            }
+            if (snapshotStore.find(location, country) != null) {
+                warmKeys.add(new String[]{location, country});
+            }
+        }
+        return warmKeys;
+    }
+
+    private void sendSyntheticRequests(List<String[]> warmKeys, long deadline) throws InterruptedException {
+        String port = environment.getProperty("local.server.port");
+        if (syntheticRequests <= 0 || port == null) {
+            return;
+        }
+        // Only keys answered locally are replayed, so synthetic traffic never reaches the upstream
+        List<URI> uris = new ArrayList<>();
+        for (String[] key : warmKeys) {
+            uris.add(UriComponentsBuilder.fromHttpUrl("http://localhost:" + port + "/api/v1/destinations/details")
+                    .queryParam("location", key[0])
+                    .queryParam("country", key[1])
+                    .encode().build().toUri());
+        }
+        if (uris.isEmpty()) {
+            uris.add(URI.create("http://localhost:" + port + "/api/v1/destinations/health"));
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        for (int i = 0; i < syntheticRequests && !isPast(deadline); i++) {
+            HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                    .header("Accept-Encoding", "gzip")
+                    .header(SYNTHETIC_REQUEST_HEADER, "true")
+                    .timeout(remaining(deadline))
+                    .build();
+            try {
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+                syntheticCompleted.incrementAndGet();
+            } catch (IOException e) {
+                log.debug("Synthetic warm-up request failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isPast(long deadline) {
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofNanos(Math.max(1, deadline - System.nanoTime()));
+    }
+}
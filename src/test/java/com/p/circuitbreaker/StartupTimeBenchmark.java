@@ -0,0 +1,177 @@
+package com.p.circuitbreaker;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Measures time-to-first-request of the packaged application with and without the fast-startup options:
+ * the lazy-initialization profile, AOT-processed bean definitions and an AppCDS archive from a training run.
+ * <p>
+ * Package first, then run the benchmark against the jar:
+ * <pre>
+ * mvn -Pfast-startup -DskipTests package
+ * mvn -Pbenchmark test -Dtest=StartupTimeBenchmark
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Startup Time Benchmark")
+class StartupTimeBenchmark {
+
+    private static final int RUNS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String AOT_INITIALIZER =
+            "BOOT-INF/classes/com/p/circuitbreaker/SpringBootCircuitbreakerApplication__ApplicationContextInitializer.class";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @Test
+    @DisplayName("Time to first request for each startup mode")
+    void measureTimeToFirstRequest() throws Exception {
+        Path jar = packagedJar();
+        Assumptions.assumeTrue(jar != null, "Run mvn -Pfast-startup -DskipTests package before this benchmark");
+        Path workDir = Path.of("target", "startup-benchmark");
+        Path application = extract(jar, workDir);
+        boolean aot = containsAotInitializer(jar);
+
+        List<String> lazy = List.of("-Dspring.profiles.active=fast-startup");
+        List<String> aotEnabled = List.of("-Dspring.aot.enabled=true");
+        List<String> all = new ArrayList<>(lazy);
+
+        report("baseline", application, List.of());
+        report("lazy", application, lazy);
+        if (aot) {
+            report("aot", application, aotEnabled);
+            all.addAll(aotEnabled);
+        } else {
+            System.out.println("aot      skipped, jar was not built with -Pfast-startup");
+        }
+        report("cds", application, cds(application, workDir.resolve("baseline.jsa"), List.of()));
+        report("all", application, cds(application, workDir.resolve("all.jsa"), all));
+    }
+
+    private void report(String mode, Path application, List<String> jvmArguments) throws Exception {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = timeToFirstRequest(application, jvmArguments);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-8s median=%dms min=%dms max=%dms %s%n",
+                mode, millis[RUNS / 2], millis[0], millis[RUNS - 1], jvmArguments);
+    }
+
+    private long timeToFirstRequest(Path application, List<String> jvmArguments) throws Exception {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process process = start(application, jvmArguments, port);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + "/api/v1/destinations/health")).build();
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() - deadline < 0) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Application did not serve a request within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Training run: refresh the context, exit, and dump the loaded classes into a dynamic AppCDS archive.
+     */
+    private List<String> cds(Path application, Path archive, List<String> jvmArguments) throws Exception {
+        List<String> training = new ArrayList<>(jvmArguments);
+        training.add("-XX:ArchiveClassesAtExit=" + archive.toAbsolutePath());
+        training.add("-Dspring.context.exit=onRefresh");
+        Process process = start(application, training, freePort());
+        if (!process.waitFor(STARTUP_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("CDS training run did not exit");
+        }
+        List<String> arguments = new ArrayList<>(jvmArguments);
+        arguments.add("-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+        return arguments;
+    }
+
+    private static Process start(Path application, List<String> jvmArguments, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.add("-jar");
+        command.add(application.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.add("--travel.warmup.enabled=false");
+        command.add("--travel.snapshot.enabled=false");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    private static Path extract(Path jar, Path workDir) throws Exception {
+        Path destination = workDir.resolve("extracted");
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djarmode=tools", "-jar", jar.toAbsolutePath().toString(),
+                "extract", "--force", "--destination", destination.toAbsolutePath().toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Extracting " + jar + " failed");
+        }
+        return destination.resolve(jar.getFileName());
+    }
+
+    private static Path packagedJar() throws IOException {
+        Path target = Path.of("target");
+        if (!Files.isDirectory(target)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst().orElse(null);
+        }
+    }
+
+    private static boolean containsAotInitializer(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
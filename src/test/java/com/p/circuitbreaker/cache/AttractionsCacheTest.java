@@ -0,0 +1,199 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.deadline.Deadline;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Attractions Cache Tests")
+class AttractionsCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should load once and serve later lookups from the cache")
+    void shouldServeLaterLookupsFromCache() {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 100, meterRegistry);
+
+        // When
+        String first = cache.get("Rocky Mountain", "USA", this::load);
+        String second = cache.get("Rocky Mountain", "USA", this::load);
+
+        // Then
+        assertEquals("Bear Lake", first);
+        assertEquals("Bear Lake", second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("travel.attractions.cache.lookups").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reload entries older than the time-to-live")
+    void shouldReloadExpiredEntries() throws Exception {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMillis(20), 100, meterRegistry);
+        cache.get("Rocky Mountain", "USA", this::load);
+
+        // When
+        Thread.sleep(50);
+        cache.get("Rocky Mountain", "USA", this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache failed loads")
+    void shouldNotCacheFailures() {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 100, meterRegistry);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> cache.get("Rocky Mountain", "USA", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+        assertEquals("Bear Lake", cache.get("Rocky Mountain", "USA", this::load));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used destination beyond max entries")
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 2, meterRegistry);
+        cache.get("Rocky Mountain", "USA", this::load);
+        cache.get("Yosemite", "USA", this::load);
+        cache.get("Rocky Mountain", "USA", this::load);
+
+        // When
+        cache.get("Zion", "USA", this::load);
+        cache.get("Rocky Mountain", "USA", this::load);
+        cache.get("Yosemite", "USA", this::load);
+
+        // Then
+        assertEquals(2, cache.size());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent misses for the same destination onto one load")
+    void shouldCoalesceConcurrentMisses() throws Exception {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 100, meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> cache.get("Rocky Mountain", "USA", () -> {
+            loading.countDown();
+            await(release);
+            return load();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> follower = callers.submit(() -> cache.get("Rocky Mountain", "USA", this::load));
+        while (meterRegistry.get("travel.attractions.cache.lookups").tag("result", "coalesced").counter().count() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        assertEquals("Bear Lake", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("Bear Lake", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should stop a coalesced waiter at its own deadline")
+    void shouldBoundCoalescedWaitersByTheirDeadline() throws Exception {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 100, meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> cache.get("Rocky Mountain", "USA", () -> {
+            loading.countDown();
+            await(release);
+            return load();
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<Throwable> follower = callers.submit(() -> {
+            Deadline.set(Deadline.after(Duration.ofMillis(50)));
+            try {
+                cache.get("Rocky Mountain", "USA", this::load);
+                return null;
+            } catch (DeadlineExceededException e) {
+                return e;
+            } finally {
+                Deadline.clear();
+            }
+        });
+
+        // Then
+        assertInstanceOf(DeadlineExceededException.class, follower.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("Bear Lake", leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should load again for a waiter whose deadline outlives the failed load's")
+    void shouldReloadWhenTheLoadersDeadlinePassed() throws Exception {
+        // Given
+        AttractionsCache cache = new AttractionsCache(true, Duration.ofMinutes(10), 100, meterRegistry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> cache.get("Rocky Mountain", "USA", () -> {
+            loading.countDown();
+            await(release);
+            throw new DeadlineExceededException("leader gave up");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // When
+        Future<String> follower = callers.submit(() -> cache.get("Rocky Mountain", "USA", this::load));
+        while (meterRegistry.get("travel.attractions.cache.lookups").tag("result", "coalesced").counter().count() == 0) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        assertEquals("Bear Lake", follower.get(5, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DeadlineExceededException.class, failure.getCause());
+        assertEquals(1, loads.get());
+    }
+
+    private String load() {
+        loads.incrementAndGet();
+        return "Bear Lake";
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
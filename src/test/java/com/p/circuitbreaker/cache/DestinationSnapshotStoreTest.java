@@ -0,0 +1,149 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Destination Snapshot Store Tests")
+class DestinationSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should serve records from the snapshot after a restart")
+    void shouldServeRecordsAfterRestart() {
+        // Given
+        Path path = directory.resolve("destinations.snapshot");
+        DestinationSnapshotStore store = newStore(path, Duration.ofHours(1));
+        store.record("Rocky Mountain", "USA", destination("DEST001", "Rocky Mountain", "USA"));
+        store.record("Banff", "Canada", destination("DEST002", "Banff", "Canada"));
+        store.write();
+
+        // When
+        DestinationSnapshotStore restarted = newStore(path, Duration.ofHours(1));
+        restarted.load();
+
+        // Then
+        TravelDestination result = restarted.find("rocky mountain ", "usa");
+        assertNotNull(result);
+        assertEquals("DEST001", result.getDestinationId());
+        assertEquals("Rocky Mountain", result.getName());
+        assertEquals("Estes Park", result.getCity());
+        assertNull(result.getAttractions());
+        assertEquals("DEST002", restarted.find("Banff", "Canada").getDestinationId());
+        assertNull(restarted.find("Yosemite", "USA"));
+    }
+
+    @Test
+    @DisplayName("Should keep previously snapshotted records when writing new ones")
+    void shouldMergeWithExistingSnapshot() {
+        // Given
+        Path path = directory.resolve("destinations.snapshot");
+        DestinationSnapshotStore store = newStore(path, Duration.ofHours(1));
+        store.record("Rocky Mountain", "USA", destination("DEST001", "Rocky Mountain", "USA"));
+        store.write();
+
+        // When
+        store.record("Banff", "Canada", destination("DEST002", "Banff", "Canada"));
+        store.write();
+        DestinationSnapshotStore restarted = newStore(path, Duration.ofHours(1));
+        restarted.load();
+
+        // Then
+        assertNotNull(restarted.find("Rocky Mountain", "USA"));
+        assertNotNull(restarted.find("Banff", "Canada"));
+    }
+
+    @Test
+    @DisplayName("Should not serve records older than the maximum age")
+    void shouldNotServeExpiredRecords() {
+        // Given
+        DestinationSnapshotStore store = newStore(directory.resolve("destinations.snapshot"), Duration.ZERO.minusMillis(1));
+
+        // When
+        store.record("Rocky Mountain", "USA", destination("DEST001", "Rocky Mountain", "USA"));
+
+        // Then
+        assertNull(store.find("Rocky Mountain", "USA"));
+    }
+
+    @Test
+    @DisplayName("Should start cold when the snapshot version is not supported")
+    void shouldIgnoreUnsupportedVersion() throws Exception {
+        // Given
+        Path path = directory.resolve("destinations.snapshot");
+        DestinationSnapshotStore store = newStore(path, Duration.ofHours(1));
+        store.record("Rocky Mountain", "USA", destination("DEST001", "Rocky Mountain", "USA"));
+        store.write();
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer.wrap(bytes).putShort(4, (short) (MappedDestinationSnapshot.VERSION + 1));
+        Files.write(path, bytes);
+
+        // When
+        DestinationSnapshotStore restarted = newStore(path, Duration.ofHours(1));
+        restarted.load();
+
+        // Then
+        assertNull(restarted.find("Rocky Mountain", "USA"));
+    }
+
+    @Test
+    @DisplayName("Should read records across mapped chunks and copy them over unchanged")
+    void shouldReadAcrossChunksAndCopyRawRecords() throws Exception {
+        // Given: 4 KiB chunks, so most records live past the first mapping
+        Path original = directory.resolve("original.snapshot");
+        Path copied = directory.resolve("copied.snapshot");
+        long now = System.currentTimeMillis();
+        MappedDestinationSnapshot.write(original, 500, now, writer -> {
+            for (int i = 0; i < 500; i++) {
+                writer.add(DestinationKey.of("Place " + i, "USA"),
+                        new SnapshotEntry(destination("DEST" + i, "Place " + i, "USA"), now - i));
+            }
+        });
+        MappedDestinationSnapshot snapshot = MappedDestinationSnapshot.open(original, 12);
+
+        // When
+        MappedDestinationSnapshot.write(copied, snapshot.size(), now, writer ->
+                snapshot.forEachRecord((key, fetchedAt, offset) -> writer.copy(snapshot, key, offset)));
+        MappedDestinationSnapshot copy = MappedDestinationSnapshot.open(copied, 12);
+
+        // Then
+        assertEquals(500, copy.size());
+        for (int i = 0; i < 500; i++) {
+            DestinationKey key = DestinationKey.of("Place " + i, "USA");
+            SnapshotEntry entry = copy.find(key);
+            assertEquals(snapshot.find(key), entry);
+            assertEquals("DEST" + i, entry.destination().getDestinationId());
+            assertEquals(now - i, entry.fetchedAt());
+        }
+        assertTrue(Files.size(original) > 10 * 4096);
+        assertEquals(Files.size(original), Files.size(copied));
+    }
+
+    private static DestinationSnapshotStore newStore(Path path, Duration maxAge) {
+        return new DestinationSnapshotStore(true, path, maxAge, DataSize.ofMegabytes(4), new SimpleMeterRegistry());
+    }
+
+    private static TravelDestination destination(String id, String name, String country) {
+        return TravelDestination.builder()
+                .destinationId(id)
+                .name(name)
+                .country(country)
+                .city("Estes Park")
+                .description("Beautiful national park")
+                .category("National Park")
+                .bestSeasonToVisit("Summer")
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.p.circuitbreaker.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Negative Destination Cache Tests")
+class NegativeDestinationCacheTest {
+
+    private static final String OPERATION = "travelDestination";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should forget missing destinations after the time-to-live")
+    void shouldForgetEntriesAfterTtl() throws Exception {
+        // Given
+        NegativeDestinationCache cache = new NegativeDestinationCache(true, Duration.ofMillis(200), 100, meterRegistry);
+        cache.recordMissing(OPERATION, "Atlantis", "GRC");
+
+        // When
+        boolean missingBefore = cache.isKnownMissing(OPERATION, "Atlantis", "GRC");
+        Thread.sleep(300);
+        boolean missingAfter = cache.isKnownMissing(OPERATION, "Atlantis", "GRC");
+
+        // Then
+        assertTrue(missingBefore);
+        assertFalse(missingAfter);
+        assertEquals(0, cache.size());
+        assertEquals(1.0, meterRegistry.get("travel.negative-cache.hits").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entries beyond the size bound")
+    void shouldEvictBeyondMaxEntries() {
+        // Given
+        NegativeDestinationCache cache = new NegativeDestinationCache(true, Duration.ofMinutes(1), 2, meterRegistry);
+
+        // When
+        cache.recordMissing(OPERATION, "Atlantis", "GRC");
+        cache.recordMissing(OPERATION, "El Dorado", "COL");
+        cache.recordMissing(OPERATION, "Shangri-La", "CHN");
+
+        // Then
+        assertEquals(2, cache.size());
+        assertFalse(cache.isKnownMissing(OPERATION, "Atlantis", "GRC"));
+        assertTrue(cache.isKnownMissing(OPERATION, "Shangri-La", "CHN"));
+    }
+
+    @Test
+    @DisplayName("Should never report destinations as missing when disabled")
+    void shouldDoNothingWhenDisabled() {
+        // Given
+        NegativeDestinationCache cache = new NegativeDestinationCache(false, Duration.ofMinutes(1), 100, meterRegistry);
+
+        // When
+        cache.recordMissing(OPERATION, "Atlantis", "GRC");
+
+        // Then
+        assertFalse(cache.isKnownMissing(OPERATION, "Atlantis", "GRC"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.p.circuitbreaker.cache;
+
+import com.p.circuitbreaker.model.TravelDestination;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Off-Heap Destination Store Tests")
+class OffHeapDestinationStoreTest {
+
+    private final StringDictionary dictionary = new StringDictionary(16);
+
+    @Test
+    @DisplayName("Should decode the stored record on lookup")
+    void shouldRoundTripRecords() {
+        // Given
+        OffHeapDestinationStore store = new OffHeapDestinationStore(OffHeapDestinationStore.SEGMENT_SIZE, dictionary);
+        TravelDestination destination = destination("DEST001", "Rocky Mountain");
+        destination.setAttractions(null);
+
+        // When
+        assertTrue(store.put(DestinationKey.of("Rocky Mountain", "USA"), destination, 42L));
+        SnapshotEntry entry = store.find(DestinationKey.of(" rocky mountain", "USA "));
+
+        // Then
+        assertNotNull(entry);
+        assertEquals(destination, entry.destination());
+        assertEquals("Hike the Trail Ridge Road – 4 345 m über dem Meer", entry.destination().getDescription());
+        assertEquals(42L, entry.fetchedAt());
+        assertNull(store.find(DestinationKey.of("Banff", "Canada")));
+    }
+
+    @Test
+    @DisplayName("Should share one decoded string per dictionary value and inline values the dictionary cannot take")
+    void shouldDictionaryEncodeRepetitiveFields() {
+        // Given
+        OffHeapDestinationStore store = new OffHeapDestinationStore(OffHeapDestinationStore.SEGMENT_SIZE,
+                new StringDictionary(1));
+        TravelDestination first = destination("DEST001", "Rocky Mountain");
+        TravelDestination second = destination("DEST002", "Yosemite");
+        second.setCategory("Waterfalls");
+
+        // When
+        store.put(DestinationKey.of("Rocky Mountain", "USA"), first, 1L);
+        store.put(DestinationKey.of("Yosemite", "USA"), second, 1L);
+        TravelDestination firstRead = store.find(DestinationKey.of("Rocky Mountain", "USA")).destination();
+        TravelDestination secondRead = store.find(DestinationKey.of("Yosemite", "USA")).destination();
+
+        // Then
+        assertSame(firstRead.getCountry(), secondRead.getCountry());
+        assertEquals("National Park", firstRead.getCategory());
+        assertEquals("Waterfalls", secondRead.getCategory());
+    }
+
+    @Test
+    @DisplayName("Should replace records, grow its index and iterate the latest version of each key")
+    void shouldReplaceAndIterateRecords() {
+        // Given
+        OffHeapDestinationStore store = new OffHeapDestinationStore(4L * OffHeapDestinationStore.SEGMENT_SIZE, dictionary);
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(store.put(DestinationKey.of("Park " + i, "USA"), destination("OLD" + i, "Park " + i), i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(store.put(DestinationKey.of("Park " + i, "USA"), destination("NEW" + i, "Park " + i), i));
+        }
+        Map<DestinationKey, SnapshotEntry> entries = new HashMap<>();
+        store.forEach(entries::put);
+
+        // Then
+        assertEquals(5000, store.size());
+        assertEquals(5000, entries.size());
+        assertEquals("NEW1234", entries.get(DestinationKey.of("Park 1234", "USA")).destination().getDestinationId());
+        assertEquals("NEW4999", store.find(DestinationKey.of("Park 4999", "USA")).destination().getDestinationId());
+    }
+
+    @Test
+    @DisplayName("Should refuse records once full or sealed and accept them again after clearing")
+    void shouldRefuseRecordsWhenFullOrSealed() {
+        // Given
+        OffHeapDestinationStore store = new OffHeapDestinationStore(OffHeapDestinationStore.SEGMENT_SIZE, dictionary);
+        int stored = 0;
+        while (store.put(DestinationKey.of("Park " + stored, "USA"), destination("DEST" + stored, "Park " + stored), 1L)) {
+            stored++;
+        }
+
+        // When
+        store.clear();
+        store.seal();
+        boolean acceptedWhileSealed = store.put(DestinationKey.of("Banff", "Canada"), destination("DEST002", "Banff"), 1L);
+        store.clear();
+
+        // Then
+        assertTrue(stored > 1000, "stored " + stored);
+        assertFalse(acceptedWhileSealed);
+        assertTrue(store.isEmpty());
+        assertTrue(store.put(DestinationKey.of("Banff", "Canada"), destination("DEST002", "Banff"), 1L));
+        assertNull(store.find(DestinationKey.of("Park 0", "USA")));
+    }
+
+    private static TravelDestination destination(String id, String name) {
+        return TravelDestination.builder()
+                .destinationId(id)
+                .name(name)
+                .country("USA")
+                .city("Estes Park")
+                .description("Hike the Trail Ridge Road – 4 345 m über dem Meer")
+                .category("National Park")
+                .bestSeasonToVisit("Summer")
+                .attractions("Bear Lake")
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.p.circuitbreaker.capture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Outcome of one {@link TrafficReplayer replay}: latency and status per endpoint and what the circuit breakers did.
+ * Saved as JSON so that the replay of one build can be compared with the replay of another.
+ */
+record ReplayReport(String label, double speed, long requests, long skipped, long durationMillis,
+                    Map<String, EndpointStats> endpoints, Map<String, BreakerStats> breakers) {
+
+    /**
+     * @param errors       requests answered with 5xx or not answered at all
+     * @param statusChanged requests answered with a different status than when they were captured
+     */
+    record EndpointStats(long count, long errors, long statusChanged, double p50Millis, double p99Millis,
+                         double maxMillis, Map<Integer, Long> statuses) {
+    }
+
+    record BreakerStats(Map<String, Long> transitions, Map<String, Long> millisInState) {
+    }
+
+    /**
+     * Describe how this replay differs from the baseline. Latency percentiles count as different when they moved
+     * by more than the relative tolerance; error counts, statuses and breaker transitions when they differ at all,
+     * and time in a breaker state when it moved by more than the tolerance of the replay duration.
+     */
+    List<String> differences(ReplayReport baseline, double tolerance) {
+        List<String> differences = new ArrayList<>();
+        for (String endpoint : union(baseline.endpoints.keySet(), endpoints.keySet())) {
+            EndpointStats before = baseline.endpoints.get(endpoint);
+            EndpointStats after = endpoints.get(endpoint);
+            if (before == null || after == null) {
+                differences.add(endpoint + ": only replayed in " + (before == null ? label : baseline.label));
+                continue;
+            }
+            compareLatency(differences, endpoint + " p50", before.p50Millis(), after.p50Millis(), tolerance);
+            compareLatency(differences, endpoint + " p99", before.p99Millis(), after.p99Millis(), tolerance);
+            if (before.errors() != after.errors()) {
+                differences.add(String.format("%s errors: %d -> %d", endpoint, before.errors(), after.errors()));
+            }
+            if (!before.statuses().equals(after.statuses())) {
+                differences.add(String.format("%s statuses: %s -> %s", endpoint, before.statuses(), after.statuses()));
+            }
+        }
+        long window = Math.max(durationMillis, baseline.durationMillis);
+        for (String breaker : union(baseline.breakers.keySet(), breakers.keySet())) {
+            BreakerStats before = baseline.breakers.getOrDefault(breaker, new BreakerStats(Map.of(), Map.of()));
+            BreakerStats after = breakers.getOrDefault(breaker, new BreakerStats(Map.of(), Map.of()));
+            if (!before.transitions().equals(after.transitions())) {
+                differences.add(String.format("breaker %s transitions: %s -> %s",
+                        breaker, before.transitions(), after.transitions()));
+            }
+            for (String state : union(before.millisInState().keySet(), after.millisInState().keySet())) {
+                long beforeMillis = before.millisInState().getOrDefault(state, 0L);
+                long afterMillis = after.millisInState().getOrDefault(state, 0L);
+                if (Math.abs(afterMillis - beforeMillis) > tolerance * window) {
+                    differences.add(String.format("breaker %s time %s: %dms -> %dms",
+                            breaker, state, beforeMillis, afterMillis));
+                }
+            }
+        }
+        return differences;
+    }
+
+    private static void compareLatency(List<String> differences, String name, double before, double after,
+                                       double tolerance) {
+        if (Math.abs(after - before) > tolerance * Math.max(before, 1.0)) {
+            differences.add(String.format("%s: %.2fms -> %.2fms (%+.0f%%)",
+                    name, before, after, 100 * (after - before) / Math.max(before, 0.001)));
+        }
+    }
+
+    private static Set<String> union(Set<String> a, Set<String> b) {
+        Set<String> union = new TreeSet<>(a);
+        union.addAll(b);
+        return union;
+    }
+}
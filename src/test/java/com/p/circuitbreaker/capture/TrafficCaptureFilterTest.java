@@ -0,0 +1,207 @@
+package com.p.circuitbreaker.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p.circuitbreaker.controller.DestinationController;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Traffic Capture Filter Tests")
+class TrafficCaptureFilterTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    @TempDir
+    private Path directory;
+
+    private TrafficCaptureWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should capture endpoint, key, status and latency of destination requests, but not warm-up requests")
+    void shouldCaptureDestinationRequests() throws Exception {
+        // Given
+        MockMvc mockMvc = mockMvc(writer(DataSize.ofMegabytes(1), 4), 1.0);
+        when(travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"))
+                .thenReturn(TravelDestination.builder().destinationId("DEST001").name("Rocky Mountain").build());
+        when(travelDestinationService.getAttractions("Atlantis", "Nowhere"))
+                .thenThrow(new DestinationNotFoundException("Destination not found: Atlantis in Nowhere"));
+        when(travelDestinationService.getDestinationDetails("Paris", "France"))
+                .thenReturn(TravelDestination.builder().destinationId("DEST002").name("Paris").build());
+        long before = System.currentTimeMillis();
+
+        // When
+        mockMvc.perform(get("/api/v1/destinations/details").param("location", "Rocky Mountain").param("country", "USA"));
+        mockMvc.perform(get("/api/v1/destinations/attractions").param("location", "Atlantis").param("country", "Nowhere"));
+        mockMvc.perform(post("/api/v1/destinations/details")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"location\":\"Paris\",\"country\":\"France\"}"));
+        mockMvc.perform(get("/api/v1/destinations/health"));
+        mockMvc.perform(get("/api/v1/destinations/details").param("location", "Rocky Mountain").param("country", "USA")
+                .header(StartupWarmUp.SYNTHETIC_REQUEST_HEADER, "true"));
+        writer.stop();
+        List<CapturedRequest> captured = CaptureLog.read(directory);
+
+        // Then
+        assertEquals(3, captured.size());
+        CapturedRequest details = captured.get(0);
+        assertEquals(CapturedRequest.Endpoint.DETAILS, details.endpoint());
+        assertEquals("Rocky Mountain", details.location());
+        assertEquals("USA", details.country());
+        assertEquals(200, details.status());
+        assertTrue(details.timestampMillis() >= before);
+        assertTrue(details.latencyMicros() > 0);
+        assertEquals(CapturedRequest.Endpoint.ATTRACTIONS, captured.get(1).endpoint());
+        assertEquals(404, captured.get(1).status());
+        assertEquals(CapturedRequest.Endpoint.DETAILS_POST, captured.get(2).endpoint());
+        assertEquals("Paris", captured.get(2).location());
+        assertEquals("France", captured.get(2).country());
+    }
+
+    @Test
+    @DisplayName("Should capture nothing when the sample rate is zero")
+    void shouldCaptureNothingWhenNotSampled() throws Exception {
+        // Given
+        MockMvc mockMvc = mockMvc(writer(DataSize.ofMegabytes(1), 4), 0.0);
+
+        // When
+        mockMvc.perform(get("/api/v1/destinations/details").param("location", "Rocky Mountain").param("country", "USA"));
+        writer.stop();
+
+        // Then
+        assertTrue(CaptureLog.read(directory).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should rotate segments and keep only the newest ones")
+    void shouldRotateSegments() throws Exception {
+        // Given: every record fills a segment
+        writer(DataSize.ofBytes(1), 2);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            writer.capture(new CapturedRequest(1_000 + i, CapturedRequest.Endpoint.DETAILS, "Place " + i, "USA", 200, 1500));
+        }
+        writer.stop();
+        List<CapturedRequest> captured = CaptureLog.read(directory);
+
+        // Then
+        assertEquals(2, CaptureLog.segments(directory).size());
+        assertEquals(List.of("Place 3", "Place 4"), captured.stream().map(CapturedRequest::location).toList());
+        assertEquals(1_004, captured.get(1).timestampMillis());
+        assertEquals(1500, captured.get(1).latencyMicros());
+    }
+
+    @Test
+    @DisplayName("Should read a segment up to its last complete record")
+    void shouldReadTornSegment() throws Exception {
+        // Given
+        writer(DataSize.ofMegabytes(1), 4);
+        writer.capture(new CapturedRequest(1_000, CapturedRequest.Endpoint.DETAILS, "Rocky Mountain", "USA", 200, 10));
+        writer.capture(new CapturedRequest(1_250, CapturedRequest.Endpoint.ATTRACTIONS, null, null, 400, 20));
+        writer.stop();
+        Path segment = CaptureLog.segments(directory).get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+
+        // When
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 2));
+        List<CapturedRequest> torn = CaptureLog.read(directory);
+        Files.write(segment, bytes);
+        List<CapturedRequest> complete = CaptureLog.read(directory);
+
+        // Then
+        assertEquals(1, torn.size());
+        assertEquals(2, complete.size());
+        assertEquals(1_250, complete.get(1).timestampMillis());
+        assertNull(complete.get(1).location());
+    }
+
+    @Test
+    @DisplayName("Should read back timestamps of requests captured out of arrival order")
+    void shouldRoundTripOutOfOrderTimestamps() throws Exception {
+        // Given: a slow request completes, and is captured, after a later one
+        writer(DataSize.ofMegabytes(1), 4);
+        writer.capture(new CapturedRequest(1_000, CapturedRequest.Endpoint.DETAILS, "Rocky Mountain", "USA", 200, 10));
+        writer.capture(new CapturedRequest(1_300, CapturedRequest.Endpoint.DETAILS, "Paris", "France", 200, 10));
+        writer.capture(new CapturedRequest(1_100, CapturedRequest.Endpoint.DETAILS, "Rome", "Italy", 200, 400_000));
+        writer.capture(new CapturedRequest(1_350, CapturedRequest.Endpoint.DETAILS, "Banff", "Canada", 200, 10));
+
+        // When
+        writer.stop();
+        List<CapturedRequest> captured = CaptureLog.read(directory);
+
+        // Then
+        assertEquals(List.of(1_000L, 1_300L, 1_100L, 1_350L),
+                captured.stream().map(CapturedRequest::timestampMillis).toList());
+    }
+
+    @Test
+    @DisplayName("Should write every queued request when stopped")
+    void shouldWriteQueuedRequestsOnStop() throws Exception {
+        // Given
+        writer(DataSize.ofKilobytes(1), 100);
+        for (int i = 0; i < 100; i++) {
+            writer.capture(new CapturedRequest(1_000 + i, CapturedRequest.Endpoint.DETAILS, "Banff", "Canada", 200, 10));
+        }
+
+        // When
+        writer.stop();
+        List<CapturedRequest> captured = CaptureLog.read(directory);
+
+        // Then
+        assertEquals(100, captured.size());
+        assertEquals(1_099, captured.get(99).timestampMillis());
+    }
+
+    private TrafficCaptureWriter writer(DataSize segmentSize, int maxSegments) {
+        writer = new TrafficCaptureWriter(true, directory.toString(), segmentSize, maxSegments, 100,
+                new SimpleMeterRegistry());
+        writer.start();
+        return writer;
+    }
+
+    private MockMvc mockMvc(TrafficCaptureWriter writer, double sampleRate) {
+        return MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .addFilters(new TrafficCaptureFilter(sampleRate, writer, new ObjectMapper()))
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.p.circuitbreaker.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.p.circuitbreaker.SpringBootCircuitbreakerApplication;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays a traffic capture (see {@code travel.capture.*}) against this build, running locally against the
+ * upstream simulator, and reports latency and circuit breaker behaviour. Given the report of another build as a
+ * baseline, it prints where the two differ. Run with
+ * <pre>
+ * mvn test -Pbenchmark -Dtest=TrafficReplayBenchmark -Dreplay.log=capture -Dreplay.speed=4 \
+ *     -Dreplay.report=target/replay.json -Dreplay.baseline=replay-main.json
+ * </pre>
+ * Further settings: {@code replay.label} names the build in the report, {@code replay.upstream-latency} sets the
+ * simulator's response time and {@code replay.tolerance} the relative change reported as a difference.
+ */
+@Tag("benchmark")
+@DisplayName("Traffic Replay Benchmark")
+class TrafficReplayBenchmark {
+
+    @Test
+    @DisplayName("Replay captured traffic and compare with a baseline build")
+    void replay() throws Exception {
+        String log = System.getProperty("replay.log");
+        assumeTrue(log != null, "Set -Dreplay.log to a traffic capture directory");
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+        Path report = Path.of(System.getProperty("replay.report", "target/replay-report.json"));
+        String baseline = System.getProperty("replay.baseline");
+        String label = System.getProperty("replay.label", "local");
+        Duration upstreamLatency = Duration.parse(System.getProperty("replay.upstream-latency", "PT0.02S"));
+        double tolerance = Double.parseDouble(System.getProperty("replay.tolerance", "0.2"));
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        List<CapturedRequest> captured = CaptureLog.read(Path.of(log));
+        System.out.printf("Replaying %d captured requests from %s at %.1fx%n", captured.size(), log, speed);
+
+        ReplayReport result;
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(upstreamLatency);
+             ConfigurableApplicationContext application = new SpringApplicationBuilder(SpringBootCircuitbreakerApplication.class)
+                     .properties("server.port=0",
+                             "travel.service.url=" + upstream.baseUrl(),
+                             "travel.capture.enabled=false",
+                             "travel.snapshot.enabled=false",
+                             "travel.warmup.enabled=false")
+                     .run()) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            TrafficReplayer replayer = new TrafficReplayer("http://localhost:" + port, speed,
+                    application.getBean(CircuitBreakerRegistry.class));
+            long capturedMillis = captured.isEmpty() ? 0
+                    : captured.get(captured.size() - 1).timestampMillis() - captured.get(0).timestampMillis();
+            result = replayer.replay(label, captured, Duration.ofMillis((long) (capturedMillis / speed)).plusMinutes(1));
+        }
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        objectMapper.writeValue(report.toFile(), result);
+        System.out.println(objectMapper.writeValueAsString(result));
+        System.out.println("Report written to " + report);
+
+        if (baseline != null) {
+            ReplayReport before = objectMapper.readValue(Path.of(baseline).toFile(), ReplayReport.class);
+            List<String> differences = result.differences(before, tolerance);
+            System.out.printf("Compared with %s: %s%n", before.label(),
+                    differences.isEmpty() ? "no differences" : differences.size() + " differences");
+            differences.forEach(difference -> System.out.println("  " + difference));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.p.circuitbreaker.capture;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Sends captured requests to a running instance with their original spacing divided by the speed-up, so that
+ * bursts and the key mix are those of the captured traffic. Requests are fired without waiting for earlier ones
+ * to complete. While replaying, the instance's circuit breakers are watched for transitions and time per state.
+ */
+class TrafficReplayer {
+
+    private static final int NO_RESPONSE = 0;
+
+    private final WebClient webClient;
+    private final double speed;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    TrafficReplayer(String baseUrl, double speed, CircuitBreakerRegistry circuitBreakerRegistry) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Replay speed must be positive");
+        }
+        this.webClient = WebClient.builder().baseUrl(baseUrl).build();
+        this.speed = speed;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+    }
+
+    ReplayReport replay(String label, List<CapturedRequest> captured, Duration timeout) throws InterruptedException {
+        List<CapturedRequest> replayable = captured.stream()
+                .filter(request -> request.location() != null && request.country() != null)
+                .toList();
+        BreakerWatch breakerWatch = new BreakerWatch(circuitBreakerRegistry);
+        List<Outcome> outcomes = new ArrayList<>(replayable.size());
+        CountDownLatch done = new CountDownLatch(replayable.size());
+
+        long start = System.nanoTime();
+        long firstTimestamp = replayable.isEmpty() ? 0 : replayable.get(0).timestampMillis();
+        for (CapturedRequest request : replayable) {
+            long dueNanos = start + (long) ((request.timestampMillis() - firstTimestamp) * 1_000_000 / speed);
+            long waitNanos = dueNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            long sent = System.nanoTime();
+            send(request).subscribe(status -> {
+                synchronized (outcomes) {
+                    outcomes.add(new Outcome(request, status, System.nanoTime() - sent));
+                }
+                done.countDown();
+            });
+        }
+        if (!done.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(done.getCount() + " replayed requests still unanswered after " + timeout);
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        synchronized (outcomes) {
+            return new ReplayReport(label, speed, replayable.size(), captured.size() - replayable.size(),
+                    durationMillis, endpointStats(outcomes), breakerWatch.stop());
+        }
+    }
+
+    private Mono<Integer> send(CapturedRequest request) {
+        CapturedRequest.Endpoint endpoint = request.endpoint();
+        WebClient.RequestBodySpec spec = webClient.method(HttpMethod.valueOf(endpoint.method()))
+                .uri(builder -> uri(builder, request));
+        WebClient.RequestHeadersSpec<?> ready = endpoint == CapturedRequest.Endpoint.DETAILS_POST
+                ? spec.contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("location", request.location(), "country", request.country()))
+                : spec;
+        return ready.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .onErrorReturn(NO_RESPONSE);
+    }
+
+    private static URI uri(UriBuilder builder, CapturedRequest request) {
+        builder.path(request.endpoint().path());
+        if (request.endpoint() != CapturedRequest.Endpoint.DETAILS_POST) {
+            builder.queryParam("location", "{location}").queryParam("country", "{country}");
+            return builder.build(request.location(), request.country());
+        }
+        return builder.build();
+    }
+
+    private static Map<String, ReplayReport.EndpointStats> endpointStats(List<Outcome> outcomes) {
+        Map<String, ReplayReport.EndpointStats> stats = new TreeMap<>();
+        outcomes.stream()
+                .collect(Collectors.groupingBy(outcome -> outcome.request().endpoint().name()))
+                .forEach((endpoint, byEndpoint) -> {
+                    long[] sorted = byEndpoint.stream().mapToLong(Outcome::latencyNanos).sorted().toArray();
+                    long errors = byEndpoint.stream()
+                            .filter(outcome -> outcome.status() == NO_RESPONSE || outcome.status() >= 500)
+                            .count();
+                    long statusChanged = byEndpoint.stream()
+                            .filter(outcome -> outcome.request().status() != outcome.status())
+                            .count();
+                    Map<Integer, Long> statuses = new TreeMap<>(byEndpoint.stream()
+                            .collect(Collectors.groupingBy(Outcome::status, Collectors.counting())));
+                    stats.put(endpoint, new ReplayReport.EndpointStats(sorted.length, errors, statusChanged,
+                            percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+                            statuses));
+                });
+        return stats;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private record Outcome(CapturedRequest request, int status, long latencyNanos) {
+    }
+
+    /**
+     * Follows every breaker of the registry from the start of the replay: transitions by kind and time per state.
+     */
+    private static final class BreakerWatch {
+
+        private final Map<String, Map<String, Long>> transitions = new ConcurrentHashMap<>();
+        private final Map<String, Map<String, Long>> millisInState = new ConcurrentHashMap<>();
+        private final Map<String, CircuitBreaker.State> states = new ConcurrentHashMap<>();
+        private final Map<String, Long> since = new ConcurrentHashMap<>();
+        private volatile boolean watching = true;
+
+        BreakerWatch(CircuitBreakerRegistry registry) {
+            long now = System.currentTimeMillis();
+            for (CircuitBreaker circuitBreaker : registry.getAllCircuitBreakers()) {
+                watch(circuitBreaker, now);
+            }
+            registry.getEventPublisher().onEntryAdded(event -> watch(event.getAddedEntry(), System.currentTimeMillis()));
+            registry.getEventPublisher().onEntryReplaced(event -> watch(event.getNewEntry(), System.currentTimeMillis()));
+        }
+
+        private void watch(CircuitBreaker circuitBreaker, long now) {
+            String name = circuitBreaker.getName();
+            states.putIfAbsent(name, circuitBreaker.getState());
+            since.putIfAbsent(name, now);
+            circuitBreaker.getEventPublisher().onStateTransition(event -> {
+                if (!watching) {
+                    return;
+                }
+                synchronized (this) {
+                    String from = event.getStateTransition().getFromState().name();
+                    String to = event.getStateTransition().getToState().name();
+                    transitions.computeIfAbsent(name, key -> new TreeMap<>()).merge(from + "->" + to, 1L, Long::sum);
+                    close(name, System.currentTimeMillis());
+                    states.put(name, event.getStateTransition().getToState());
+                }
+            });
+        }
+
+        private void close(String name, long now) {
+            long elapsed = now - since.put(name, now);
+            millisInState.computeIfAbsent(name, key -> new TreeMap<>()).merge(states.get(name).name(), elapsed, Long::sum);
+        }
+
+        synchronized Map<String, ReplayReport.BreakerStats> stop() {
+            watching = false;
+            long now = System.currentTimeMillis();
+            Map<String, ReplayReport.BreakerStats> stats = new TreeMap<>();
+            for (String name : states.keySet()) {
+                close(name, now);
+                stats.put(name, new ReplayReport.BreakerStats(transitions.getOrDefault(name, Map.of()),
+                        millisInState.get(name)));
+            }
+            return stats;
+        }
+    }
+}
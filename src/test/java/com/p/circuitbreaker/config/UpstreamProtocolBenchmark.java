@@ -0,0 +1,81 @@
+package com.p.circuitbreaker.config;
+
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares upstream connection count and latency of HTTP/1.1 against h2c for bursts of concurrent lookups.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Upstream Protocol Benchmark")
+class UpstreamProtocolBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 200;
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final Duration UPSTREAM_LATENCY = Duration.ofMillis(20);
+
+    @Test
+    @DisplayName("HTTP/1.1 vs h2c under a burst of concurrent lookups")
+    void compareProtocols() {
+        run(new HttpProtocol[]{HttpProtocol.HTTP11});
+        run(new HttpProtocol[]{HttpProtocol.H2C});
+    }
+
+    private static void run(HttpProtocol[] protocols) {
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(UPSTREAM_LATENCY, protocols)) {
+            ConnectionProvider provider = WebClientConfig.connectionProvider(protocols, 50, 1000, 100, false);
+            try {
+                WebClient client = WebClientConfigTest.client(upstream, provider, protocols);
+                // warm up connections and JIT before measuring
+                for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                    burst(client, REQUESTS);
+                }
+                int connectionsBefore = upstream.connectionCount();
+
+                long start = System.nanoTime();
+                List<Long> latencies = burst(client, REQUESTS);
+                long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+                long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+                System.out.printf("%-8s requests=%d connections=%d (+%d during run) elapsed=%dms p50=%.2fms p99=%.2fms max=%.2fms%n",
+                        Arrays.toString(protocols), REQUESTS, upstream.connectionCount(),
+                        upstream.connectionCount() - connectionsBefore, elapsedMillis,
+                        percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+            } finally {
+                provider.disposeLater().block();
+            }
+        }
+    }
+
+    private static List<Long> burst(WebClient client, int requests) {
+        return Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get()
+                            .uri("/travelDestination?destinationId={destinationId}&country={country}", "Place " + i, "USA")
+                            .retrieve()
+                            .toBodilessEntity()
+                            .map(entity -> System.nanoTime() - start);
+                }), CONCURRENCY)
+                .collectList()
+                .block(Duration.ofMinutes(1));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,140 @@
+package com.p.circuitbreaker.config;
+
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.resilience.RetryBudget;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Upstream Retry Configuration Tests")
+class UpstreamRetryConfigTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should retry a connection reset and spend one token")
+    void shouldRetryConnectionReset() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 10, new SimpleMeterRegistry());
+        Retry retry = retry(budget);
+
+        // When
+        String result = retry.executeSupplier(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new RuntimeException("Failed to retrieve destination details", connectionReset(HttpMethod.GET));
+            }
+            return "destination";
+        });
+
+        // Then
+        assertEquals("destination", result);
+        assertEquals(2, attempts.get());
+        assertEquals(9.0, budget.tokens());
+    }
+
+    @Test
+    @DisplayName("Should not retry lookups for unknown destinations")
+    void shouldNotRetryNotFound() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 10, new SimpleMeterRegistry());
+        Retry retry = retry(budget);
+
+        // When & Then
+        assertThrows(DestinationNotFoundException.class, () -> retry.executeSupplier(() -> {
+            attempts.incrementAndGet();
+            throw new DestinationNotFoundException("Destination not found");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(10.0, budget.tokens());
+    }
+
+    @Test
+    @DisplayName("Should not retry non-idempotent requests")
+    void shouldNotRetryNonIdempotentRequests() {
+        // Given
+        Retry retry = retry(new RetryBudget(0.1, 10, new SimpleMeterRegistry()));
+
+        // When & Then
+        assertThrows(WebClientRequestException.class, () -> retry.executeSupplier(() -> {
+            attempts.incrementAndGet();
+            throw connectionReset(HttpMethod.POST);
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Should stop retrying once the budget is empty")
+    void shouldStopRetryingWhenBudgetIsEmpty() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 1, new SimpleMeterRegistry());
+        Retry retry = retry(budget);
+
+        // When & Then
+        assertThrows(WebClientRequestException.class, () -> retry.executeSupplier(() -> {
+            attempts.incrementAndGet();
+            throw connectionReset(HttpMethod.GET);
+        }));
+        assertEquals(2, attempts.get());
+        assertEquals(0.0, budget.tokens());
+    }
+
+    @Test
+    @DisplayName("Should only charge the budget for retries actually attempted")
+    void shouldRefundTokenForFinalAttempt() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 10, new SimpleMeterRegistry());
+        Retry retry = retry(budget);
+
+        // When
+        assertThrows(WebClientRequestException.class, () -> retry.executeSupplier(() -> {
+            attempts.incrementAndGet();
+            throw connectionReset(HttpMethod.GET);
+        }));
+
+        // Then
+        assertEquals(3, attempts.get());
+        assertEquals(8.0, budget.tokens());
+    }
+
+    @Test
+    @DisplayName("Should draw backoff intervals between zero and the capped exponential bound")
+    void shouldApplyFullJitter() {
+        IntervalFunction interval = UpstreamRetryConfig.fullJitter(Duration.ofMillis(100), Duration.ofMillis(300));
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(interval.apply(1) <= 100);
+            assertTrue(interval.apply(2) <= 200);
+            assertTrue(interval.apply(5) <= 300);
+            assertTrue(interval.apply(1) >= 0);
+        }
+    }
+
+    private static Retry retry(RetryBudget budget) {
+        UpstreamRetryConfig config = new UpstreamRetryConfig();
+        ReflectionTestUtils.setField(config, "initialBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(config, "maxBackoff", Duration.ofMillis(5));
+        RetryConfig.Builder<Object> builder = RetryConfig.custom().maxAttempts(3);
+        config.travelDestinationRetryCustomizer(budget).customize(builder);
+        return RetryRegistry.of(builder.build(), config.retryBudgetRefunds(budget)).retry("travelDestination");
+    }
+
+    private static WebClientRequestException connectionReset(HttpMethod method) {
+        return new WebClientRequestException(new IOException("Connection reset by peer"), method,
+                URI.create("http://localhost/travelDestination"), new HttpHeaders());
+    }
+}
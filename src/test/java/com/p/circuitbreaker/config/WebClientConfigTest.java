@@ -0,0 +1,129 @@
+package com.p.circuitbreaker.config;
+
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import com.p.circuitbreaker.timing.Stage;
+import com.p.circuitbreaker.timing.StageTimer;
+import com.p.circuitbreaker.timing.StageTimingExchangeFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WebClient Configuration Tests")
+class WebClientConfigTest {
+
+    private static final int CONCURRENT_REQUESTS = 20;
+
+    @Test
+    @DisplayName("Should multiplex concurrent lookups over a bounded number of h2c connections")
+    void shouldMultiplexConcurrentLookupsOverH2c() {
+        HttpProtocol[] protocols = {HttpProtocol.H2C};
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ofMillis(200), HttpProtocol.H2C)) {
+            ConnectionProvider provider = WebClientConfig.connectionProvider(protocols, 2, 1000, 100, false);
+            try {
+                List<TravelDestination> results = fetchConcurrently(client(upstream, provider, protocols));
+
+                assertEquals(CONCURRENT_REQUESTS, results.size());
+                assertEquals(CONCURRENT_REQUESTS, upstream.requestCount());
+                assertTrue(upstream.connectionCount() <= 2);
+                // two HTTP/1.1 connections could never serve more than two lookups at once
+                assertTrue(upstream.maxInFlight() > 2, "max in flight was " + upstream.maxInFlight());
+            } finally {
+                provider.disposeLater().block();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should open one connection per in-flight lookup over HTTP/1.1")
+    void shouldOpenConnectionPerInFlightLookupOverHttp11() {
+        HttpProtocol[] protocols = {HttpProtocol.HTTP11};
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ofMillis(100), HttpProtocol.HTTP11)) {
+            ConnectionProvider provider = WebClientConfig.connectionProvider(protocols, 50, 1000, 100, false);
+            try {
+                List<TravelDestination> results = fetchConcurrently(client(upstream, provider, protocols));
+
+                assertEquals(CONCURRENT_REQUESTS, results.size());
+                assertEquals(CONCURRENT_REQUESTS, upstream.connectionCount());
+            } finally {
+                provider.disposeLater().block();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should open additional h2c connections once the stream limit is reached")
+    void shouldRespectMaxConcurrentStreams() {
+        HttpProtocol[] protocols = {HttpProtocol.H2C};
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ofMillis(200), HttpProtocol.H2C)) {
+            ConnectionProvider provider = WebClientConfig.connectionProvider(protocols, 10, 1000, 5, false);
+            try {
+                fetchConcurrently(client(upstream, provider, protocols));
+
+                assertTrue(upstream.connectionCount() >= CONCURRENT_REQUESTS / 5,
+                        "expected at least " + CONCURRENT_REQUESTS / 5 + " connections but was " + upstream.connectionCount());
+            } finally {
+                provider.disposeLater().block();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should attribute upstream call time to the pool, upstream and decode stages")
+    void shouldTimeUpstreamStages() {
+        HttpProtocol[] protocols = {HttpProtocol.HTTP11};
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ofMillis(100), HttpProtocol.HTTP11)) {
+            ConnectionProvider provider = WebClientConfig.connectionProvider(protocols, 5, 1000, 100, false);
+            StageTimer timer = StageTimer.start(Stage.RESILIENCE);
+            StageTimer.set(timer);
+            try {
+                WebClient client = client(upstream, provider, protocols).mutate()
+                        .filter(new StageTimingExchangeFilter())
+                        .build();
+
+                fetch(client, 1).block(Duration.ofSeconds(5));
+                timer.stop();
+
+                assertTrue(timer.elapsedNanos(Stage.POOL) > 0);
+                assertTrue(timer.elapsedNanos(Stage.UPSTREAM) >= TimeUnit.MILLISECONDS.toNanos(100),
+                        "upstream took " + timer.elapsedNanos(Stage.UPSTREAM) + "ns");
+                assertTrue(timer.elapsedNanos(Stage.DECODE) > 0);
+            } finally {
+                StageTimer.clear();
+                provider.disposeLater().block();
+            }
+        }
+    }
+
+    static WebClient client(UpstreamSimulator upstream, ConnectionProvider provider, HttpProtocol[] protocols) {
+        return WebClient.builder()
+                .baseUrl(upstream.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(WebClientConfig.httpClient(provider, protocols, true)))
+                .build();
+    }
+
+    private static List<TravelDestination> fetchConcurrently(WebClient client) {
+        return Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> fetch(client, i), CONCURRENT_REQUESTS)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+    }
+
+    private static Mono<TravelDestination> fetch(WebClient client, int i) {
+        return client.get()
+                .uri("/travelDestination?destinationId={destinationId}&country={country}", "Place " + i, "USA")
+                .retrieve()
+                .bodyToMono(TravelDestination.class);
+    }
+}
@@ -3,8 +3,14 @@ package com.p.circuitbreaker.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.p.circuitbreaker.dto.ApiResponse;
 import com.p.circuitbreaker.dto.DestinationRequest;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
 import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
 import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -31,6 +37,12 @@ class DestinationControllerTest {
     @Mock
     private TravelDestinationService travelDestinationService;
 
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
     @InjectMocks
     private DestinationController destinationController;
 
@@ -65,7 +77,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<TravelDestination>> response = 
-                destinationController.getDestinationDetails(location, country);
+                destinationController.getDestinationDetails(location, country, false);
 
         // Then
         assertNotNull(response);
@@ -76,6 +88,7 @@ class DestinationControllerTest {
         assertEquals(expectedDestination, response.getBody().getData());
 
         verify(travelDestinationService).getDestinationDetails(location, country);
+        verify(hotKeyTracker).record(location, country);
     }
 
     @Test
@@ -91,7 +104,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<String>> response = 
-                destinationController.getAttractions(location, country);
+                destinationController.getAttractions(location, country, false);
 
         // Then
         assertNotNull(response);
@@ -125,7 +138,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<TravelDestination>> response = 
-                destinationController.getDestinationDetailsPost(request);
+                destinationController.getDestinationDetailsPost(request, false);
 
         // Then
         assertNotNull(response);
@@ -136,6 +149,22 @@ class DestinationControllerTest {
         assertEquals(expectedDestination, response.getBody().getData());
 
         verify(travelDestinationService).getDestinationDetails(request.getLocation(), request.getCountry());
+        verify(hotKeyTracker, times(1)).record(request.getLocation(), request.getCountry());
+    }
+
+    @Test
+    @DisplayName("Should not count warm-up requests towards the hot keys")
+    void shouldNotRecordSyntheticRequests() throws Exception {
+        // Given
+        when(travelDestinationService.getAttractions("Rocky Mountain", "USA")).thenReturn("Bear Lake");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(StartupWarmUp.SYNTHETIC_REQUEST_HEADER, "true"))
+                .andExpect(status().isOk());
+        verify(hotKeyTracker, never()).record(anyString(), anyString());
     }
 
     @Test
@@ -153,6 +182,24 @@ class DestinationControllerTest {
         assertEquals("OK", response.getBody().getData());
     }
 
+    @Test
+    @DisplayName("Should report the cached upstream probe result")
+    void shouldReportUpstreamProbeResult() {
+        // Given
+        when(upstreamHealthProber.isEnabled()).thenReturn(true);
+        when(upstreamHealthProber.getLastResult()).thenReturn(new UpstreamHealthProber.ProbeResult(
+                UpstreamHealthProber.Status.DOWN, System.currentTimeMillis(), 1000, 0, 4, "Connection refused"));
+
+        // When
+        ResponseEntity<ApiResponse<String>> response = destinationController.health();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("DEGRADED", response.getBody().getData());
+        assertTrue(response.getBody().getMessage().contains("Connection refused"));
+    }
+
     @Test
     @DisplayName("Should handle service exception in getDestinationDetails")
     void shouldHandleServiceExceptionInGetDestinationDetails() {
@@ -166,7 +213,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<TravelDestination>> response = 
-                destinationController.getDestinationDetails(location, country);
+                destinationController.getDestinationDetails(location, country, false);
 
         // Then
         assertNotNull(response);
@@ -191,7 +238,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<String>> response = 
-                destinationController.getAttractions(location, country);
+                destinationController.getAttractions(location, country, false);
 
         // Then
         assertNotNull(response);
@@ -215,7 +262,7 @@ class DestinationControllerTest {
 
         // When
         ResponseEntity<ApiResponse<TravelDestination>> response = 
-                destinationController.getDestinationDetailsPost(request);
+                destinationController.getDestinationDetailsPost(request, false);
 
         // Then
         assertNotNull(response);
@@ -226,4 +273,38 @@ class DestinationControllerTest {
 
         verify(travelDestinationService).getDestinationDetails(request.getLocation(), request.getCountry());
     }
+
+    @Test
+    @DisplayName("Should return 503 when the destination bulkhead is full")
+    void shouldReturnServiceUnavailableWhenBulkheadIsFull() {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"))
+                .thenThrow(BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("travelDestination")));
+
+        // When
+        ResponseEntity<ApiResponse<TravelDestination>> response =
+                destinationController.getDestinationDetails("Rocky Mountain", "USA", false);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().isSuccess());
+    }
+
+    @Test
+    @DisplayName("Should return 404 for destinations that do not exist")
+    void shouldReturnNotFoundForUnknownDestinations() {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Atlantis", "GRC"))
+                .thenThrow(new DestinationNotFoundException("Destination not found: Atlantis in GRC"));
+
+        // When
+        ResponseEntity<ApiResponse<TravelDestination>> response =
+                destinationController.getDestinationDetails("Atlantis", "GRC", false);
+
+        // Then
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Destination not found: Atlantis in GRC", response.getBody().getMessage());
+    }
 }
@@ -0,0 +1,114 @@
+package com.p.circuitbreaker.deadline;
+
+import com.p.circuitbreaker.controller.DestinationController;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Deadline Filter Tests")
+class DeadlineFilterTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DeadlineFilter filter = new DeadlineFilter(Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .addFilters(filter)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should bind the client's deadline while the request is handled")
+    void shouldBindDeadlineDuringRequest() throws Exception {
+        // Given
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        when(travelDestinationService.getAttractions("Rocky Mountain", "USA")).thenAnswer(invocation -> {
+            seen.set(Deadline.current());
+            return "Bear Lake";
+        });
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(Deadline.HEADER, "3000"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertNotNull(seen.get());
+        assertTrue(seen.get().remaining().toMillis() <= 3000);
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    @DisplayName("Should drop requests that arrive past their deadline")
+    void shouldDropExpiredRequests() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/details")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(Deadline.HEADER, "0"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(504, response.getStatus());
+        assertTrue(response.getContentAsString().contains("Request deadline exceeded"));
+        assertEquals(1.0, meterRegistry.get("travel.deadline.expired").counter().count());
+        verifyNoInteractions(travelDestinationService);
+    }
+
+    @Test
+    @DisplayName("Should serve requests whose budget is too large to add to the clock")
+    void shouldServeHugeBudgets() throws Exception {
+        // Given
+        when(travelDestinationService.getAttractions("Rocky Mountain", "USA")).thenReturn("Bear Lake");
+
+        // When
+        MockHttpServletResponse unrepresentable = mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(Deadline.HEADER, String.valueOf(Long.MAX_VALUE)))
+                .andReturn().getResponse();
+        MockHttpServletResponse overflowing = mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(Deadline.HEADER, String.valueOf(Long.MAX_VALUE / 1_000_000)))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(200, unrepresentable.getStatus());
+        assertEquals(200, overflowing.getStatus());
+    }
+}
@@ -0,0 +1,83 @@
+package com.p.circuitbreaker.deadline;
+
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Deadline Tests")
+class DeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        Deadline.clear();
+    }
+
+    @Test
+    @DisplayName("Should parse millisecond budgets and ignore anything else")
+    void shouldParseMillisecondBudgets() {
+        Deadline deadline = Deadline.parse("2500");
+
+        assertNotNull(deadline);
+        assertFalse(deadline.isExpired());
+        assertTrue(deadline.remaining().toMillis() <= 2500);
+        assertTrue(Deadline.parse("0").isExpired());
+        assertNull(Deadline.parse("2.5s"));
+        assertNull(Deadline.parse(" "));
+        assertNull(Deadline.parse(null));
+    }
+
+    @Test
+    @DisplayName("Should clamp budgets too large to represent or to add to the clock")
+    void shouldClampHugeBudgets() {
+        Deadline unrepresentable = Deadline.parse(String.valueOf(Long.MAX_VALUE));
+        Deadline overflowing = Deadline.parse(String.valueOf(Long.MAX_VALUE / 1_000_000));
+        Deadline negative = Deadline.parse(String.valueOf(Long.MIN_VALUE));
+
+        assertFalse(unrepresentable.isExpired());
+        assertEquals(Deadline.MAX_BUDGET_MILLIS, unrepresentable.remaining().toMillis(), 1_000);
+        assertFalse(overflowing.isExpired());
+        assertEquals(Deadline.MAX_BUDGET_MILLIS, overflowing.remaining().toMillis(), 1_000);
+        assertTrue(negative.isExpired());
+    }
+
+    @Test
+    @DisplayName("Should cap timeouts at the remaining budget")
+    void shouldCapTimeouts() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(200));
+
+        assertTrue(deadline.cap(Duration.ofSeconds(10)).toMillis() <= 200);
+        assertEquals(Duration.ofMillis(50), deadline.cap(Duration.ofMillis(50)));
+        assertEquals(Duration.ZERO, Deadline.after(Duration.ofMillis(-1)).cap(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    @DisplayName("Should carry the deadline onto thread-pool bulkhead workers")
+    void shouldPropagateToBulkheadWorkers() throws Exception {
+        // Given
+        ThreadPoolBulkhead bulkhead = ThreadPoolBulkhead.of("travelDestination", ThreadPoolBulkheadConfig.custom()
+                .contextPropagator(new DeadlineContextPropagator())
+                .build());
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        Deadline.set(deadline);
+
+        try {
+            // When
+            Deadline seen = bulkhead.executeSupplier(Deadline::current).toCompletableFuture().get(5, TimeUnit.SECONDS);
+            Deadline.clear();
+            Deadline afterwards = bulkhead.executeSupplier(Deadline::current).toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertSame(deadline, seen);
+            assertNull(afterwards);
+        } finally {
+            bulkhead.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.p.circuitbreaker.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Upstream Exception Tests")
+class UpstreamExceptionTest {
+
+    @Test
+    @DisplayName("Should reuse preallocated instances for timeouts and connection failures")
+    void shouldReusePreallocatedInstances() {
+        WebClientRequestException connectionReset = new WebClientRequestException(new IOException("Connection reset"),
+                HttpMethod.GET, URI.create("http://localhost/travelDestination"), new HttpHeaders());
+
+        assertSame(UpstreamException.TIMEOUT, UpstreamException.from(new RuntimeException(new TimeoutException())));
+        assertSame(UpstreamException.CONNECTION_FAILED, UpstreamException.from(connectionReset));
+        assertTrue(UpstreamException.TIMEOUT.isRetryable());
+        assertTrue(UpstreamException.TIMEOUT.isExpected());
+    }
+
+    @Test
+    @DisplayName("Should classify error statuses without capturing a stack trace")
+    void shouldClassifyErrorStatuses() {
+        UpstreamException unavailable = UpstreamException.from(WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+        UpstreamException serverError = UpstreamException.from(WebClientResponseException.create(500, "Internal Server Error", null, null, null));
+
+        assertTrue(unavailable.isRetryable());
+        assertFalse(serverError.isRetryable());
+        assertTrue(serverError.isExpected());
+        assertEquals(0, unavailable.getStackTrace().length);
+        assertNull(unavailable.getCause());
+    }
+
+    @Test
+    @DisplayName("Should keep the cause of unknown failures")
+    void shouldKeepCauseOfUnknownFailures() {
+        IllegalStateException unknown = new IllegalStateException("codec failure");
+
+        UpstreamException exception = UpstreamException.from(unknown);
+
+        assertFalse(exception.isExpected());
+        assertFalse(exception.isRetryable());
+        assertSame(unknown, exception.getCause());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    @DisplayName("Should not accumulate suppressed exceptions on shared instances")
+    void shouldNotAccumulateSuppressedExceptions() {
+        UpstreamException.TIMEOUT.addSuppressed(new RuntimeException("other"));
+
+        assertEquals(0, UpstreamException.TIMEOUT.getSuppressed().length);
+    }
+}
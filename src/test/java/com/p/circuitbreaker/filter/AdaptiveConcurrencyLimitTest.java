@@ -0,0 +1,102 @@
+package com.p.circuitbreaker.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Adaptive Concurrency Limit Tests")
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long STEADY_RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    @DisplayName("Should reject requests above the current limit")
+    void shouldRejectAboveLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 1.5, 0.2);
+
+        // When & Then
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        limit.onSample(STEADY_RTT);
+        assertTrue(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays at its baseline")
+    void shouldGrowWhileLatencyIsSteady() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 100, 1.5, 0.2);
+
+        // When
+        runSaturated(limit, 200, STEADY_RTT);
+
+        // Then
+        assertTrue(limit.getLimit() > 10, "limit was " + limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency climbs above its baseline")
+    void shouldShrinkWhenLatencyClimbs() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 1.5, 0.2);
+        runSaturated(limit, 1000, STEADY_RTT);
+        int before = limit.getLimit();
+
+        // When
+        runSaturated(limit, 50, STEADY_RTT * 5);
+
+        // Then
+        assertTrue(limit.getLimit() < before, "limit went from " + before + " to " + limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit while most of it is unused")
+    void shouldNotGrowWhenAppLimited() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 1.5, 0.2);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onSample(STEADY_RTT);
+        }
+
+        // Then
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Should back off on drops without going below the minimum")
+    void shouldBackOffOnDrops() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 1.5, 0.2);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onDropped();
+        }
+
+        // Then
+        assertEquals(5, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * Keep the limit full and complete one request at a time with the given latency.
+     */
+    private static void runSaturated(AdaptiveConcurrencyLimit limit, int requests, long rttNanos) {
+        for (int i = 0; i < requests; i++) {
+            while (limit.tryAcquire()) {
+                // fill up to the current limit
+            }
+            limit.onSample(rttNanos);
+        }
+    }
+}
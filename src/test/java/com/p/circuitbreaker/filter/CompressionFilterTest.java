@@ -0,0 +1,154 @@
+package com.p.circuitbreaker.filter;
+
+import com.p.circuitbreaker.controller.DestinationController;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Compression Filter Tests")
+class CompressionFilterTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CompressionFilter filter = new CompressionFilter(true, 256, 6, 2, "application/json", meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .addFilters(filter)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should gzip large JSON responses when the client accepts gzip")
+    void shouldGzipLargeResponses() throws Exception {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"))
+                .thenReturn(destinationWithDescription("Alpine lakes and wildlife. ".repeat(40)));
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/details")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        String body = gunzip(response.getContentAsByteArray());
+        assertTrue(body.contains("\"destinationId\":\"DEST001\""));
+        assertEquals(1, meterRegistry.get("travel.compression.ratio").summary().count());
+        assertTrue(meterRegistry.get("travel.compression.ratio").summary().max() < 1.0);
+    }
+
+    @Test
+    @DisplayName("Should leave small responses uncompressed")
+    void shouldSkipSmallResponses() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/health")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse();
+
+        // Then
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentAsString().contains("Service is healthy"));
+        assertEquals(1.0, meterRegistry.get("travel.compression.skipped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not compress when the client does not accept gzip")
+    void shouldNotCompressWithoutAcceptEncoding() throws Exception {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"))
+                .thenReturn(destinationWithDescription("Alpine lakes and wildlife. ".repeat(40)));
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/details")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA"))
+                .andReturn().getResponse();
+
+        // Then
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentAsString().contains("DEST001"));
+    }
+
+    @Test
+    @DisplayName("Should honour quality values in Accept-Encoding")
+    void shouldHonourQualityValues() {
+        assertTrue(CompressionFilter.acceptsGzip("gzip"));
+        assertTrue(CompressionFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(CompressionFilter.acceptsGzip("*"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("*, gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("identity"));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+    }
+
+    @Test
+    @DisplayName("Should reuse pooled deflaters across compressions")
+    void shouldReusePooledDeflaters() throws Exception {
+        // Given
+        GzipCompressor compressor = new GzipCompressor(6, 1);
+        byte[] input = "Trail Ridge Road, Bear Lake. ".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        // When
+        byte[] first = compressor.compress(input);
+        byte[] second = compressor.compress(input);
+
+        // Then
+        assertArrayEquals(first, second);
+        assertEquals(new String(input, StandardCharsets.UTF_8), gunzip(first));
+        assertEquals(1, compressor.idleCount());
+    }
+
+    private static TravelDestination destinationWithDescription(String description) {
+        return TravelDestination.builder()
+                .destinationId("DEST001")
+                .name("Rocky Mountain")
+                .country("USA")
+                .city("Estes Park")
+                .description(description)
+                .category("National Park")
+                .bestSeasonToVisit("Summer")
+                .attractions("Trail Ridge Road, Bear Lake")
+                .build();
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.p.circuitbreaker.filter;
+
+import com.p.circuitbreaker.controller.DestinationController;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Concurrency Limit Filter Tests")
+class ConcurrencyLimitFilterTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    private static final int ROUNDS = 20;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter filter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        mockMvc = mockMvc(1);
+    }
+
+    @Test
+    @DisplayName("Should admit requests below the limit and release their permit")
+    void shouldAdmitRequestsBelowLimit() throws Exception {
+        // Given
+        when(travelDestinationService.getAttractions("Rocky Mountain", "USA")).thenReturn("Bear Lake");
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(0, filter.getLimit().getInFlight());
+    }
+
+    @Test
+    @DisplayName("Should shed requests with 503 once the limit is reached")
+    void shouldShedRequestsAtLimit() throws Exception {
+        // Given
+        assertTrue(filter.getLimit().tryAcquire());
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/attractions")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("Server is at capacity"));
+        assertEquals(1.0, meterRegistry.get("travel.concurrency.shed").tag("tier", "batch").counter().count());
+        verifyNoInteractions(travelDestinationService);
+    }
+
+    @Test
+    @DisplayName("Should never shed the health endpoint")
+    void shouldNotShedHealthEndpoint() throws Exception {
+        // Given
+        assertTrue(filter.getLimit().tryAcquire());
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/health"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should shed batch traffic first and keep critical traffic flowing under sustained overload")
+    void shouldShedLowestTierFirstUnderOverload() throws Exception {
+        // Given
+        mockMvc = mockMvc(10);
+        when(travelDestinationService.getAttractions(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return "Bear Lake";
+        });
+        when(travelDestinationService.getDestinationDetails(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return TravelDestination.builder().destinationId("DEST001").build();
+        });
+        ExecutorService clients = Executors.newFixedThreadPool(21);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> load = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 10; i++) {
+                load.add(clients.submit(() -> sendRequests(start, get("/api/v1/destinations/attractions"))));
+                load.add(clients.submit(() -> sendRequests(start, get("/api/v1/destinations/details"))));
+            }
+            load.add(clients.submit(() -> sendRequests(start, get("/api/v1/destinations/details")
+                    .header(LoadSheddingPolicy.CLIENT_ID_HEADER, "ops-console"))));
+            start.countDown();
+            for (Future<?> future : load) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        // Then
+        double batchShedRatio = shedRatio("batch");
+        double interactiveShedRatio = shedRatio("interactive");
+        assertTrue(batchShedRatio > interactiveShedRatio,
+                "batch shed " + batchShedRatio + ", interactive shed " + interactiveShedRatio);
+        assertEquals(0.0, meterRegistry.get("travel.concurrency.shed").tag("tier", "critical").counter().count());
+        assertEquals(ROUNDS, meterRegistry.get("travel.concurrency.latency").tag("tier", "critical").timer().count());
+    }
+
+    private Void sendRequests(CountDownLatch start, MockHttpServletRequestBuilder request) throws Exception {
+        start.await();
+        for (int i = 0; i < ROUNDS; i++) {
+            mockMvc.perform(request.param("location", "Rocky Mountain").param("country", "USA"));
+        }
+        return null;
+    }
+
+    private double shedRatio(String tier) {
+        double shed = meterRegistry.get("travel.concurrency.shed").tag("tier", tier).counter().count();
+        double admitted = meterRegistry.get("travel.concurrency.admitted").tag("tier", tier).counter().count();
+        return shed / (shed + admitted);
+    }
+
+    private MockMvc mockMvc(int fixedLimit) {
+        LoadSheddingPolicy policy = new LoadSheddingPolicy(List.of("details:INTERACTIVE", "attractions:BATCH"),
+                List.of("ops-console:CRITICAL"), RequestPriority.INTERACTIVE, 1.0, 0.9, 0.6);
+        filter = new ConcurrencyLimitFilter(true, fixedLimit, fixedLimit, fixedLimit, 1.5, 0.2, policy,
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        return MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .addFilters(filter)
+                .build();
+    }
+}
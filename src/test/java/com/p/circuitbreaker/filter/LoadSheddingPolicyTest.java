@@ -0,0 +1,77 @@
+package com.p.circuitbreaker.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Load Shedding Policy Tests")
+class LoadSheddingPolicyTest {
+
+    private final LoadSheddingPolicy policy = new LoadSheddingPolicy(
+            List.of("details:INTERACTIVE", "attractions:BATCH"),
+            List.of("ops-console:CRITICAL", "nightly-import:BATCH"),
+            RequestPriority.INTERACTIVE, 1.0, 0.9, 0.6);
+
+    @Test
+    @DisplayName("Should classify requests by endpoint")
+    void shouldClassifyByEndpoint() {
+        assertEquals(RequestPriority.INTERACTIVE, policy.classify(request("/api/v1/destinations/details")));
+        assertEquals(RequestPriority.BATCH, policy.classify(request("/api/v1/destinations/attractions")));
+        assertEquals(RequestPriority.INTERACTIVE, policy.classify(request("/api/v1/destinations/unknown")));
+    }
+
+    @Test
+    @DisplayName("Should classify known clients by identity")
+    void shouldClassifyByClientIdentity() {
+        // Given
+        MockHttpServletRequest critical = request("/api/v1/destinations/attractions");
+        critical.addHeader(LoadSheddingPolicy.CLIENT_ID_HEADER, "ops-console");
+        MockHttpServletRequest batch = request("/api/v1/destinations/details");
+        batch.addHeader(LoadSheddingPolicy.CLIENT_ID_HEADER, "nightly-import");
+
+        // When & Then
+        assertEquals(RequestPriority.CRITICAL, policy.classify(critical));
+        assertEquals(RequestPriority.BATCH, policy.classify(batch));
+    }
+
+    @Test
+    @DisplayName("Should let the priority header lower but never raise a tier")
+    void shouldOnlyLowerTierFromHeader() {
+        // Given
+        MockHttpServletRequest bulk = request("/api/v1/destinations/details");
+        bulk.addHeader(LoadSheddingPolicy.PRIORITY_HEADER, "batch");
+        MockHttpServletRequest escalated = request("/api/v1/destinations/attractions");
+        escalated.addHeader(LoadSheddingPolicy.PRIORITY_HEADER, "critical");
+
+        // When & Then
+        assertEquals(RequestPriority.BATCH, policy.classify(bulk));
+        assertEquals(RequestPriority.BATCH, policy.classify(escalated));
+    }
+
+    @Test
+    @DisplayName("Should reserve the top of the limit for higher tiers")
+    void shouldReserveCapacityForHigherTiers() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 10, 10, 1.5, 0.2);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limit.tryAcquire(policy.share(RequestPriority.BATCH)));
+        }
+
+        // When & Then
+        assertFalse(limit.tryAcquire(policy.share(RequestPriority.BATCH)));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire(policy.share(RequestPriority.INTERACTIVE)));
+        }
+        assertFalse(limit.tryAcquire(policy.share(RequestPriority.INTERACTIVE)));
+        assertTrue(limit.tryAcquire(policy.share(RequestPriority.CRITICAL)));
+        assertFalse(limit.tryAcquire(policy.share(RequestPriority.CRITICAL)));
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
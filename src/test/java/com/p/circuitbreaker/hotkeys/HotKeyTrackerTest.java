@@ -0,0 +1,144 @@
+package com.p.circuitbreaker.hotkeys;
+
+import com.p.circuitbreaker.cache.DestinationKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Hot Key Tracker Tests")
+class HotKeyTrackerTest {
+
+    @Test
+    @DisplayName("Should find the heaviest destinations in a long tail of one-off keys")
+    void shouldFindHeavyHittersInLongTail() {
+        // Given
+        HotKeyTracker tracker = tracker(3);
+        long start = System.currentTimeMillis();
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            tracker.record(DestinationKey.of("Place " + i, "USA"), start);
+            if (i % 5 == 0) {
+                tracker.record(DestinationKey.of("Paris", "France"), start);
+            }
+            if (i % 10 == 0) {
+                tracker.record(DestinationKey.of("Rome", "Italy"), start);
+            }
+        }
+        List<HotKeyTracker.HotKey> hotKeys = tracker.topK(2, start + 10_000);
+
+        // Then
+        assertEquals(2, hotKeys.size());
+        assertEquals("paris", hotKeys.get(0).location());
+        assertEquals("rome", hotKeys.get(1).location());
+        assertTrue(hotKeys.get(0).estimatedCount() >= 1000);
+        assertEquals(100.0, hotKeys.get(0).ratePerSecond(), 10.0);
+        assertEquals(1000.0 / 6500, hotKeys.get(0).share(), 0.02);
+    }
+
+    @Test
+    @DisplayName("Should follow traffic shifts across windows")
+    void shouldFollowTrafficShifts() {
+        // Given
+        HotKeyTracker tracker = tracker(2);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            tracker.record(DestinationKey.of("Paris", "France"), start);
+        }
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            tracker.record(DestinationKey.of("Rome", "Italy"), start + 60_000);
+        }
+        List<HotKeyTracker.HotKey> overlapping = tracker.topK(2, start + 61_000);
+        for (int i = 0; i < 10; i++) {
+            tracker.record(DestinationKey.of("Rome", "Italy"), start + 120_000);
+        }
+        List<HotKeyTracker.HotKey> shifted = tracker.topK(2, start + 121_000);
+
+        // Then
+        assertEquals(2, overlapping.size());
+        assertEquals(100, overlapping.get(0).estimatedCount());
+        assertEquals(1, shifted.size());
+        assertEquals("rome", shifted.get(0).location());
+        assertEquals(110, shifted.get(0).estimatedCount());
+    }
+
+    @Test
+    @DisplayName("Should count concurrent lookups without losing any")
+    void shouldCountConcurrentLookups() throws InterruptedException {
+        // Given
+        HotKeyTracker tracker = tracker(5);
+        long now = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                await(start);
+                for (int i = 0; i < 1000; i++) {
+                    tracker.record(DestinationKey.of("Paris", "France"), now);
+                    tracker.record(DestinationKey.of("Place " + thread + "-" + i, "USA"), now);
+                }
+            });
+        }
+
+        // When
+        tasks.forEach(executor::execute);
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(16_000, tracker.total());
+        HotKeyTracker.HotKey top = tracker.topK(1, now).get(0);
+        assertEquals("paris", top.location());
+        assertTrue(top.estimatedCount() >= 8000);
+    }
+
+    @Test
+    @DisplayName("Should record nothing when disabled")
+    void shouldRecordNothingWhenDisabled() {
+        HotKeyTracker tracker = new HotKeyTracker(false, 3, Duration.ofSeconds(60), 1024, 4, new SimpleMeterRegistry());
+
+        tracker.record("Paris", "France");
+
+        assertEquals(0, tracker.total());
+        assertTrue(tracker.topK(3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative limit at the endpoint")
+    void shouldRejectNegativeLimit() {
+        // Given
+        HotKeyEndpoint endpoint = new HotKeyEndpoint(tracker(3));
+
+        // When & Then
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.hotKeys(-1));
+        assertEquals(List.of(), endpoint.hotKeys(0).get("hotKeys"));
+    }
+
+    private static HotKeyTracker tracker(int topK) {
+        return new HotKeyTracker(true, topK, Duration.ofSeconds(60), 1024, 4, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.p.circuitbreaker.integration;
+
+import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "resilience4j.ratelimiter.instances.travelAttractions.limitForPeriod=1",
+        "resilience4j.ratelimiter.instances.travelAttractions.timeout-duration=0",
+        "resilience4j.ratelimiter.instances.travelAttractions.limitRefreshPeriod=1m",
+        "travel.health-probe.enabled=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Rate Limiter JFR Event Integration Tests")
+class RateLimiterEventIntegrationTest {
+
+    private static final UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ZERO);
+
+    @Autowired
+    private TravelDestinationService travelDestinationService;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("travel.service.url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    @DisplayName("Should record a granted and a refused permit of the real rate limiter aspect")
+    void shouldRecordPermitOutcomesThroughTheAspect(@TempDir Path directory) throws Exception {
+        // Given
+        Path file = directory.resolve("limiter.jfr");
+        List<RecordedEvent> events;
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable("com.p.circuitbreaker.RateLimiterWait");
+            recording.start();
+            String granted = travelDestinationService.getAttractions("Banff", "Canada");
+            String refused = travelDestinationService.getAttractions("Jasper", "Canada");
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("com.p.circuitbreaker.RateLimiterWait"))
+                    .toList();
+
+            // Then
+            assertEquals(UpstreamSimulator.attractionsFor("Banff"), granted);
+            assertNotEquals(UpstreamSimulator.attractionsFor("Jasper"), refused);
+        }
+        assertEquals(2, events.size());
+        RecordedEvent first = event(events, "Banff");
+        assertEquals("travelAttractions", first.getString("limiter"));
+        assertTrue(first.getBoolean("permitted"));
+        assertFalse(event(events, "Jasper").getBoolean("permitted"));
+        assertEquals(1, upstream.requestCount());
+    }
+
+    private static RecordedEvent event(List<RecordedEvent> events, String destination) {
+        return events.stream()
+                .filter(event -> destination.equals(event.getString("destination")))
+                .findFirst()
+                .orElseThrow();
+    }
+}
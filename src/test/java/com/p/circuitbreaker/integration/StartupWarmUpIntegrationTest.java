@@ -0,0 +1,87 @@
+package com.p.circuitbreaker.integration;
+
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import com.p.circuitbreaker.warmup.StartupWarmUp;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "travel.warmup.enabled=true",
+        "travel.warmup.upstream-connections=0",
+        "travel.warmup.destinations=Banff:Canada",
+        "travel.warmup.synthetic-requests=50",
+        "travel.warmup.time-budget=30s",
+        "travel.snapshot.enabled=true",
+        "travel.health-probe.enabled=false"
+})
+@ActiveProfiles("test")
+@DisplayName("Startup Warm-Up Integration Tests")
+class StartupWarmUpIntegrationTest {
+
+    private static final UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ZERO);
+
+    @TempDir
+    static Path snapshotDirectory;
+
+    @Autowired
+    private StartupWarmUp startupWarmUp;
+
+    @Autowired
+    private HotKeyTracker hotKeyTracker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void warmUpProperties(DynamicPropertyRegistry registry) {
+        registry.add("travel.service.url", upstream::baseUrl);
+        registry.add("travel.snapshot.path", () -> snapshotDirectory.resolve("warm-up.snapshot").toString());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    @DisplayName("Should drive synthetic requests through the server without reaching the upstream or the hot keys")
+    void shouldSendSyntheticRequestsThroughTheServer() throws InterruptedException {
+        // When
+        Health health = awaitReady(Duration.ofSeconds(30));
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("COMPLETE", String.valueOf(health.getDetails().get("phase")));
+        assertEquals("1/1", health.getDetails().get("prefetchedDestinations"));
+        assertEquals("50/50", health.getDetails().get("syntheticRequests"));
+        assertEquals(1, upstream.requestCount());
+        assertTrue(meterRegistry.get("travel.snapshot.lookups").tag("result", "hit").counter().count() >= 50);
+        assertEquals(0, hotKeyTracker.total());
+    }
+
+    private Health awaitReady(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Health health = startupWarmUp.health();
+        while (health.getStatus() != Status.UP && System.nanoTime() - deadline < 0) {
+            Thread.sleep(20);
+            health = startupWarmUp.health();
+        }
+        return health;
+    }
+}
@@ -0,0 +1,123 @@
+package com.p.circuitbreaker.jfr;
+
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JFR Recording Endpoint Tests")
+class JfrRecordingEndpointTest {
+
+    private JfrRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new JfrRecordingEndpoint(Duration.ofMinutes(1), DataSize.ofMegabytes(10), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.recordings().forEach(recording -> endpoint.close((Long) recording.get("id")));
+    }
+
+    @Test
+    @DisplayName("Should capture upstream calls, breaker transitions, limiter waits and fallbacks")
+    void shouldCaptureApplicationEvents() throws IOException {
+        // Given
+        long id = (Long) endpoint.start(Duration.ofSeconds(30), null).get("id");
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("jfrTest", CircuitBreakerConfig.ofDefaults());
+        JfrEventConfig.subscribe(circuitBreaker);
+
+        // When
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ZERO, HttpProtocol.HTTP11)) {
+            WebClient.builder()
+                    .baseUrl(upstream.baseUrl())
+                    .filter(new UpstreamCallEventFilter())
+                    .build()
+                    .get()
+                    .uri("/travelDestination?destinationId={destinationId}&country={country}", "New York", "USA")
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block();
+        }
+        circuitBreaker.transitionToOpenState();
+        RateLimiterEvent limiterWait = new RateLimiterEvent();
+        limiterWait.begin();
+        RateLimiterEvent.commit(limiterWait, "travelAttractions", "Paris", "France", false);
+        FallbackEvent.record("travelAttractions", "Paris", "France",
+                RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("travelAttractions")));
+        List<RecordedEvent> events = read(endpoint.dump(id));
+
+        // Then
+        RecordedEvent upstreamCall = only(events, "com.p.circuitbreaker.UpstreamCall");
+        assertEquals("travelDestination", upstreamCall.getString("operation"));
+        assertEquals("New York", upstreamCall.getString("destination"));
+        assertEquals("USA", upstreamCall.getString("country"));
+        assertEquals("200", upstreamCall.getString("status"));
+
+        RecordedEvent transition = only(events, "com.p.circuitbreaker.CircuitTransition");
+        assertEquals("jfrTest", transition.getString("breaker"));
+        assertEquals("CLOSED", transition.getString("fromState"));
+        assertEquals("OPEN", transition.getString("toState"));
+
+        RecordedEvent wait = only(events, "com.p.circuitbreaker.RateLimiterWait");
+        assertEquals("travelAttractions", wait.getString("limiter"));
+        assertFalse(wait.getBoolean("permitted"));
+
+        RecordedEvent fallback = only(events, "com.p.circuitbreaker.Fallback");
+        assertEquals("travelAttractions", fallback.getString("operation"));
+        assertTrue(fallback.getString("reason").startsWith("RequestNotPermitted"));
+    }
+
+    @Test
+    @DisplayName("Should cap the duration and refuse more recordings than allowed")
+    void shouldBoundRecordings() {
+        // Given
+        Map<String, Object> started = endpoint.start(Duration.ofHours(1), "profile");
+
+        // When / Then
+        assertEquals(Duration.ofMinutes(1), started.get("duration"));
+        assertEquals(DataSize.ofMegabytes(10).toBytes(), started.get("maxSize"));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(null, null));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown settings and unknown recordings")
+    void shouldRejectUnknownSettingsAndRecordings() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.start(null, "no-such-settings"));
+        assertEquals(WebEndpointResponse.STATUS_NOT_FOUND, endpoint.dump(-1).getStatus());
+    }
+
+    private static List<RecordedEvent> read(WebEndpointResponse<Resource> dump) throws IOException {
+        assertEquals(WebEndpointResponse.STATUS_OK, dump.getStatus());
+        return RecordingFile.readAllEvents(dump.getBody().getFile().toPath());
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.p.circuitbreaker.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Log Sampler Tests")
+class LogSamplerTest {
+
+    @Test
+    @DisplayName("Should let the first events of a window through and suppress the rest")
+    void shouldSuppressEventsBeyondPermits() {
+        // Given
+        LogSampler sampler = new LogSampler(2, Duration.ofMinutes(1));
+
+        // When & Then
+        assertEquals(0, sampler.tryAcquire());
+        assertEquals(0, sampler.tryAcquire());
+        assertEquals(-1, sampler.tryAcquire());
+        assertEquals(-1, sampler.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Should report the suppressed count with the first event of the next window")
+    void shouldReportSuppressedCountInNextWindow() throws Exception {
+        // Given
+        LogSampler sampler = new LogSampler(1, Duration.ofMillis(20));
+        sampler.tryAcquire();
+        for (int i = 0; i < 7; i++) {
+            sampler.tryAcquire();
+        }
+
+        // When
+        Thread.sleep(40);
+        long suppressed = sampler.tryAcquire();
+
+        // Then
+        assertEquals(7, suppressed);
+        assertEquals(" (7 similar messages suppressed)", LogSampler.summary(suppressed));
+        assertEquals("", LogSampler.summary(0));
+    }
+}
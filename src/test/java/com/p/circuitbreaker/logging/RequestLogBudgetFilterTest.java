@@ -0,0 +1,101 @@
+package com.p.circuitbreaker.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Request Log Budget Tests")
+class RequestLogBudgetFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Logger logger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        LoggerContext context = new LoggerContext();
+        context.addTurboFilter(new RequestLogBudgetTurboFilter());
+        logger = context.getLogger("request-path");
+        logger.setLevel(Level.INFO);
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestLogBudget.close();
+    }
+
+    @Test
+    @DisplayName("Should drop info events over the request budget and count them")
+    void shouldDropEventsOverBudget() throws Exception {
+        // Given
+        RequestLogBudgetFilter filter = new RequestLogBudgetFilter(true, 3, meterRegistry);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/destinations/details"), new MockHttpServletResponse(),
+                new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+                    @Override
+                    protected void doGet(jakarta.servlet.http.HttpServletRequest req,
+                                         jakarta.servlet.http.HttpServletResponse resp) {
+                        for (int i = 0; i < 5; i++) {
+                            logger.info("Attempt {}", i);
+                        }
+                        logger.warn("Upstream call failed");
+                    }
+                }));
+
+        // Then
+        List<String> messages = appender.list.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertEquals(List.of("Attempt 0", "Attempt 1", "Attempt 2", "Upstream call failed"), messages);
+        assertEquals(2.0, meterRegistry.get("travel.logging.request-budget.dropped").counter().count());
+        assertNull(RequestLogBudget.current());
+    }
+
+    @Test
+    @DisplayName("Should not consume the budget for disabled levels or level checks")
+    void shouldIgnoreDisabledLevelsAndLevelChecks() {
+        // Given
+        RequestLogBudget budget = RequestLogBudget.open(1);
+
+        // When
+        logger.debug("Not enabled");
+        logger.isInfoEnabled();
+        logger.info("Logged");
+        logger.info("Dropped");
+
+        // Then
+        assertEquals(1, budget.getUsed());
+        assertEquals(1, budget.getDropped());
+        assertEquals(1, appender.list.size());
+    }
+
+    @Test
+    @DisplayName("Should not limit logging outside a request")
+    void shouldNotLimitLoggingOutsideRequest() {
+        // When
+        for (int i = 0; i < 50; i++) {
+            logger.info("Background event {}", i);
+        }
+
+        // Then
+        assertEquals(50, appender.list.size());
+    }
+}
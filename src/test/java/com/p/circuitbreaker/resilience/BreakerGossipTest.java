@@ -0,0 +1,196 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Breaker Gossip Tests")
+class BreakerGossipTest {
+
+    private static final String BREAKER = "travelDestination";
+
+    private final List<BreakerGossip> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(BreakerGossip::stop);
+    }
+
+    @Test
+    @DisplayName("Should open the breaker on every peer when one node opens it")
+    void shouldOpenFleetWide() throws Exception {
+        // Given
+        int[] ports = freePorts(3);
+        List<CircuitBreakerRegistry> registries = List.of(registry(), registry(), registry());
+        for (int i = 0; i < 3; i++) {
+            startNode("node-" + i, ports, i, registries.get(i), 2);
+        }
+
+        // When
+        registries.get(0).circuitBreaker(BREAKER).transitionToOpenState();
+
+        // Then
+        awaitTrue(() -> state(registries.get(1)) == CircuitBreaker.State.OPEN
+                && state(registries.get(2)) == CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("Should open once the failures seen across the fleet exceed the threshold")
+    void shouldOpenOnFleetWideFailureRate() throws Exception {
+        // Given
+        int[] ports = freePorts(2);
+        CircuitBreakerRegistry first = registry();
+        CircuitBreakerRegistry second = registry();
+        BreakerGossip firstNode = startNode("node-0", ports, 0, first, 2);
+        BreakerGossip secondNode = startNode("node-1", ports, 1, second, 2);
+
+        // When: each node has failed fewer calls than its own minimum of 10
+        for (int i = 0; i < 6; i++) {
+            first.circuitBreaker(BREAKER).onError(1, TimeUnit.MILLISECONDS, new IOException("connection reset"));
+            second.circuitBreaker(BREAKER).onError(1, TimeUnit.MILLISECONDS, new IOException("connection reset"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, state(first));
+        firstNode.heartbeat();
+        secondNode.heartbeat();
+
+        // Then
+        awaitTrue(() -> state(first) == CircuitBreaker.State.OPEN && state(second) == CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    @DisplayName("Should stay open instead of probing while enough peers are already half-open")
+    void shouldLimitConcurrentProbers() throws Exception {
+        // Given
+        int[] ports = freePorts(2);
+        CircuitBreakerRegistry registry = registry();
+        BreakerGossip node = startNode("node-0", ports, 0, registry, 1);
+        node.onPeerMessage(new GossipMessage("node-1", BREAKER, CircuitBreaker.State.HALF_OPEN, 0, 0,
+                System.currentTimeMillis()));
+        registry.circuitBreaker(BREAKER).transitionToOpenState();
+
+        // When
+        registry.circuitBreaker(BREAKER).transitionToHalfOpenState();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, state(registry));
+        assertEquals(1, node.livePeers(BREAKER));
+    }
+
+    @Test
+    @DisplayName("Should probe early after a peer recovers only while few enough peers are probing")
+    void shouldLimitEarlyProbersAfterPeerRecovery() throws Exception {
+        // Given
+        int[] ports = freePorts(3);
+        CircuitBreakerRegistry registry = registry();
+        BreakerGossip node = startNode("node-0", ports, 0, registry, 1);
+        registry.circuitBreaker(BREAKER).transitionToOpenState();
+        long now = System.currentTimeMillis();
+        node.onPeerMessage(new GossipMessage("node-1", BREAKER, CircuitBreaker.State.HALF_OPEN, 0, 0, now));
+        node.onPeerMessage(new GossipMessage("node-2", BREAKER, CircuitBreaker.State.HALF_OPEN, 0, 0, now));
+
+        // When: node-1 recovers while node-2 is still probing
+        node.onPeerMessage(new GossipMessage("node-1", BREAKER, CircuitBreaker.State.CLOSED, 0, 0, now + 1));
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, state(registry));
+
+        // When: node-2 recovers too, leaving no prober
+        node.onPeerMessage(new GossipMessage("node-2", BREAKER, CircuitBreaker.State.CLOSED, 0, 0, now + 2));
+
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, state(registry));
+    }
+
+    @Test
+    @DisplayName("Should judge peer liveness by local receive time, not the peer's clock")
+    void shouldIgnorePeerClockSkew() throws Exception {
+        // Given
+        int[] ports = freePorts(3);
+        BreakerGossip node = startNode("node-0", ports, 0, registry(), 1);
+        long hourAgo = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+
+        // When: node-1's clock is an hour behind; node-2's last message arrived an hour ago
+        node.onPeerMessage(new GossipMessage("node-1", BREAKER, CircuitBreaker.State.CLOSED, 0, 0, hourAgo));
+        node.onPeerMessage(new GossipMessage("node-2", BREAKER, CircuitBreaker.State.CLOSED, 0, 0,
+                System.currentTimeMillis()), System.nanoTime() - TimeUnit.HOURS.toNanos(1));
+
+        // Then
+        assertEquals(1, node.livePeers(BREAKER));
+    }
+
+    @Test
+    @DisplayName("Should round-trip gossip messages and reject foreign datagrams")
+    void shouldEncodeAndDecodeMessages() {
+        GossipMessage message = new GossipMessage("node-1", BREAKER, CircuitBreaker.State.HALF_OPEN, 7, 3, 42L);
+        byte[] data = message.encode();
+
+        assertEquals(message, GossipMessage.decode(data, data.length));
+        assertNull(GossipMessage.decode(data, data.length - 4));
+        assertNull(GossipMessage.decode(new byte[]{1, 2, 3, 4, 5}, 5));
+    }
+
+    private BreakerGossip startNode(String nodeId, int[] ports, int index, CircuitBreakerRegistry registry,
+                                    int maxHalfOpenNodes) throws Exception {
+        List<String> peers = new ArrayList<>();
+        for (int i = 0; i < ports.length; i++) {
+            if (i != index) {
+                peers.add("127.0.0.1:" + ports[i]);
+            }
+        }
+        BreakerGossip node = new BreakerGossip(true, nodeId, "127.0.0.1", ports[index], peers, List.of(BREAKER),
+                Duration.ofSeconds(10), maxHalfOpenNodes, registry, new SimpleMeterRegistry());
+        node.start();
+        nodes.add(node);
+        return node;
+    }
+
+    private static CircuitBreakerRegistry registry() {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+    }
+
+    private static CircuitBreaker.State state(CircuitBreakerRegistry registry) {
+        return registry.circuitBreaker(BREAKER).getState();
+    }
+
+    private static int[] freePorts(int count) throws IOException {
+        int[] ports = new int[count];
+        List<DatagramSocket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                DatagramSocket socket = new DatagramSocket(0);
+                sockets.add(socket);
+                ports[i] = socket.getLocalPort();
+            }
+        } finally {
+            sockets.forEach(DatagramSocket::close);
+        }
+        return ports;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+}
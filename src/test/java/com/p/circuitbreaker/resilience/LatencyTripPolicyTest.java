@@ -0,0 +1,143 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Latency Trip Policy Tests")
+class LatencyTripPolicyTest {
+
+    private static final String BREAKER = "travelDestination";
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private LatencyTripPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        meterRegistry = new SimpleMeterRegistry();
+        policy = new LatencyTripPolicy(true, BREAKER, 0.99, Duration.ofMillis(500), Duration.ofSeconds(10),
+                Duration.ofSeconds(60), 20, circuitBreakerRegistry, meterRegistry);
+        policy.subscribe();
+    }
+
+    @Test
+    @DisplayName("Should bucket latencies within a few percent of their value")
+    void shouldReportPercentilesWithinBucketPrecision() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram(TimeUnit.MINUTES.toMicros(1), 10_000, 6);
+
+        // When
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L, 0);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(0);
+
+        // Then
+        assertEquals(1000, snapshot.totalCount());
+        assertEquals(500_000, snapshot.valueAtPercentile(0.5), 500_000 * 0.07);
+        assertEquals(990_000, snapshot.valueAtPercentile(0.99), 990_000 * 0.07);
+        assertTrue(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(12_345)) >= 12_345);
+    }
+
+    @Test
+    @DisplayName("Should forget samples once their time slice leaves the window")
+    void shouldExpireOldSlices() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram(TimeUnit.MINUTES.toMicros(1), 10_000, 6);
+        histogram.record(900_000, 0);
+
+        // When
+        histogram.record(1_000, 30_000);
+
+        // Then
+        assertEquals(2, histogram.snapshot(30_000).totalCount());
+        assertEquals(1, histogram.snapshot(65_000).totalCount());
+        assertEquals(1_000, histogram.snapshot(65_000).valueAtPercentile(0.99), 100);
+        assertEquals(0, histogram.snapshot(95_000).totalCount());
+    }
+
+    @Test
+    @DisplayName("Should open the breaker only after the percentile stays over budget for the sustain period")
+    void shouldOpenAfterSustainedBreach() {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(BREAKER);
+        for (int i = 0; i < 50; i++) {
+            circuitBreaker.onSuccess(800, TimeUnit.MILLISECONDS);
+        }
+        long now = System.currentTimeMillis();
+
+        // When
+        policy.evaluate(now);
+        boolean breaching = policy.isBreaching();
+        policy.evaluate(now + 5_000);
+        CircuitBreaker.State beforeSustain = circuitBreaker.getState();
+        policy.evaluate(now + 10_000);
+
+        // Then
+        assertTrue(breaching);
+        assertEquals(CircuitBreaker.State.CLOSED, beforeSustain);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1.0, meterRegistry.get("travel.latency-trip.trips").counter().count());
+        assertFalse(policy.isBreaching());
+    }
+
+    @Test
+    @DisplayName("Should not trip again on the samples that tripped the breaker once it has recovered")
+    void shouldNotRetripAfterRecovery() {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(BREAKER);
+        for (int i = 0; i < 50; i++) {
+            circuitBreaker.onSuccess(800, TimeUnit.MILLISECONDS);
+        }
+        long now = System.currentTimeMillis();
+        policy.evaluate(now);
+        policy.evaluate(now + 10_000);
+        CircuitBreaker.State tripped = circuitBreaker.getState();
+
+        // When
+        circuitBreaker.transitionToHalfOpenState();
+        circuitBreaker.transitionToClosedState();
+        policy.evaluate(now + 20_000);
+        policy.evaluate(now + 40_000);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, tripped);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertFalse(policy.isBreaching());
+        assertEquals(0, policy.getHistogram().snapshot(now + 40_000).totalCount());
+        assertEquals(1.0, meterRegistry.get("travel.latency-trip.trips").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should leave the breaker closed while latency is within budget or samples are too few")
+    void shouldNotOpenWithinBudget() {
+        // Given
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(BREAKER);
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.onSuccess(2, TimeUnit.SECONDS);
+        }
+        for (int i = 0; i < 990; i++) {
+            circuitBreaker.onSuccess(50, TimeUnit.MILLISECONDS);
+        }
+        long now = System.currentTimeMillis();
+
+        // When
+        policy.evaluate(now);
+        policy.evaluate(now + 20_000);
+
+        // Then
+        assertFalse(policy.isBreaching());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(50.0, meterRegistry.get("travel.upstream.latency.percentile").tag("percentile", "0.5").gauge().value(), 4);
+    }
+}
@@ -0,0 +1,153 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.service.TravelDestinationServiceImpl;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Live Reconfiguration Tests")
+class LiveReconfigurationTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private RateLimiterRegistry rateLimiterRegistry;
+    private TravelDestinationServiceImpl travelDestinationService;
+    private LiveReconfiguration reconfiguration;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreakerRegistry.circuitBreaker("travelDestination");
+        rateLimiterRegistry = RateLimiterRegistry.ofDefaults();
+        rateLimiterRegistry.rateLimiter("travelAttractions");
+        travelDestinationService = new TravelDestinationServiceImpl(WebClient.create(), rateLimiterRegistry,
+                circuitBreakerRegistry, Duration.ofSeconds(10));
+        reconfiguration = new LiveReconfiguration(circuitBreakerRegistry, rateLimiterRegistry,
+                travelDestinationService, "");
+    }
+
+    @Test
+    @DisplayName("Should swap breaker settings and keep the recorded window")
+    void shouldSwapBreakerSettingsKeepingWindow() {
+        // Given
+        CircuitBreaker before = circuitBreakerRegistry.circuitBreaker("travelDestination");
+        for (int i = 0; i < 10; i++) {
+            before.onSuccess(1, TimeUnit.MILLISECONDS);
+            before.onError(1, TimeUnit.MILLISECONDS, new IllegalStateException("upstream down"));
+        }
+        AtomicInteger transitionsSeen = new AtomicInteger();
+        circuitBreakerRegistry.getEventPublisher().onEntryReplaced(event ->
+                event.getNewEntry().getEventPublisher().onStateTransition(transition -> transitionsSeen.incrementAndGet()));
+
+        // When
+        List<LiveReconfiguration.Change> changes = reconfiguration.apply(Map.of(
+                "circuitbreaker.travelDestination.failure-rate-threshold", "80",
+                "circuitbreaker.travelDestination.sliding-window-size", "40"), "test");
+
+        // Then
+        CircuitBreaker after = circuitBreakerRegistry.circuitBreaker("travelDestination");
+        assertNotSame(before, after);
+        assertEquals(80f, after.getCircuitBreakerConfig().getFailureRateThreshold());
+        assertEquals(40, after.getCircuitBreakerConfig().getSlidingWindowSize());
+        assertEquals(20, after.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(10, after.getMetrics().getNumberOfFailedCalls());
+        assertEquals(CircuitBreaker.State.CLOSED, after.getState());
+        assertEquals(2, changes.size());
+        after.transitionToOpenState();
+        assertEquals(1, transitionsSeen.get());
+    }
+
+    @Test
+    @DisplayName("Should keep an open breaker open when it is reconfigured")
+    void shouldKeepBreakerStateAcrossReplacement() {
+        // Given
+        circuitBreakerRegistry.circuitBreaker("travelDestination").transitionToOpenState();
+
+        // When
+        reconfiguration.apply(Map.of("circuitbreaker.travelDestination.failure-rate-threshold", "30"), "test");
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("travelDestination").getState());
+    }
+
+    @Test
+    @DisplayName("Should change rate limiter and timeout settings in place and audit them")
+    void shouldChangeLimiterAndTimeoutInPlace() {
+        // Given
+        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter("travelAttractions");
+
+        // When
+        reconfiguration.apply(Map.of(
+                "ratelimiter.travelAttractions.limit-for-period", "7",
+                "ratelimiter.travelAttractions.timeout-duration", "250ms",
+                "upstream.timeout", "3s"), "endpoint");
+
+        // Then
+        assertSame(rateLimiter, rateLimiterRegistry.rateLimiter("travelAttractions"));
+        assertEquals(7, rateLimiter.getRateLimiterConfig().getLimitForPeriod());
+        assertEquals(Duration.ofMillis(250), rateLimiter.getRateLimiterConfig().getTimeoutDuration());
+        assertEquals(Duration.ofSeconds(3), travelDestinationService.getUpstreamTimeout());
+        List<LiveReconfiguration.Change> history = reconfiguration.getHistory();
+        assertEquals(3, history.size());
+        assertTrue(history.stream().allMatch(change -> change.source().equals("endpoint")));
+        assertTrue(history.stream().anyMatch(change -> change.key().equals("upstream.timeout")
+                && change.oldValue().equals("PT10S") && change.newValue().equals("PT3S")));
+    }
+
+    @Test
+    @DisplayName("Should apply nothing when any setting is invalid")
+    void shouldRejectInvalidChangeAsAWhole() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> reconfiguration.apply(Map.of(
+                "ratelimiter.travelAttractions.limit-for-period", "7",
+                "circuitbreaker.travelDestination.failure-rate-threshold", "150"), "test"));
+        assertThrows(IllegalArgumentException.class, () -> reconfiguration.apply(Map.of(
+                "circuitbreaker.unknown.failure-rate-threshold", "50"), "test"));
+        assertThrows(IllegalArgumentException.class, () -> reconfiguration.apply(Map.of(
+                "upstream.retries", "5"), "test"));
+        assertEquals(50, rateLimiterRegistry.rateLimiter("travelAttractions").getRateLimiterConfig().getLimitForPeriod());
+        assertEquals(50f, circuitBreakerRegistry.circuitBreaker("travelDestination")
+                .getCircuitBreakerConfig().getFailureRateThreshold());
+        assertTrue(reconfiguration.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should apply the watched file whenever it changes")
+    void shouldApplyWatchedFile(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("resilience.properties");
+        Files.writeString(file, "upstream.timeout=4s\n");
+        reconfiguration = new LiveReconfiguration(circuitBreakerRegistry, rateLimiterRegistry,
+                travelDestinationService, file.toString());
+
+        // When
+        reconfiguration.pollWatchedFile();
+        Duration first = travelDestinationService.getUpstreamTimeout();
+        Files.writeString(file, "upstream.timeout=6s\nratelimiter.travelAttractions.limit-for-period=3\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        reconfiguration.pollWatchedFile();
+
+        // Then
+        assertEquals(Duration.ofSeconds(4), first);
+        assertEquals(Duration.ofSeconds(6), travelDestinationService.getUpstreamTimeout());
+        assertEquals(3, rateLimiterRegistry.rateLimiter("travelAttractions").getRateLimiterConfig().getLimitForPeriod());
+        assertTrue(reconfiguration.getHistory().get(0).source().startsWith("file:"));
+    }
+}
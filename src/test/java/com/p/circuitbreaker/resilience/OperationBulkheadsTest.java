@@ -0,0 +1,128 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.p.circuitbreaker.resilience.OperationBulkheads.TRAVEL_ATTRACTIONS;
+import static com.p.circuitbreaker.resilience.OperationBulkheads.TRAVEL_DESTINATION;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Operation Bulkheads Tests")
+class OperationBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry = ThreadPoolBulkheadRegistry.of(
+            ThreadPoolBulkheadConfig.custom()
+                    .coreThreadPoolSize(1)
+                    .maxThreadPoolSize(1)
+                    .queueCapacity(1)
+                    .build());
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should reject immediately when the semaphore bulkhead is full")
+    void shouldRejectWhenSemaphoreBulkheadIsFull() throws Exception {
+        // Given
+        OperationBulkheads bulkheads = bulkheads(OperationBulkheads.Type.SEMAPHORE);
+        CountDownLatch started = new CountDownLatch(1);
+        Future<String> inFlight = callers.submit(() -> bulkheads.execute(TRAVEL_DESTINATION, () -> {
+            started.countDown();
+            await(release);
+            return "done";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When & Then
+        assertThrows(BulkheadFullException.class, () -> bulkheads.execute(TRAVEL_DESTINATION, () -> "rejected"));
+        assertEquals(1.0, meterRegistry.get("travel.bulkhead.rejected").tag("name", TRAVEL_DESTINATION).counter().count());
+
+        // the other operation is unaffected by the saturated one
+        assertEquals("attractions", bulkheads.execute(TRAVEL_ATTRACTIONS, () -> "attractions"));
+
+        release.countDown();
+        assertEquals("done", inFlight.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should reject once the thread-pool bulkhead queue is full")
+    void shouldRejectWhenThreadPoolQueueIsFull() throws Exception {
+        // Given
+        OperationBulkheads bulkheads = bulkheads(OperationBulkheads.Type.THREADPOOL);
+        CountDownLatch started = new CountDownLatch(1);
+        callers.submit(() -> bulkheads.execute(TRAVEL_DESTINATION, () -> {
+            started.countDown();
+            await(release);
+            return "running";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> queued = callers.submit(() -> bulkheads.execute(TRAVEL_DESTINATION, () -> "queued"));
+        awaitQueued();
+
+        // When & Then
+        assertThrows(BulkheadFullException.class, () -> bulkheads.execute(TRAVEL_DESTINATION, () -> "rejected"));
+
+        release.countDown();
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should propagate exceptions from thread-pool bulkhead calls unwrapped")
+    void shouldPropagateExceptionsUnwrapped() {
+        // Given
+        OperationBulkheads bulkheads = bulkheads(OperationBulkheads.Type.THREADPOOL);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> bulkheads.execute(TRAVEL_DESTINATION, () -> {
+                    throw new IllegalStateException("upstream failed");
+                }));
+        assertEquals("upstream failed", exception.getMessage());
+    }
+
+    private OperationBulkheads bulkheads(OperationBulkheads.Type destinationType) {
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        return new OperationBulkheads(bulkheadRegistry, threadPoolBulkheadRegistry, meterRegistry,
+                destinationType, OperationBulkheads.Type.SEMAPHORE);
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        ThreadPoolBulkhead bulkhead = threadPoolBulkheadRegistry.bulkhead(TRAVEL_DESTINATION);
+        for (int i = 0; i < 500 && bulkhead.getMetrics().getQueueDepth() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, bulkhead.getMetrics().getQueueDepth());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.p.circuitbreaker.resilience;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Recovery Ramp Tests")
+class RecoveryRampTest {
+
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private RecoveryRamp ramp;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("travelDestination");
+        meterRegistry = new SimpleMeterRegistry();
+        ramp = new RecoveryRamp(true, "travelDestination", Duration.ofSeconds(60), 0.1,
+                circuitBreakerRegistry, meterRegistry);
+        ramp.subscribe();
+    }
+
+    @Test
+    @DisplayName("Should admit every call while the breaker has not recovered from an outage")
+    void shouldAdmitAllCallsWithoutRecovery() {
+        // When
+        for (int i = 0; i < 100; i++) {
+            ramp.acquirePermission();
+        }
+
+        // Then
+        assertFalse(ramp.isRamping());
+        assertEquals(0.0, meterRegistry.get("travel.recovery-ramp.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should grow the admitted fraction linearly over the window after the breaker closes")
+    void shouldRampAdmittedFractionAfterRecovery() {
+        // Given
+        long before = System.currentTimeMillis();
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        // When & Then
+        assertTrue(ramp.isRamping());
+        assertEquals(0.1, ramp.admitFraction(before), 0.01);
+        assertEquals(0.55, ramp.admitFraction(before + 30_000), 0.01);
+        assertEquals(1.0, ramp.admitFraction(before + 61_000));
+        assertFalse(ramp.isRamping());
+    }
+
+    @Test
+    @DisplayName("Should reject most calls right after recovery with the breaker's own exception")
+    void shouldRejectMostCallsAtStartOfRamp() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        // When
+        int admitted = 0;
+        for (int i = 0; i < 1000; i++) {
+            try {
+                ramp.acquirePermission();
+                admitted++;
+            } catch (CallNotPermittedException e) {
+                assertEquals("travelDestination", e.getCausingCircuitBreakerName());
+            }
+        }
+
+        // Then
+        assertTrue(admitted > 50 && admitted < 200, "admitted " + admitted);
+        assertEquals(1000 - admitted, meterRegistry.get("travel.recovery-ramp.rejected").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should stop ramping when the breaker opens again")
+    void shouldStopRampingWhenBreakerReopens() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        // When
+        circuitBreaker.transitionToOpenState();
+
+        // Then
+        assertFalse(ramp.isRamping());
+    }
+}
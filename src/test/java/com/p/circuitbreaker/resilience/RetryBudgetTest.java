@@ -0,0 +1,62 @@
+package com.p.circuitbreaker.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Retry Budget Tests")
+class RetryBudgetTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should start full and refuse retries once drained")
+    void shouldRefuseRetriesOnceDrained() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 2, meterRegistry);
+
+        // When & Then
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        assertEquals(1.0, meterRegistry.get("travel.retry.budget.exhausted").counter().count());
+        assertEquals(0.0, meterRegistry.get("travel.retry.budget.tokens").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should earn one retry per ten calls at a ratio of 0.1")
+    void shouldEarnRetriesFromLiveTraffic() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.1, 2, meterRegistry);
+        budget.tryWithdraw();
+        budget.tryWithdraw();
+
+        // When
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+
+        // Then
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    @DisplayName("Should never hold more than max-tokens")
+    void shouldCapBalanceAtMaxTokens() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.5, 3, meterRegistry);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+        budget.refund();
+
+        // Then
+        assertEquals(3.0, budget.tokens());
+    }
+}
@@ -0,0 +1,168 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Upstream Health Prober Tests")
+class UpstreamHealthProberTest {
+
+    private static final String PROBE_PATH = "/travelDestination?destinationId=Banff&country=Canada";
+
+    private UpstreamSimulator upstream;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private CircuitBreaker circuitBreaker;
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamHealthProber prober;
+
+    @BeforeEach
+    void setUp() {
+        upstream = UpstreamSimulator.start(Duration.ZERO);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("travelDestination");
+        meterRegistry = new SimpleMeterRegistry();
+        prober = new UpstreamHealthProber(true, "travelDestination", PROBE_PATH, Duration.ofSeconds(30),
+                Duration.ofSeconds(1), 3, WebClient.create(upstream.baseUrl()), circuitBreakerRegistry, meterRegistry);
+        prober.subscribe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+    }
+
+    @Test
+    @DisplayName("Should close an open breaker after consecutive successful probes without user traffic")
+    void shouldCloseBreakerAfterSuccessfulProbes() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        prober.probe().block();
+        prober.probe().block();
+        CircuitBreaker.State afterTwo = circuitBreaker.getState();
+        UpstreamHealthProber.ProbeResult result = prober.probe().block();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, afterTwo);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(UpstreamHealthProber.Status.UP, result.status());
+        assertEquals(3, result.consecutiveSuccesses());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfBufferedCalls());
+        assertEquals(1.0, meterRegistry.get("travel.health-probe.transitions").tag("to", "closed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not let idle probes from before an outage close a newly opened breaker")
+    void shouldIgnoreIdleProbesWhenBreakerOpens() {
+        // Given: healthy idle probes while the breaker is closed
+        for (int i = 0; i < 5; i++) {
+            prober.probe().block();
+        }
+        circuitBreaker.transitionToOpenState();
+
+        // When
+        prober.probe().block();
+        prober.probe().block();
+        CircuitBreaker.State afterTwo = circuitBreaker.getState();
+        prober.probe().block();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, afterTwo);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    @DisplayName("Should restart the streak when the breaker opens again")
+    void shouldRestartStreakWhenBreakerReopens() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        prober.probe().block();
+        prober.probe().block();
+
+        // When: user traffic fails in half-open and opens the breaker again
+        circuitBreaker.transitionToOpenState();
+        prober.probe().block();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, prober.getLastResult().consecutiveSuccesses());
+    }
+
+    @Test
+    @DisplayName("Should count a 4xx answer as a failed probe")
+    void shouldCountClientErrorAsFailure() {
+        // Given
+        UpstreamHealthProber misconfigured = new UpstreamHealthProber(true, "travelDestination", "/travelDestination",
+                Duration.ofSeconds(30), Duration.ofSeconds(1), 3, WebClient.create(upstream.baseUrl()),
+                circuitBreakerRegistry, meterRegistry);
+
+        // When
+        UpstreamHealthProber.ProbeResult result = misconfigured.probe().block();
+
+        // Then
+        assertEquals(UpstreamHealthProber.Status.DOWN, result.status());
+        assertEquals("HTTP 400", result.error());
+    }
+
+    @Test
+    @DisplayName("Should keep the breaker open and reset the streak while probes fail")
+    void shouldKeepBreakerOpenWhileProbesFail() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        prober.probe().block();
+        prober.probe().block();
+        upstream.setFailureStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+
+        // When
+        UpstreamHealthProber.ProbeResult failed = prober.probe().block();
+        upstream.setFailureStatus(null);
+        prober.probe().block();
+
+        // Then
+        assertEquals(UpstreamHealthProber.Status.DOWN, failed.status());
+        assertEquals("HTTP 503", failed.error());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, prober.getLastResult().consecutiveSuccesses());
+    }
+
+    @Test
+    @DisplayName("Should send a half-open breaker back to open when a probe fails")
+    void shouldReopenHalfOpenBreakerOnFailedProbe() {
+        // Given
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+        upstream.close();
+
+        // When
+        UpstreamHealthProber.ProbeResult result = prober.probe().block();
+
+        // Then
+        assertEquals(UpstreamHealthProber.Status.DOWN, result.status());
+        assertNotNull(result.error());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1.0, meterRegistry.get("travel.health-probe.transitions").tag("to", "open").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should report unknown until the first probe completes")
+    void shouldReportUnknownBeforeFirstProbe() {
+        // When & Then
+        assertEquals(UpstreamHealthProber.Status.UNKNOWN, prober.getLastResult().status());
+        prober.probe().block();
+        assertEquals(UpstreamHealthProber.Status.UP, prober.getLastResult().status());
+        assertEquals(1, upstream.requestCount());
+    }
+}
@@ -0,0 +1,231 @@
+package com.p.circuitbreaker.resilience;
+
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Upstream Load Balancer Tests")
+class UpstreamLoadBalancerTest {
+
+    private static final String LOGICAL_URL = "http://travel-upstream" + UpstreamSimulator.CONTEXT_PATH;
+
+    private UpstreamSimulator healthy;
+    private UpstreamSimulator other;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @BeforeEach
+    void setUp() {
+        healthy = UpstreamSimulator.start(Duration.ZERO);
+        other = UpstreamSimulator.start(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    }
+
+    @AfterEach
+    void tearDown() {
+        healthy.close();
+        other.close();
+    }
+
+    @Test
+    @DisplayName("Should eject a failing instance and keep serving from the healthy one")
+    void shouldEjectFailingInstance() {
+        // Given: the failing instance answers faster, so the balancer keeps picking it until it is ejected
+        other.setFailureStatus(HttpResponseStatus.SERVICE_UNAVAILABLE);
+        healthy.setLatency(Duration.ofMillis(50));
+        UpstreamLoadBalancer balancer = balancer(UpstreamLoadBalancer.Strategy.POWER_OF_TWO_CHOICES);
+        WebClient client = client(balancer);
+
+        // When
+        int failures = 0;
+        for (int i = 0; i < 40; i++) {
+            try {
+                lookup(client);
+            } catch (RuntimeException e) {
+                failures++;
+            }
+        }
+
+        // Then
+        UpstreamEndpoint failing = endpoint(balancer, other);
+        assertTrue(failing.isEjected(System.currentTimeMillis()));
+        assertTrue(failures <= 3, "failures " + failures);
+        assertTrue(healthy.requestCount() >= 37, "healthy served " + healthy.requestCount());
+        assertEquals(CircuitBreaker.State.CLOSED, endpoint(balancer, healthy).getCircuitBreaker().getState());
+        assertEquals(1.0, meterRegistry.get("travel.upstream.endpoint.ejections")
+                .tag("endpoint", other.baseUrl()).counter().count());
+    }
+
+    @Test
+    @DisplayName("Should send most traffic to the faster instance")
+    void shouldPreferFasterInstance() {
+        // Given
+        other.setLatency(Duration.ofMillis(100));
+        WebClient client = client(balancer(UpstreamLoadBalancer.Strategy.POWER_OF_TWO_CHOICES));
+
+        // When
+        Flux.range(0, 60)
+                .flatMap(i -> client.get()
+                        .uri("/travelDestination?destinationId={name}&country={country}", "Banff", "Canada")
+                        .retrieve()
+                        .bodyToMono(TravelDestination.class), 4)
+                .blockLast(Duration.ofSeconds(30));
+
+        // Then
+        assertTrue(healthy.requestCount() > 2 * other.requestCount(),
+                "fast served " + healthy.requestCount() + ", slow served " + other.requestCount());
+    }
+
+    @Test
+    @DisplayName("Should not eject more than the allowed share of instances")
+    void shouldLimitEjectedShare() {
+        // Given
+        healthy.setFailureStatus(HttpResponseStatus.BAD_GATEWAY);
+        other.setFailureStatus(HttpResponseStatus.BAD_GATEWAY);
+        UpstreamLoadBalancer balancer = balancer(UpstreamLoadBalancer.Strategy.LEAST_OUTSTANDING);
+        WebClient client = client(balancer);
+
+        // When
+        for (int i = 0; i < 40; i++) {
+            assertThrows(RuntimeException.class, () -> lookup(client));
+        }
+        int servedBefore = healthy.requestCount() + other.requestCount();
+        assertThrows(RuntimeException.class, () -> lookup(client));
+
+        // Then: both are failing, but with one ejected the other one keeps taking requests
+        assertEquals(servedBefore + 1, healthy.requestCount() + other.requestCount());
+    }
+
+    @Test
+    @DisplayName("Should settle a call once when it is cancelled after the response arrived")
+    void shouldSettleCancelAfterResponseOnce() {
+        // Given: an exchange that answers but never completes, and a caller that cancels on the response
+        UpstreamLoadBalancer balancer = balancer(UpstreamLoadBalancer.Strategy.LEAST_OUTSTANDING);
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create(LOGICAL_URL + "/travelDestination")).build();
+        ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+        ExchangeFunction answersWithoutCompleting = routed -> Mono.fromDirect(subscriber -> {
+            subscriber.onSubscribe(Operators.emptySubscription());
+            subscriber.onNext(response);
+        });
+
+        // When
+        balancer.filter(request, answersWithoutCompleting).subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnNext(ClientResponse value) {
+                cancel();
+            }
+        });
+
+        // Then
+        for (UpstreamEndpoint endpoint : balancer.getEndpoints()) {
+            assertEquals(0, endpoint.getOutstanding(), endpoint.getBaseUrl());
+        }
+        assertEquals(1, balancer.getEndpoints().stream()
+                .mapToInt(endpoint -> endpoint.getCircuitBreaker().getMetrics().getNumberOfSuccessfulCalls())
+                .sum());
+    }
+
+    @Test
+    @DisplayName("Should eject an instance that never answers once the caller's timeouts cancel its calls")
+    void shouldEjectHungInstance() {
+        // Given
+        other.setLatency(Duration.ofMinutes(1));
+        UpstreamLoadBalancer balancer = balancer(UpstreamLoadBalancer.Strategy.LEAST_OUTSTANDING);
+        WebClient client = client(balancer);
+
+        // When
+        int timeouts = 0;
+        for (int i = 0; i < 40; i++) {
+            try {
+                client.get()
+                        .uri("/travelDestination?destinationId={name}&country={country}", "Banff", "Canada")
+                        .retrieve()
+                        .bodyToMono(TravelDestination.class)
+                        .timeout(Duration.ofMillis(100))
+                        .block(Duration.ofSeconds(5));
+            } catch (RuntimeException e) {
+                timeouts++;
+            }
+        }
+
+        // Then
+        UpstreamEndpoint hung = endpoint(balancer, other);
+        assertTrue(hung.isEjected(System.currentTimeMillis()));
+        assertEquals(3, timeouts);
+        assertEquals(3, hung.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertTrue(hung.getLatencyMillis() >= 100, "latency " + hung.getLatencyMillis());
+        assertEquals(0, hung.getOutstanding());
+        assertEquals(37, healthy.requestCount());
+    }
+
+    @Test
+    @DisplayName("Should use an endpoint breaker that was replaced in the registry")
+    void shouldUseReplacedEndpointBreaker() {
+        // Given
+        UpstreamLoadBalancer balancer = balancer(UpstreamLoadBalancer.Strategy.POWER_OF_TWO_CHOICES);
+        WebClient client = client(balancer);
+        String name = "upstream-" + URI.create(other.baseUrl()).getAuthority();
+        CircuitBreaker replacement = CircuitBreaker.ofDefaults(name);
+        replacement.transitionToForcedOpenState();
+        circuitBreakerRegistry.replace(name, replacement);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            lookup(client);
+        }
+
+        // Then
+        assertSame(replacement, endpoint(balancer, other).getCircuitBreaker());
+        assertEquals(0, other.requestCount());
+        assertEquals(10, healthy.requestCount());
+    }
+
+    private UpstreamLoadBalancer balancer(UpstreamLoadBalancer.Strategy strategy) {
+        return new UpstreamLoadBalancer(LOGICAL_URL, List.of(healthy.baseUrl(), other.baseUrl()), strategy,
+                Duration.ofSeconds(10), 3, Duration.ofMinutes(1), Duration.ofMinutes(5), 50,
+                circuitBreakerRegistry, meterRegistry);
+    }
+
+    private static WebClient client(UpstreamLoadBalancer balancer) {
+        return WebClient.builder().baseUrl(LOGICAL_URL).filter(balancer).build();
+    }
+
+    private static TravelDestination lookup(WebClient client) {
+        return client.get()
+                .uri("/travelDestination?destinationId={name}&country={country}", "Banff", "Canada")
+                .retrieve()
+                .bodyToMono(TravelDestination.class)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static UpstreamEndpoint endpoint(UpstreamLoadBalancer balancer, UpstreamSimulator simulator) {
+        return balancer.getEndpoints().stream()
+                .filter(endpoint -> endpoint.getBaseUrl().equals(simulator.baseUrl()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,248 @@
+package com.p.circuitbreaker.service;
+
+import com.p.circuitbreaker.cache.AttractionsCache;
+import com.p.circuitbreaker.cache.DestinationSnapshotStore;
+import com.p.circuitbreaker.cache.NegativeDestinationCache;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.OperationBulkheads;
+import com.p.circuitbreaker.resilience.RecoveryRamp;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Caching TravelDestinationService Tests")
+class CachingTravelDestinationServiceTest {
+
+    @Mock
+    private TravelDestinationServiceImpl delegate;
+
+    @Mock
+    private DestinationSnapshotStore snapshotStore;
+
+    private AttractionsCache attractionsCache;
+    private NegativeDestinationCache negativeCache;
+    private CircuitBreaker circuitBreaker;
+    private CachingTravelDestinationService cachingService;
+
+    @BeforeEach
+    void setUp() {
+        OperationBulkheads bulkheads = new OperationBulkheads(BulkheadRegistry.ofDefaults(),
+                ThreadPoolBulkheadRegistry.ofDefaults(), new SimpleMeterRegistry(),
+                OperationBulkheads.Type.SEMAPHORE, OperationBulkheads.Type.SEMAPHORE);
+        attractionsCache = new AttractionsCache(true, Duration.ofMinutes(10), 100, new SimpleMeterRegistry());
+        negativeCache = new NegativeDestinationCache(true, Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("travelDestination");
+        RecoveryRamp recoveryRamp = new RecoveryRamp(true, "travelDestination", Duration.ofHours(1), 0.0,
+                circuitBreakerRegistry, new SimpleMeterRegistry());
+        recoveryRamp.subscribe();
+        cachingService = new CachingTravelDestinationService(delegate, snapshotStore, attractionsCache, negativeCache,
+                bulkheads, recoveryRamp);
+    }
+
+    @Test
+    @DisplayName("Should serve snapshot records without calling the upstream")
+    void shouldServeSnapshotRecords() {
+        // Given
+        TravelDestination snapshot = destination("DEST001");
+        when(snapshotStore.find("Rocky Mountain", "USA")).thenReturn(snapshot);
+
+        // When
+        TravelDestination result = cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        assertSame(snapshot, result);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    @DisplayName("Should record destinations fetched from the upstream")
+    void shouldRecordFetchedDestinations() {
+        // Given
+        TravelDestination fetched = destination("DEST001");
+        when(delegate.getDestinationDetails("Rocky Mountain", "USA")).thenReturn(fetched);
+
+        // When
+        TravelDestination result = cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        assertSame(fetched, result);
+        verify(snapshotStore).record("Rocky Mountain", "USA", fetched);
+    }
+
+    @Test
+    @DisplayName("Should not record fallback placeholders")
+    void shouldNotRecordFallbackPlaceholders() {
+        // Given
+        when(delegate.getDestinationDetails("Rocky Mountain", "USA")).thenReturn(destination("No Details Available"));
+
+        // When
+        cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        verify(snapshotStore, never()).record(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should pass invalid input straight to the delegate")
+    void shouldPassInvalidInputToDelegate() {
+        // Given
+        when(delegate.getDestinationDetails("", "USA")).thenThrow(new IllegalArgumentException("invalid"));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> cachingService.getDestinationDetails("", "USA"));
+        verifyNoInteractions(snapshotStore);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated attraction lookups from the cache")
+    void shouldServeRepeatedAttractionLookupsFromCache() {
+        // Given
+        when(delegate.fetchAttractions("Rocky Mountain", "USA")).thenReturn(Mono.just("Bear Lake"));
+
+        // When
+        String first = cachingService.getAttractions("Rocky Mountain", "USA");
+        String second = cachingService.getAttractions(" rocky mountain ", "usa");
+
+        // Then
+        assertEquals("Bear Lake", first);
+        assertEquals("Bear Lake", second);
+        verify(delegate, times(1)).fetchAttractions(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should answer rate-limited attraction lookups with the fallback message without caching it")
+    void shouldNotCacheRateLimitedAttractions() {
+        // Given
+        RequestNotPermitted notPermitted = RequestNotPermitted.createRequestNotPermitted(RateLimiter.ofDefaults("travelAttractions"));
+        when(delegate.fetchAttractions("Rocky Mountain", "USA"))
+                .thenThrow(notPermitted)
+                .thenReturn(Mono.just("Bear Lake"));
+        when(delegate.fallbackRateLimit("Rocky Mountain", "USA", notPermitted)).thenReturn("API rate limit exceeded");
+
+        // When
+        String limited = cachingService.getAttractions("Rocky Mountain", "USA");
+        String fetched = cachingService.getAttractions("Rocky Mountain", "USA");
+
+        // Then
+        assertEquals("API rate limit exceeded", limited);
+        assertEquals("Bear Lake", fetched);
+        assertEquals(1, attractionsCache.size());
+    }
+
+    @Test
+    @DisplayName("Should answer repeated lookups for unknown destinations without calling the upstream")
+    void shouldAnswerRepeatedNotFoundLookupsLocally() {
+        // Given
+        when(delegate.getDestinationDetails("Atlantis", "GRC"))
+                .thenThrow(new DestinationNotFoundException("Destination not found: Atlantis in GRC"));
+
+        // When & Then
+        assertThrows(DestinationNotFoundException.class, () -> cachingService.getDestinationDetails("Atlantis", "GRC"));
+        assertThrows(DestinationNotFoundException.class, () -> cachingService.getDestinationDetails("atlantis", "grc"));
+        assertThrows(DestinationNotFoundException.class, () -> cachingService.getAttractions("Atlantis", "GRC"));
+        verify(delegate, times(1)).getDestinationDetails(anyString(), anyString());
+        verify(delegate, never()).fetchAttractions(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should keep looking up details for destinations whose attractions were not found")
+    void shouldNotRejectDetailsAfterAttractionsNotFound() {
+        // Given
+        when(delegate.fetchAttractions("Rocky Mountain", "USA"))
+                .thenReturn(Mono.error(new DestinationNotFoundException("Attractions not found: Rocky Mountain in USA")));
+        when(delegate.getDestinationDetails("Rocky Mountain", "USA")).thenReturn(destination("DEST001"));
+
+        // When
+        assertThrows(DestinationNotFoundException.class, () -> cachingService.getAttractions("Rocky Mountain", "USA"));
+        assertThrows(DestinationNotFoundException.class, () -> cachingService.getAttractions("Rocky Mountain", "USA"));
+        TravelDestination result = cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        assertEquals("DEST001", result.getDestinationId());
+        verify(delegate, times(1)).fetchAttractions(anyString(), anyString());
+        verify(delegate, times(1)).getDestinationDetails("Rocky Mountain", "USA");
+    }
+
+    @Test
+    @DisplayName("Should not remember destinations that failed for other reasons")
+    void shouldNotRememberOtherFailures() {
+        // Given
+        when(delegate.getDestinationDetails("Rocky Mountain", "USA"))
+                .thenThrow(new IllegalStateException("upstream down"))
+                .thenReturn(destination("DEST001"));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> cachingService.getDestinationDetails("Rocky Mountain", "USA"));
+        TravelDestination result = cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        assertEquals("DEST001", result.getDestinationId());
+        assertEquals(0, negativeCache.size());
+    }
+
+    @Test
+    @DisplayName("Should serve the fallback instead of calling the upstream right after the breaker closes")
+    void shouldServeFallbackWhileRecoveryRamps() {
+        // Given
+        TravelDestination placeholder = destination("N/A");
+        when(delegate.fallbackTravelDestination(eq("Rocky Mountain"), eq("USA"), any(CallNotPermittedException.class)))
+                .thenReturn(placeholder);
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        // When
+        TravelDestination result = cachingService.getDestinationDetails("Rocky Mountain", "USA");
+
+        // Then
+        assertSame(placeholder, result);
+        verify(delegate, never()).getDestinationDetails(anyString(), anyString());
+        verify(snapshotStore, never()).record(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Should serve the attractions fallback without caching it right after the breaker closes")
+    void shouldServeAttractionsFallbackWhileRecoveryRamps() {
+        // Given
+        when(delegate.fallbackAttractions(eq("Rocky Mountain"), eq("USA"), any(CallNotPermittedException.class)))
+                .thenReturn("unavailable");
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToClosedState();
+
+        // When
+        String result = cachingService.getAttractions("Rocky Mountain", "USA");
+
+        // Then
+        assertEquals("unavailable", result);
+        verify(delegate, never()).fetchAttractions(anyString(), anyString());
+        assertEquals(0, attractionsCache.size());
+    }
+
+    private static TravelDestination destination(String id) {
+        return TravelDestination.builder()
+                .destinationId(id)
+                .name("Rocky Mountain")
+                .country("USA")
+                .build();
+    }
+}
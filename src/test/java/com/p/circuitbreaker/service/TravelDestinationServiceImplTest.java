@@ -1,6 +1,10 @@
 package com.p.circuitbreaker.service;
 
+import com.p.circuitbreaker.deadline.Deadline;
+import com.p.circuitbreaker.exception.DeadlineExceededException;
+import com.p.circuitbreaker.exception.DestinationNotFoundException;
 import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.support.UpstreamSimulator;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.ratelimiter.RateLimiter;
@@ -15,6 +19,9 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -48,7 +55,8 @@ class TravelDestinationServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        travelDestinationService = new TravelDestinationServiceImpl(webClient, rateLimiterRegistry, circuitBreakerRegistry);
+        travelDestinationService = new TravelDestinationServiceImpl(webClient, rateLimiterRegistry, circuitBreakerRegistry,
+                Duration.ofSeconds(10));
     }
 
     @Test
@@ -160,6 +168,14 @@ class TravelDestinationServiceImplTest {
         String destinationName = "Rocky Mountain";
         String country = "USA";
 
+        String expectedAttractions = destinationName + " is renowned for its stunning alpine scenery, abundant wildlife, "
+                + "and iconic trails such as Trail Ridge Road and Bear Lake.";
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), eq(destinationName), eq(country))).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(expectedAttractions));
+
         // When
         String result = travelDestinationService.getAttractions(destinationName, country);
 
@@ -170,6 +186,25 @@ class TravelDestinationServiceImplTest {
         assertTrue(result.contains("wildlife"));
         assertTrue(result.contains("Trail Ridge Road"));
         assertTrue(result.contains("Bear Lake"));
+        verify(requestHeadersUriSpec).uri("/travelAttractions?destinationId={destinationId}&country={country}", destinationName, country);
+    }
+
+    @Test
+    @DisplayName("Should fetch attractions from the upstream over HTTP")
+    void shouldFetchAttractionsFromUpstream() {
+        try (UpstreamSimulator upstream = UpstreamSimulator.start(Duration.ZERO)) {
+            // Given
+            TravelDestinationServiceImpl service = new TravelDestinationServiceImpl(
+                    WebClient.create(upstream.baseUrl()), rateLimiterRegistry, circuitBreakerRegistry,
+                    Duration.ofSeconds(10));
+
+            // When
+            String result = service.fetchAttractions("Rocky Mountain", "USA").block();
+
+            // Then
+            assertEquals(UpstreamSimulator.attractionsFor("Rocky Mountain"), result);
+            assertEquals(1, upstream.requestCount());
+        }
     }
 
     @Test
@@ -246,4 +281,89 @@ class TravelDestinationServiceImplTest {
         });
         assertEquals("Country is required and cannot be null or empty", exception.getMessage());
     }
+
+    @Test
+    @DisplayName("Should propagate the client's remaining deadline upstream")
+    void shouldPropagateDeadlineUpstream() {
+        // Given
+        String destinationName = "Rocky Mountain";
+        String country = "USA";
+        TravelDestination expectedDestination = TravelDestination.builder().destinationId("DEST001").name(destinationName).build();
+
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), eq(destinationName), eq(country))).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.header(eq(Deadline.HEADER), anyString())).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TravelDestination.class)).thenReturn(Mono.just(expectedDestination));
+        Deadline.set(Deadline.after(Duration.ofSeconds(2)));
+
+        try {
+            // When
+            TravelDestination result = travelDestinationService.getDestinationDetails(destinationName, country);
+
+            // Then
+            assertEquals("DEST001", result.getDestinationId());
+            verify(requestHeadersUriSpec).header(eq(Deadline.HEADER),
+                    argThat((String remaining) -> Long.parseLong(remaining) <= 2000));
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not call the upstream once the deadline has passed")
+    void shouldNotCallUpstreamPastDeadline() {
+        // Given
+        Deadline.set(Deadline.after(Duration.ZERO));
+
+        try {
+            // When & Then
+            assertThrows(DeadlineExceededException.class,
+                    () -> travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"));
+            verifyNoInteractions(webClient);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Should cancel the upstream call when the deadline passes")
+    void shouldCancelUpstreamCallAtDeadline() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(webClient.get()).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.uri(anyString(), anyString(), anyString())).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.header(eq(Deadline.HEADER), anyString())).thenReturn(requestHeadersUriSpec);
+        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+        when(responseSpec.bodyToMono(TravelDestination.class))
+                .thenReturn(Mono.<TravelDestination>never().doOnCancel(() -> cancelled.set(true)));
+        Deadline.set(Deadline.after(Duration.ofMillis(100)));
+
+        try {
+            // When & Then
+            assertThrows(DeadlineExceededException.class,
+                    () -> travelDestinationService.getDestinationDetails("Rocky Mountain", "USA"));
+            assertTrue(cancelled.get());
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Should rethrow deadline failures from the circuit breaker fallback")
+    void shouldRethrowDeadlineFailuresFromFallback() {
+        DeadlineExceededException exception = new DeadlineExceededException("Deadline passed");
+
+        assertSame(exception, assertThrows(DeadlineExceededException.class,
+                () -> travelDestinationService.fallbackTravelDestination("Rocky Mountain", "USA", exception)));
+    }
+
+    @Test
+    @DisplayName("Should rethrow not-found failures from the circuit breaker fallback")
+    void shouldRethrowNotFoundFailuresFromFallback() {
+        DestinationNotFoundException exception = new DestinationNotFoundException("Destination not found: Atlantis in GRC");
+
+        assertSame(exception, assertThrows(DestinationNotFoundException.class,
+                () -> travelDestinationService.fallbackTravelDestination("Atlantis", "GRC", exception)));
+    }
 }
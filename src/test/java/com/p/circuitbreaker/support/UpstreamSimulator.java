@@ -0,0 +1,154 @@
+package com.p.circuitbreaker.support;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p.circuitbreaker.model.TravelDestination;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the travel destination service, used by tests and benchmarks.
+ * Counts accepted TCP connections and served requests so that client behaviour can be asserted on.
+ */
+public class UpstreamSimulator implements AutoCloseable {
+
+    public static final String CONTEXT_PATH = "/travelDestinationService";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final DisposableServer server;
+    private volatile Duration latency;
+    private volatile HttpResponseStatus failureStatus;
+
+    private UpstreamSimulator(Duration latency, HttpProtocol... protocols) {
+        this.latency = latency;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(protocols)
+                .doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+                .route(routes -> routes
+                        .get(CONTEXT_PATH + "/travelDestination", this::destination)
+                        .get(CONTEXT_PATH + "/travelAttractions", this::attractions))
+                .bindNow();
+    }
+
+    public static UpstreamSimulator start(Duration latency, HttpProtocol... protocols) {
+        return new UpstreamSimulator(latency, protocols.length == 0 ? new HttpProtocol[]{HttpProtocol.HTTP11} : protocols);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port() + CONTEXT_PATH;
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return the highest number of requests that were being served at the same time
+     */
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Answer every request with the given status, or serve normally again when {@code null}.
+     */
+    public void setFailureStatus(HttpResponseStatus failureStatus) {
+        this.failureStatus = failureStatus;
+    }
+
+    private Mono<Void> destination(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        HttpResponseStatus failure = failureStatus;
+        if (failure != null) {
+            return response.status(failure).send();
+        }
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        String name = first(params, "destinationId");
+        String country = first(params, "country");
+        if (name == null || country == null) {
+            return response.status(HttpResponseStatus.BAD_REQUEST).send();
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return Mono.delay(latency)
+                .then(response.header("Content-Type", "application/json")
+                        .sendString(Mono.just(toJson(destinationFor(name, country))))
+                        .then())
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private Mono<Void> attractions(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        Map<String, List<String>> params = new QueryStringDecoder(request.uri()).parameters();
+        String name = first(params, "destinationId");
+        String country = first(params, "country");
+        if (name == null || country == null) {
+            return response.status(HttpResponseStatus.BAD_REQUEST).send();
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return Mono.delay(latency)
+                .then(response.header("Content-Type", "text/plain")
+                        .sendString(Mono.just(attractionsFor(name)))
+                        .then())
+                .doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    public static String attractionsFor(String name) {
+        return name + " is renowned for its alpine scenery, Trail Ridge Road and Bear Lake.";
+    }
+
+    public static TravelDestination destinationFor(String name, String country) {
+        return TravelDestination.builder()
+                .destinationId(name.toUpperCase().replace(' ', '_'))
+                .name(name)
+                .country(country)
+                .city("Estes Park")
+                .description("Simulated destination " + name)
+                .category("National Park")
+                .bestSeasonToVisit("Summer")
+                .attractions("Trail Ridge Road, Bear Lake")
+                .build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String first(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
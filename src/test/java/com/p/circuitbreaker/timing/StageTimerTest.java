@@ -0,0 +1,98 @@
+package com.p.circuitbreaker.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Stage Timer Tests")
+class StageTimerTest {
+
+    @AfterEach
+    void tearDown() {
+        StageTimer.clear();
+    }
+
+    @Test
+    @DisplayName("Should accumulate time per stage, including stages entered more than once")
+    void shouldAccumulateStages() throws InterruptedException {
+        // Given
+        StageTimer timer = StageTimer.start(Stage.REQUEST);
+
+        // When
+        timer.mark(Stage.UPSTREAM);
+        Thread.sleep(20);
+        timer.mark(Stage.RESILIENCE);
+        timer.mark(Stage.UPSTREAM);
+        Thread.sleep(20);
+        timer.stop();
+
+        // Then
+        assertTrue(timer.elapsedNanos(Stage.UPSTREAM) >= TimeUnit.MILLISECONDS.toNanos(40));
+        assertEquals(0, timer.elapsedNanos(Stage.DECODE));
+        long sum = 0;
+        for (Stage stage : Stage.values()) {
+            sum += timer.elapsedNanos(stage);
+        }
+        assertEquals(timer.totalNanos(), sum);
+    }
+
+    @Test
+    @DisplayName("Should ignore marks after the timer was stopped")
+    void shouldIgnoreMarksAfterStop() {
+        // Given
+        StageTimer timer = StageTimer.start(Stage.REQUEST);
+        timer.stop();
+        long total = timer.totalNanos();
+
+        // When
+        timer.mark(Stage.DECODE);
+
+        // Then
+        assertEquals(0, timer.elapsedNanos(Stage.DECODE));
+        assertEquals(total, timer.totalNanos());
+    }
+
+    @Test
+    @DisplayName("Should report only the stages that took time in the Server-Timing header")
+    void shouldFormatServerTimingHeader() {
+        // Given
+        StageTimer timer = StageTimer.start(Stage.REQUEST);
+        timer.mark(Stage.CACHE);
+        timer.stop();
+
+        // When
+        String header = timer.serverTiming();
+
+        // Then
+        assertTrue(header.matches("request;dur=\\d+\\.\\d{3}, cache;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), header);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when no request is being timed")
+    void shouldIgnoreMarksWithoutTimer() {
+        // When & Then
+        assertDoesNotThrow(() -> StageTimer.enter(Stage.CACHE));
+        assertDoesNotThrow(() -> StageTimer.enter(Context.empty(), Stage.UPSTREAM));
+        assertNull(StageTimer.current());
+    }
+
+    @Test
+    @DisplayName("Should mark the timer carried in the reactive context")
+    void shouldMarkTimerFromContext() {
+        // Given
+        StageTimer timer = StageTimer.start(Stage.POOL);
+
+        // When
+        StageTimer.enter(Context.of(StageTimer.class, timer), Stage.UPSTREAM);
+        timer.stop();
+
+        // Then
+        assertTrue(timer.elapsedNanos(Stage.POOL) > 0);
+        assertTrue(timer.elapsedNanos(Stage.UPSTREAM) > 0);
+    }
+}
@@ -0,0 +1,136 @@
+package com.p.circuitbreaker.timing;
+
+import com.p.circuitbreaker.controller.DestinationController;
+import com.p.circuitbreaker.hotkeys.HotKeyTracker;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.resilience.UpstreamHealthProber;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Stage Timing Filter Tests")
+class StageTimingFilterTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private UpstreamHealthProber upstreamHealthProber;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
+    @TempDir
+    private Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StageTraceExporter exporter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exporter = new StageTraceExporter(directory.resolve("traces.jsonl").toString(), "", 100, 10,
+                Jackson2ObjectMapperBuilder.json().build(), meterRegistry);
+        exporter.start();
+        StageTimingFilter filter = new StageTimingFilter(true, 1.0, Duration.ofSeconds(1), exporter, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .setControllerAdvice(new StageTimingResponseAdvice())
+                .addFilters(filter)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.stop();
+    }
+
+    @Test
+    @DisplayName("Should report the stage breakdown in the Server-Timing header and stage timers")
+    void shouldReportStagesInServerTimingHeader() throws Exception {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Rocky Mountain", "USA")).thenAnswer(invocation -> {
+            StageTimer.enter(Stage.UPSTREAM);
+            Thread.sleep(30);
+            StageTimer.enter(Stage.CACHE);
+            return TravelDestination.builder().destinationId("DEST001").build();
+        });
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/details")
+                        .param("location", "Rocky Mountain")
+                        .param("country", "USA"))
+                .andReturn().getResponse();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        String serverTiming = response.getHeader(StageTimer.SERVER_TIMING_HEADER);
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.contains("upstream;dur=") && serverTiming.contains("total;dur="), serverTiming);
+        double upstreamMillis = Double.parseDouble(serverTiming.replaceAll(".*upstream;dur=([0-9.]+).*", "$1"));
+        assertTrue(upstreamMillis >= 30, serverTiming);
+        assertEquals(1, meterRegistry.get("travel.request.stage").tag("stage", "upstream").timer().count());
+        assertEquals(1, meterRegistry.get("travel.request.stage").tag("stage", "serialize").timer().count());
+        assertEquals(0, meterRegistry.get("travel.request.stage").tag("stage", "pool").timer().count());
+        assertNull(StageTimer.current());
+    }
+
+    @Test
+    @DisplayName("Should export sampled requests as JSON lines")
+    void shouldExportSampledTraces() throws Exception {
+        // When
+        mockMvc.perform(get("/api/v1/destinations/health"));
+        mockMvc.perform(get("/api/v1/destinations/health"));
+
+        // Then
+        Path traces = directory.resolve("traces.jsonl");
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((!Files.exists(traces) || Files.readAllLines(traces).size() < 2) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        List<String> lines = Files.readAllLines(traces);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"path\":\"/api/v1/destinations/health\""), lines.get(0));
+        assertTrue(lines.get(0).contains("\"stageMicros\":{\"request\":"), lines.get(0));
+    }
+
+    @Test
+    @DisplayName("Should leave requests untouched when timing is disabled")
+    void shouldSkipTimingWhenDisabled() throws Exception {
+        // Given
+        StageTimingFilter filter = new StageTimingFilter(false, 1.0, Duration.ofSeconds(1), exporter, meterRegistry);
+        mockMvc = MockMvcBuilders.standaloneSetup(new DestinationController(travelDestinationService, upstreamHealthProber, hotKeyTracker))
+                .setControllerAdvice(new StageTimingResponseAdvice())
+                .addFilters(filter)
+                .build();
+
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/api/v1/destinations/health")).andReturn().getResponse();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(StageTimer.SERVER_TIMING_HEADER));
+        assertEquals(0, meterRegistry.get("travel.request.stage").tag("stage", "total").timer().count());
+    }
+}
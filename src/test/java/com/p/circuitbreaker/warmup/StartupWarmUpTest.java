@@ -0,0 +1,134 @@
+package com.p.circuitbreaker.warmup;
+
+import com.p.circuitbreaker.cache.DestinationSnapshotStore;
+import com.p.circuitbreaker.model.TravelDestination;
+import com.p.circuitbreaker.service.TravelDestinationService;
+import com.p.circuitbreaker.support.UpstreamSimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Startup Warm-Up Tests")
+class StartupWarmUpTest {
+
+    @Mock
+    private TravelDestinationService travelDestinationService;
+
+    @Mock
+    private DestinationSnapshotStore snapshotStore;
+
+    private UpstreamSimulator upstream;
+
+    @BeforeEach
+    void setUp() {
+        upstream = UpstreamSimulator.start(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.close();
+    }
+
+    @Test
+    @DisplayName("Should report out of service until warm-up has run")
+    void shouldGateReadinessUntilWarmUpCompletes() {
+        // Given
+        when(travelDestinationService.getDestinationDetails(anyString(), anyString()))
+                .thenReturn(destination("DEST001"));
+        // slow answers keep the warm-up requests in flight together, so each needs its own connection
+        upstream.setLatency(Duration.ofMillis(100));
+        StartupWarmUp warmUp = warmUp(List.of("Rocky Mountain:USA", "Banff:Canada"), Duration.ofSeconds(10));
+        assertEquals(Status.OUT_OF_SERVICE, warmUp.health().getStatus());
+
+        // When
+        warmUp.run();
+
+        // Then
+        Health health = warmUp.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(StartupWarmUp.Phase.COMPLETE, health.getDetails().get("phase"));
+        assertEquals("4/4", health.getDetails().get("upstreamConnections"));
+        assertEquals("2/2", health.getDetails().get("prefetchedDestinations"));
+        assertTrue(upstream.connectionCount() >= 4);
+        verify(travelDestinationService).getDestinationDetails("Rocky Mountain", "USA");
+        verify(travelDestinationService).getDestinationDetails("Banff", "Canada");
+    }
+
+    @Test
+    @DisplayName("Should skip malformed destinations and keep going after prefetch failures")
+    void shouldToleratePrefetchProblems() {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Atlantis", "Nowhere"))
+                .thenThrow(new IllegalStateException("upstream down"));
+        when(travelDestinationService.getDestinationDetails("Banff", "Canada")).thenReturn(destination("DEST002"));
+        StartupWarmUp warmUp = warmUp(List.of("no-country", "Atlantis:Nowhere", "Banff:Canada"), Duration.ofSeconds(10));
+
+        // When
+        warmUp.run();
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals("1/3", warmUp.health().getDetails().get("prefetchedDestinations"));
+        verify(travelDestinationService).getDestinationDetails("Banff", "Canada");
+    }
+
+    @Test
+    @DisplayName("Should not count fallback placeholders as prefetched")
+    void shouldNotCountFallbackPlaceholders() {
+        // Given
+        when(travelDestinationService.getDestinationDetails("Banff", "Canada"))
+                .thenReturn(destination("No Details Available"));
+        StartupWarmUp warmUp = warmUp(List.of("Banff:Canada"), Duration.ofSeconds(10));
+
+        // When
+        warmUp.run();
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals("0/1", warmUp.health().getDetails().get("prefetchedDestinations"));
+    }
+
+    @Test
+    @DisplayName("Should report ready once the time budget is exhausted")
+    void shouldBecomeReadyWhenBudgetIsExhausted() {
+        // Given
+        StartupWarmUp warmUp = warmUp(List.of("Rocky Mountain:USA"), Duration.ZERO);
+
+        // When
+        warmUp.run();
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals(StartupWarmUp.Phase.BUDGET_EXHAUSTED, warmUp.health().getDetails().get("phase"));
+        verify(travelDestinationService, never()).getDestinationDetails(anyString(), anyString());
+    }
+
+    private static TravelDestination destination(String id) {
+        return TravelDestination.builder()
+                .destinationId(id)
+                .name("Banff")
+                .country("Canada")
+                .build();
+    }
+
+    private StartupWarmUp warmUp(List<String> destinations, Duration budget) {
+        return new StartupWarmUp(true, 4, "/travelDestination?destinationId=Banff&country=Canada", destinations, 10, budget,
+                WebClient.create(upstream.baseUrl()), travelDestinationService, snapshotStore, new MockEnvironment());
+    }
+}